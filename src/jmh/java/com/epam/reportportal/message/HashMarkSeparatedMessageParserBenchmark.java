@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.epam.reportportal.apache.commons.codec.binary.Base64;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+
+/**
+ * Parsing of log messages with attachments
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashMarkSeparatedMessageParserBenchmark {
+
+	private MessageParser parser;
+
+	private String base64Message;
+
+	private String fileMessage;
+
+	@Setup
+	public void setUp() {
+		parser = new HashMarkSeparatedMessageParser();
+		byte[] attachment = Strings.repeat("attachment content ", 3000).getBytes(Charsets.UTF_8);
+		base64Message = MessageParser.RP_MESSAGE_PREFIX + "#BASE64#" + Base64.encodeBase64String(attachment) + "#message";
+		fileMessage = MessageParser.RP_MESSAGE_PREFIX + "#FILE#absent.txt#message";
+	}
+
+	@Benchmark
+	public ReportPortalMessage parseBase64() {
+		return parser.parse(base64Message);
+	}
+
+	@Benchmark
+	public ReportPortalMessage parseFile() {
+		return parser.parse(fileMessage);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.epam.reportportal.guice.ReportPortalClientModule;
+import com.epam.reportportal.utils.queue.Result;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+
+/**
+ * Cost of {@link BatchedReportPortalService#log(SaveLogRQ)} including
+ * serialization of the batch once it's full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchedReportPortalServiceBenchmark {
+
+	@Param({ "10", "100" })
+	private int batchSize;
+
+	private BatchedReportPortalService service;
+
+	private SaveLogRQ rq;
+
+	@Setup
+	public void setUp() {
+		service = new BatchedReportPortalService(new StubRestEndpoint(new ReportPortalClientModule().provideSeriazer()),
+				ReportPortalClientModule.API_BASE, "project", batchSize);
+		rq = new SaveLogRQ();
+		rq.setTestItemId("57d2b4a1e4b0d4d3f1c1e0a2");
+		rq.setLevel("INFO");
+		rq.setLogTime(Calendar.getInstance().getTime());
+		rq.setMessage("java.lang.AssertionError: expected [true] but found [false]");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		service.flushLogs(rq.getTestItemId());
+	}
+
+	@Benchmark
+	public Result<BatchElementCreatedRS> log() throws IOException {
+		return service.log(rq);
+	}
+}
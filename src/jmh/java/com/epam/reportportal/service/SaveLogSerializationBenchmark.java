@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.epam.reportportal.guice.ReportPortalClientModule;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Jackson serialization of log batches with default client settings
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveLogSerializationBenchmark {
+
+	@Param({ "10", "100", "500" })
+	private int batchSize;
+
+	private Serializer serializer;
+
+	private List<SaveLogRQ> batch;
+
+	@Setup
+	public void setUp() {
+		serializer = new ReportPortalClientModule().provideSeriazer();
+		batch = Lists.newArrayListWithCapacity(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			SaveLogRQ rq = new SaveLogRQ();
+			rq.setTestItemId("57d2b4a1e4b0d4d3f1c1e0a2");
+			rq.setLevel("INFO");
+			rq.setLogTime(Calendar.getInstance().getTime());
+			rq.setMessage("Step " + i + ": java.lang.AssertionError: expected [true] but found [false]");
+			batch.add(rq);
+		}
+	}
+
+	@Benchmark
+	public long serialize() throws IOException {
+		return ByteStreams.copy(serializer.serialize(batch), ByteStreams.nullOutputStream());
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.restclient.endpoint.exception.SerializerException;
+import com.epam.reportportal.utils.http.MultiPartEntity;
+import com.epam.reportportal.utils.http.StreamingRestEndpoint;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.BatchSaveOperatingRS;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+
+/**
+ * In-process endpoint for log batches. Serializes and writes multipart
+ * request as real endpoint does but doesn't send it anywhere. Responds with
+ * one created element per log
+ */
+class StubRestEndpoint extends StreamingRestEndpoint {
+
+	private final Serializer serializer;
+
+	StubRestEndpoint(Serializer serializer) {
+		super(HttpClients.createMinimal(), Collections.singletonList(serializer), new ReportPortalErrorHandler(serializer),
+				"http://localhost:8080");
+		this.serializer = serializer;
+	}
+
+	@Override
+	public <RS> RS postMultiPart(String resource, MultiPartEntity entity, Class<RS> clazz) throws RestEndpointIOException {
+		final List<BatchElementCreatedRS> responses = Lists.newArrayList();
+		MultiPartEntity serialized = entity.serialize(new Serializer() {
+			@Override
+			public <T> InputStream serialize(T t) throws SerializerException {
+				if (t instanceof List) {
+					for (int i = 0; i < ((List<?>) t).size(); i++) {
+						responses.add(new BatchElementCreatedRS(String.valueOf(i)));
+					}
+				}
+				return serializer.serialize(t);
+			}
+
+			@Override
+			public <T> T deserialize(byte[] content, Class<T> clazz) throws SerializerException {
+				return serializer.deserialize(content, clazz);
+			}
+
+			@Override
+			public <T> T deserialize(byte[] content, Type type) throws SerializerException {
+				return serializer.deserialize(content, type);
+			}
+
+			@Override
+			public String getMimeType() {
+				return serializer.getMimeType();
+			}
+
+			@Override
+			public boolean canRead(String mimeType) {
+				return serializer.canRead(mimeType);
+			}
+
+			@Override
+			public boolean canWrite(Object o) {
+				return serializer.canWrite(o);
+			}
+		});
+		try {
+			serialized.writeTo(ByteStreams.nullOutputStream());
+		} catch (IOException e) {
+			throw new RestEndpointIOException("Unable to write request", e);
+		}
+		BatchSaveOperatingRS rs = new BatchSaveOperatingRS();
+		rs.setResponses(responses);
+		return clazz.cast(rs);
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.stub;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.epam.reportportal.guice.Injector;
+import com.epam.reportportal.service.BatchedReportPortalService;
+import com.epam.reportportal.utils.properties.ListenerProperty;
+import com.epam.ta.reportportal.ws.model.FinishExecutionRQ;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.launch.StartLaunchRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+/**
+ * Drives {@link BatchedReportPortalService} against
+ * {@link StubReportPortalServer} from several threads and prints throughput.
+ * Client is configured by usual rp.* system properties, e.g.
+ * -Drp.batch.size.logs=50 -Drp.batch.async=true
+ * <br>
+ * Arguments: [threads] [logs per thread] [message length] [min latency ms]
+ * [max latency ms] [error rate]
+ */
+public class LoadGenerator {
+
+	private LoadGenerator() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int threads = intArg(args, 0, 8);
+		final int logsPerThread = intArg(args, 1, 10000);
+		final String message = Strings.repeat("x", intArg(args, 2, 200));
+
+		StubReportPortalServer server = new StubReportPortalServer(0, Math.max(threads, 8));
+		try {
+			server.setLatency(intArg(args, 3, 5), Math.max(intArg(args, 3, 5), intArg(args, 4, 20)), TimeUnit.MILLISECONDS);
+			server.setErrorRate(args.length > 5 ? Double.parseDouble(args[5]) : 0, 503);
+			server.start();
+			System.setProperty(ListenerProperty.BASE_URL.getPropertyName(), server.getBaseUrl());
+			setDefault(ListenerProperty.UUID, "load-generator");
+			setDefault(ListenerProperty.PROJECT_NAME, "load");
+			setDefault(ListenerProperty.LAUNCH_NAME, "load");
+
+			final BatchedReportPortalService service = Injector.getInstance().getBean(BatchedReportPortalService.class);
+			StartLaunchRQ launch = new StartLaunchRQ();
+			launch.setName("load");
+			launch.setStartTime(Calendar.getInstance().getTime());
+			final String launchId = service.startLaunch(launch).getId();
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			List<Future<Void>> futures = Lists.newArrayListWithCapacity(threads);
+			long start = System.nanoTime();
+			for (int i = 0; i < threads; i++) {
+				final int thread = i;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						StartTestItemRQ item = new StartTestItemRQ();
+						item.setLaunchId(launchId);
+						item.setName("test " + thread);
+						item.setType("TEST");
+						item.setStartTime(Calendar.getInstance().getTime());
+						String itemId = service.startRootTestItem(item).getId();
+						for (int j = 0; j < logsPerThread; j++) {
+							SaveLogRQ rq = new SaveLogRQ();
+							rq.setTestItemId(itemId);
+							rq.setLevel("INFO");
+							rq.setLogTime(Calendar.getInstance().getTime());
+							rq.setMessage(message);
+							service.log(rq);
+						}
+						FinishTestItemRQ finish = new FinishTestItemRQ();
+						finish.setStatus("PASSED");
+						finish.setEndTime(Calendar.getInstance().getTime());
+						service.finishTestItem(itemId, finish);
+						return null;
+					}
+				}));
+			}
+			int failed = 0;
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (Exception e) {
+					failed++;
+					e.printStackTrace();
+				}
+			}
+			executor.shutdown();
+			FinishExecutionRQ finish = new FinishExecutionRQ();
+			finish.setEndTime(Calendar.getInstance().getTime());
+			service.finishLaunch(launchId, finish);
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			long total = (long) threads * logsPerThread;
+			System.out.println("Threads:          " + threads + (failed > 0 ? " (" + failed + " failed)" : ""));
+			System.out.println("Logs sent:        " + total);
+			System.out.println("Logs received:    " + server.getLogs());
+			System.out.println("Elapsed, ms:      " + elapsed);
+			System.out.println("Throughput, 1/s:  " + total * 1000 / Math.max(1, elapsed));
+			System.out.println("HTTP requests:    " + server.getRequests() + " (" + server.getErrors() + " errors)");
+			System.out.println("Bytes received:   " + server.getBytesReceived());
+			System.out.println("Dropped logs:     " + service.getDroppedLogs());
+		} finally {
+			server.close();
+		}
+		System.exit(0);
+	}
+
+	private static int intArg(String[] args, int index, int defaultValue) {
+		return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+	}
+
+	private static void setDefault(ListenerProperty property, String value) {
+		if (null == System.getProperty(property.getPropertyName())) {
+			System.setProperty(property.getPropertyName(), value);
+		}
+	}
+}
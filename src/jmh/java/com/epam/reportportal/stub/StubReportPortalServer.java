@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.stub;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.epam.ta.reportportal.ws.model.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process HTTP stub of Report Portal API. Implements launch, item and log
+ * endpoints used by reporting with configurable latency and injected errors.
+ * Counts handled requests, logs and received bytes
+ */
+public class StubReportPortalServer implements Closeable {
+
+	public static final String API_BASE = "/api/v1";
+
+	private static final String MULTIPART = "multipart/form-data";
+
+	private static final String BOUNDARY = "boundary=";
+
+	private final HttpServer server;
+
+	private final ExecutorService workers;
+
+	private final ObjectMapper mapper;
+
+	private final AtomicLong ids = new AtomicLong();
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong errors = new AtomicLong();
+
+	private final AtomicLong logs = new AtomicLong();
+
+	private final AtomicLong bytesReceived = new AtomicLong();
+
+	private volatile long minLatency;
+
+	private volatile long maxLatency;
+
+	private volatile double errorRate;
+
+	private volatile int errorStatus = 503;
+
+	/**
+	 * @param port
+	 *            - port to listen. Random free port is chosen if it's zero
+	 * @param threads
+	 *            - count of threads handling requests
+	 * @throws IOException
+	 */
+	public StubReportPortalServer(int port, int threads) throws IOException {
+		Preconditions.checkArgument(threads > 0, "Count of threads should be positive");
+		this.mapper = new ObjectMapper();
+		this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		this.workers = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("rp-stub-server-%d").setDaemon(true).build());
+		server.setExecutor(workers);
+		server.createContext(API_BASE, new ApiHandler());
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		workers.shutdownNow();
+	}
+
+	/**
+	 * @return endpoint URL to be used as rp.endpoint
+	 */
+	public String getBaseUrl() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * Every response is delayed by random time between min and max latency
+	 */
+	public void setLatency(long minLatency, long maxLatency, TimeUnit unit) {
+		Preconditions.checkArgument(0 <= minLatency && minLatency <= maxLatency, "Latency range is incorrect");
+		this.minLatency = unit.toMillis(minLatency);
+		this.maxLatency = unit.toMillis(maxLatency);
+	}
+
+	/**
+	 * @param errorRate
+	 *            - share of requests answered with error, from 0 to 1
+	 * @param errorStatus
+	 *            - HTTP status of injected errors
+	 */
+	public void setErrorRate(double errorRate, int errorStatus) {
+		Preconditions.checkArgument(0 <= errorRate && errorRate <= 1, "Error rate should be between 0 and 1");
+		this.errorRate = errorRate;
+		this.errorStatus = errorStatus;
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getErrors() {
+		return errors.get();
+	}
+
+	public long getLogs() {
+		return logs.get();
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	public void resetStatistics() {
+		requests.set(0);
+		errors.set(0);
+		logs.set(0);
+		bytesReceived.set(0);
+	}
+
+	/**
+	 * Routes requests of {project}/launch, {project}/item and {project}/log
+	 * resources
+	 */
+	private class ApiHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				byte[] body = ByteStreams.toByteArray(exchange.getRequestBody());
+				requests.incrementAndGet();
+				bytesReceived.addAndGet(body.length);
+				delay();
+				if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+					errors.incrementAndGet();
+					respond(exchange, errorStatus, ImmutableMap.of("message", "Injected error"));
+					return;
+				}
+				respond(exchange, exchange.getRequestMethod(), exchange.getRequestURI().getPath(), body);
+			} catch (Exception e) {
+				errors.incrementAndGet();
+				respond(exchange, 500, ImmutableMap.of("message", String.valueOf(e.getMessage())));
+			} finally {
+				exchange.close();
+			}
+		}
+
+		private void respond(HttpExchange exchange, String method, String path, byte[] body) throws IOException {
+			List<String> segments = Lists.newArrayList(
+					Splitter.on('/').omitEmptyStrings().split(path.substring(API_BASE.length())));
+			String resource = segments.size() > 1 ? segments.get(1) : "";
+			boolean post = "POST".equals(method);
+			boolean put = "PUT".equals(method);
+			if (post && ("launch".equals(resource) || "item".equals(resource))) {
+				respond(exchange, 201, created());
+			} else if (put && ("launch".equals(resource) || "item".equals(resource))) {
+				respond(exchange, 200, ImmutableMap.of("msg", "Finished"));
+			} else if (post && "log".equals(resource)) {
+				String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+				byte[] content = decode(exchange.getRequestHeaders().getFirst("Content-Encoding"), body);
+				if (null != contentType && contentType.startsWith(MULTIPART)) {
+					int count = mapper.readValue(jsonPart(content, contentType.substring(contentType.indexOf(BOUNDARY) + BOUNDARY.length())),
+							List.class).size();
+					logs.addAndGet(count);
+					List<Map<String, String>> responses = Lists.newArrayListWithCapacity(count);
+					for (int i = 0; i < count; i++) {
+						responses.add(created());
+					}
+					respond(exchange, 201, ImmutableMap.of("responses", responses));
+				} else {
+					logs.incrementAndGet();
+					respond(exchange, 201, created());
+				}
+			} else {
+				respond(exchange, 404, ImmutableMap.of("message", "Stub doesn't support " + method + " " + path));
+			}
+		}
+
+		private Map<String, String> created() {
+			return ImmutableMap.of("id", Long.toHexString(ids.incrementAndGet()));
+		}
+
+		private void respond(HttpExchange exchange, int status, Object response) throws IOException {
+			byte[] content = mapper.writeValueAsBytes(response);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, content.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(content);
+			out.flush();
+		}
+	}
+
+	private void delay() throws InterruptedException {
+		long latency = maxLatency > minLatency ? minLatency + ThreadLocalRandom.current().nextLong(maxLatency - minLatency + 1)
+				: minLatency;
+		if (latency > 0) {
+			Thread.sleep(latency);
+		}
+	}
+
+	/**
+	 * Decompresses request body compressed by the client
+	 */
+	private static byte[] decode(String encoding, byte[] body) throws IOException {
+		if (null == encoding) {
+			return body;
+		}
+		InputStream in;
+		if ("gzip".equalsIgnoreCase(encoding)) {
+			in = new GZIPInputStream(new ByteArrayInputStream(body));
+		} else if ("deflate".equalsIgnoreCase(encoding)) {
+			in = new InflaterInputStream(new ByteArrayInputStream(body));
+		} else {
+			throw new IOException("Unsupported content encoding " + encoding);
+		}
+		try {
+			return ByteStreams.toByteArray(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Extracts serialized log requests from decompressed multipart body
+	 */
+	private static byte[] jsonPart(byte[] body, String boundary) throws IOException {
+		/* ISO-8859-1 maps bytes to chars one to one */
+		String content = new String(body, Charsets.ISO_8859_1);
+		int part = content.indexOf("name=\"" + Constants.LOG_REQUEST_JSON_PART + "\"");
+		if (part < 0) {
+			throw new IOException("Multipart request doesn't contain " + Constants.LOG_REQUEST_JSON_PART);
+		}
+		int start = content.indexOf("\r\n\r\n", part) + 4;
+		int end = content.indexOf("\r\n--" + boundary, start);
+		if (start < 4 || end < 0) {
+			throw new IOException("Multipart request is malformed");
+		}
+		return content.substring(start, end).getBytes(Charsets.ISO_8859_1);
+	}
+}
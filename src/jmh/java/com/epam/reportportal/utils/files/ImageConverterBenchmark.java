@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteSource;
+
+/**
+ * Detection of screenshots among attachments and their conversion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageConverterBenchmark {
+
+	private byte[] screenshot;
+
+	private byte[] text;
+
+	@Setup
+	public void setUp() throws IOException {
+		BufferedImage image = new BufferedImage(1280, 1024, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		for (int i = 0; i < image.getWidth(); i += 16) {
+			graphics.setColor(new Color(i % 256, (i * 7) % 256, (i * 13) % 256));
+			graphics.fillRect(i, 0, 16, image.getHeight());
+		}
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		screenshot = out.toByteArray();
+		text = Strings.repeat("java.lang.AssertionError: expected [true] but found [false]\n", 1000).getBytes(Charsets.UTF_8);
+	}
+
+	@Benchmark
+	public boolean isImageScreenshot() {
+		return ImageConverter.isImage(screenshot);
+	}
+
+	@Benchmark
+	public boolean isImageText() {
+		return ImageConverter.isImage(text);
+	}
+
+	@Benchmark
+	public ByteSource convert() throws IOException {
+		return ImageConverter.convert(screenshot);
+	}
+}
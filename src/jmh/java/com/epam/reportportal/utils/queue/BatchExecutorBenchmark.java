@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of {@link BatchExecutor#submit(Object)} including batch execution once
+ * it's full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchExecutorBenchmark {
+
+	@Param({ "10", "100" })
+	private int batchSize;
+
+	private BatchExecutor<String, String> executor;
+
+	@Setup
+	public void setUp() {
+		executor = new BatchExecutor<String, String>() {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> parameter : batch) {
+					parameter.getResult().set(parameter.getParameter());
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<Parameter<String, String>> batch) throws IOException {
+				return batch.size() >= batchSize;
+			}
+		};
+	}
+
+	@Benchmark
+	public Result<String> submit() throws IOException {
+		return executor.submit("log message");
+	}
+}
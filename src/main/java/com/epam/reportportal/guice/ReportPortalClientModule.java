@@ -23,17 +23,43 @@ package com.epam.reportportal.guice;
 import com.epam.reportportal.apache.http.HttpRequestInterceptor;
 import com.epam.reportportal.apache.http.HttpResponse;
 import com.epam.reportportal.apache.http.client.HttpClient;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
 import com.epam.reportportal.exception.InternalReportPortalClientException;
 import com.epam.reportportal.listeners.ListenerParameters;
 import com.epam.reportportal.message.HashMarkSeparatedMessageParser;
 import com.epam.reportportal.message.MessageParser;
 import com.epam.reportportal.restclient.endpoint.*;
 import com.epam.reportportal.restclient.serializer.Jackson2Serializer;
+import com.epam.reportportal.service.AsyncReportPortalService;
 import com.epam.reportportal.service.BatchedReportPortalService;
+import com.epam.reportportal.service.IAsyncReportPortalService;
+import com.epam.reportportal.service.OverflowPolicy;
 import com.epam.reportportal.service.ReportPortalErrorHandler;
 import com.epam.reportportal.service.ReportPortalService;
+import com.epam.reportportal.service.SpooledReportPortalService;
+import com.epam.reportportal.utils.files.AttachmentCache;
+import com.epam.reportportal.utils.files.ImageConversionPool;
+import com.epam.reportportal.utils.files.ImageConversionSettings;
+import com.epam.reportportal.utils.http.CircuitBreaker;
+import com.epam.reportportal.utils.http.CircuitBreakerHttpClient;
+import com.epam.reportportal.utils.http.CompressionInterceptor;
+import com.epam.reportportal.utils.http.InstrumentedHttpClient;
+import com.epam.reportportal.utils.http.PooledHttpClientFactory;
+import com.epam.reportportal.utils.http.RetryBudget;
+import com.epam.reportportal.utils.http.RetryStrategy;
+import com.epam.reportportal.utils.http.StreamingRestEndpoint;
+import com.epam.reportportal.utils.metrics.MetricsRegistry;
+import com.epam.reportportal.utils.metrics.NoopMetricsRegistry;
+import com.epam.reportportal.utils.metrics.SimpleMetricsRegistry;
+import com.epam.reportportal.utils.metrics.Slf4jMetricsReporter;
 import com.epam.reportportal.utils.properties.ListenerProperty;
 import com.epam.reportportal.utils.properties.PropertiesLoader;
+import com.epam.reportportal.utils.queue.AdaptiveFlushPolicy;
+import com.epam.reportportal.utils.queue.BatchExecutor;
+import com.epam.reportportal.utils.queue.MemoryBudget;
+import com.epam.reportportal.utils.spool.Spool;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
@@ -42,11 +68,17 @@ import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 
 import javax.annotation.Nullable;
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.GeneralSecurityException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 /**
  * Report portal service endpoint and utils module
@@ -57,6 +89,39 @@ public class ReportPortalClientModule implements Module {
 	public static final String API_BASE = "/api/v1";
 	private static final String HTTPS = "https";
 	private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+	private static final int DEFAULT_BATCH_SIZE_LOGS = 10;
+	private static final int DEFAULT_BATCH_ASYNC_THREADS = 2;
+	private static final int DEFAULT_BATCH_QUEUE_SIZE = 1000;
+	private static final long DEFAULT_BATCH_PAYLOAD_LIMIT = 10 * 1024 * 1024;
+	private static final int DEFAULT_BATCH_SIZE_LOGS_MAX = 500;
+	private static final long DEFAULT_BATCH_LINGER_MAX = 1000L;
+	private static final long DEFAULT_BATCH_TARGET_LATENCY = 2000L;
+	private static final int DEFAULT_ASYNC_THREADS = 4;
+	private static final int SPOOL_SEGMENT_SIZE = 16 * 1024 * 1024;
+	private static final long SPOOL_REPLAY_INTERVAL = 5000L;
+	private static final int DEFAULT_HTTP_MAX_CONNECTIONS = 50;
+	private static final int DEFAULT_HTTP_MAX_CONNECTIONS_PER_ROUTE = 20;
+	private static final long DEFAULT_HTTP_KEEP_ALIVE = 30000L;
+	private static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 30000;
+	private static final int DEFAULT_HTTP_SOCKET_TIMEOUT = 60000;
+	private static final long DEFAULT_HTTP_IDLE_TIMEOUT = 60000L;
+	private static final long DEFAULT_HTTP_COMPRESSION_MIN_SIZE = 1024L;
+	private static final int DEFAULT_RETRY_ATTEMPTS = 0;
+	private static final long DEFAULT_RETRY_DELAY = 500L;
+	private static final long DEFAULT_RETRY_MAX_DELAY = 30000L;
+	private static final double DEFAULT_RETRY_BUDGET = 0.1;
+	private static final int RETRY_BUDGET_RESERVE = 100;
+	private static final int DEFAULT_CIRCUIT_WINDOW = 20;
+	private static final int DEFAULT_CIRCUIT_FAILURE_RATE = 50;
+	private static final long DEFAULT_CIRCUIT_SLOW_CALL = 10000L;
+	private static final long DEFAULT_CIRCUIT_OPEN_TIME = 30000L;
+	private static final int DEFAULT_CIRCUIT_HALF_OPEN_CALLS = 3;
+	private static final long DEFAULT_METRICS_REPORT_INTERVAL = 60000L;
+	private static final int DEFAULT_CONVERT_IMAGE_THREADS = 2;
+	private static final int CONVERT_IMAGE_QUEUE_SIZE = 100;
+	private static final int DEFAULT_CONVERT_IMAGE_QUALITY = 85;
+	private static final long DEFAULT_CONVERT_IMAGE_CACHE_SIZE = 32 * 1024 * 1024;
+	private static final String CIRCUIT_STATE = "rp.http.circuit.state";
 
 	@Override
 	public void configure(Binder binder) {
@@ -104,49 +169,176 @@ public class ReportPortalClientModule implements Module {
 	}
 
 	/**
-	 * Default {@link com.epam.reportportal.restclient.endpoint.RestEndpoint} binding
+	 * Default {@link com.epam.reportportal.restclient.endpoint.RestEndpoint} binding. Endpoint streams multipart requests
 	 *
 	 * @param serializers  Set of serializers to marshal request/response body
 	 * @param errorHandler Handler for 4xx/5xx HTTP responses
 	 * @param baseUrl      Base url of application
 	 */
 	@Provides
+	@Singleton
 	public RestEndpoint provideRestEndpoint(HttpClient httpClient, @Named("serializers") List<Serializer> serializers,
 			ErrorHandler<HttpResponse> errorHandler, @ListenerPropertyValue(ListenerProperty.BASE_URL) String baseUrl) {
-		return new HttpClientRestEndpoint(httpClient, serializers, errorHandler, baseUrl);
+		return new StreamingRestEndpoint(httpClient, serializers, errorHandler, baseUrl);
 	}
 
 	/**
-	 * Default {@link com.epam.reportportal.apache.http.client.HttpClient} binding
+	 * Default {@link com.epam.reportportal.apache.http.client.HttpClient} binding. All requests share the same pool of
+	 * connections
 	 *
-	 * @param baseUrl          Base URL of application
-	 * @param keyStore         Path to keystore
-	 * @param keyStorePassword Keystore password
+	 * @param baseUrl                Base URL of application
+	 * @param keyStore               Path to keystore
+	 * @param keyStorePassword       Keystore password
+	 * @param maxConnections         Max count of connections in the pool
+	 * @param maxConnectionsPerRoute Max count of connections to the same host
+	 * @param keepAlive              Time in millis connection is kept alive if server doesn't define it
+	 * @param connectTimeout         Timeout in millis to establish or lease connection
+	 * @param socketTimeout          Timeout in millis waiting for data
+	 * @param idleTimeout            Time in millis idle connection is closed after
+	 * @param compression            Encoding of compressed JSON and multipart request bodies: gzip or deflate. Compression is disabled if absent
+	 * @param compressionLevel       Compression level from 1 to 9
+	 * @param compressionMinSize     Min size in bytes of JSON body to be compressed, multipart bodies are always compressed
+	 * @param retryAttempts          Max count of retries of request failed because of transient problems. Retries are disabled by default
+	 * @param retryDelay             Initial delay in millis before retry, doubled with each retry
+	 * @param retryMaxDelay          Max delay in millis before retry
+	 * @param retryBudget            Max share of retries among requests
+	 * @param circuitBreaker         Rejects requests while server is unhealthy. Absent if disabled
+	 * @param metrics                Registry of HTTP client metrics
 	 * @throws MalformedURLException If URL is not correct
 	 */
 	@Provides
+	@Singleton
 	public HttpClient provideHttpClient(@ListenerPropertyValue(ListenerProperty.BASE_URL) String baseUrl,
 			@Nullable @ListenerPropertyValue(ListenerProperty.KEYSTORE_RESOURCE) String keyStore,
 			@Nullable @ListenerPropertyValue(ListenerProperty.KEYSTORE_PASSWORD) String keyStorePassword,
-			@ListenerPropertyValue(ListenerProperty.UUID) String uuid) throws MalformedURLException {
-
-		HttpClientFactory httpClientFactory;
+			@ListenerPropertyValue(ListenerProperty.UUID) String uuid,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_MAX_CONNECTIONS) String maxConnections,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_MAX_CONNECTIONS_PER_ROUTE) String maxConnectionsPerRoute,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_KEEP_ALIVE) String keepAlive,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_CONNECT_TIMEOUT) String connectTimeout,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_SOCKET_TIMEOUT) String socketTimeout,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_IDLE_TIMEOUT) String idleTimeout,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_COMPRESSION) String compression,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_COMPRESSION_LEVEL) String compressionLevel,
+			@Nullable @ListenerPropertyValue(ListenerProperty.HTTP_COMPRESSION_MIN_SIZE) String compressionMinSize,
+			@Nullable @ListenerPropertyValue(ListenerProperty.RETRY_ATTEMPTS) String retryAttempts,
+			@Nullable @ListenerPropertyValue(ListenerProperty.RETRY_DELAY) String retryDelay,
+			@Nullable @ListenerPropertyValue(ListenerProperty.RETRY_MAX_DELAY) String retryMaxDelay,
+			@Nullable @ListenerPropertyValue(ListenerProperty.RETRY_BUDGET) String retryBudget,
+			@Nullable final CircuitBreaker circuitBreaker, MetricsRegistry metrics) // NOSONAR
+			throws MalformedURLException {
 
-		List<HttpRequestInterceptor> interceptors = new ArrayList<HttpRequestInterceptor>(1);
+		List<HttpRequestInterceptor> interceptors = new ArrayList<HttpRequestInterceptor>(2);
 		interceptors.add(new BearerAuthorizationInterceptor(uuid));
+		if (null != compression) {
+			CompressionInterceptor.Encoding encoding = CompressionInterceptor.Encoding.fromString(compression.trim());
+			if (null == encoding) {
+				throw new InternalReportPortalClientException(
+						"Unsupported value of [" + ListenerProperty.HTTP_COMPRESSION + "] parameter: " + compression);
+			}
+			interceptors.add(new CompressionInterceptor(encoding, parseInt(compressionLevel, Deflater.DEFAULT_COMPRESSION),
+					parseLong(compressionMinSize, DEFAULT_HTTP_COMPRESSION_MIN_SIZE)));
+		}
 
+		SSLContext sslContext = null;
 		if (HTTPS.equals(new URL(baseUrl).getProtocol()) && keyStore != null) {
 			if (null == keyStorePassword) {
 				throw new InternalReportPortalClientException(
 						"You should provide keystore password parameter [" + ListenerProperty.KEYSTORE_PASSWORD
 								+ "] if you use HTTPS protocol");
 			}
-			httpClientFactory = new SslClientFactory(null, keyStore, keyStorePassword, interceptors);
-		} else {
-			httpClientFactory = new AuthClientFactory(null, interceptors);
+			try {
+				sslContext = PooledHttpClientFactory.createSslContext(keyStore, keyStorePassword);
+			} catch (IOException | GeneralSecurityException e) {
+				throw new InternalReportPortalClientException("Unable to load keystore " + keyStore, e);
+			}
+		}
+
+		RetryStrategy retryStrategy = null;
+		int attempts = parseInt(retryAttempts, DEFAULT_RETRY_ATTEMPTS);
+		if (attempts > 0) {
+			long delay = parseLong(retryDelay, DEFAULT_RETRY_DELAY);
+			retryStrategy = new RetryStrategy(attempts, delay, Math.max(delay, parseLong(retryMaxDelay, DEFAULT_RETRY_MAX_DELAY)),
+					new RetryBudget(parseDouble(retryBudget, DEFAULT_RETRY_BUDGET), RETRY_BUDGET_RESERVE), metrics);
+		}
+
+		CloseableHttpClient httpClient = new PooledHttpClientFactory(interceptors, sslContext,
+				parseInt(maxConnections, DEFAULT_HTTP_MAX_CONNECTIONS), parseInt(maxConnectionsPerRoute, DEFAULT_HTTP_MAX_CONNECTIONS_PER_ROUTE),
+				parseLong(keepAlive, DEFAULT_HTTP_KEEP_ALIVE), parseInt(connectTimeout, DEFAULT_HTTP_CONNECT_TIMEOUT), parseInt(socketTimeout, DEFAULT_HTTP_SOCKET_TIMEOUT),
+				parseLong(idleTimeout, DEFAULT_HTTP_IDLE_TIMEOUT), retryStrategy).createHttpClient();
+		httpClient = new InstrumentedHttpClient(httpClient, metrics);
+		if (null == circuitBreaker) {
+			return httpClient;
 		}
+		metrics.register(CIRCUIT_STATE, new MetricsRegistry.Gauge() {
+			@Override
+			public long getValue() {
+				return circuitBreaker.getState().ordinal();
+			}
+		});
+		return new CircuitBreakerHttpClient(httpClient, circuitBreaker);
+	}
 
-		return httpClientFactory.createHttpClient();
+	/**
+	 * Provides registry of client metrics
+	 *
+	 * @param enabled Whether metrics are collected
+	 * @return in-process registry or no-op one if metrics are disabled
+	 */
+	@Provides
+	@Singleton
+	public MetricsRegistry provideMetricsRegistry(@Nullable @ListenerPropertyValue(ListenerProperty.METRICS) String enabled) {
+		return Boolean.parseBoolean(enabled) ? new SimpleMetricsRegistry() : NoopMetricsRegistry.INSTANCE;
+	}
+
+	/**
+	 * Provides reporter which periodically writes collected metrics to the
+	 * log. Reporter is stopped once service is closed
+	 *
+	 * @param metrics        Registry of client metrics
+	 * @param reportInterval How often in millis metrics are written to the log
+	 * @return started reporter or NULL if metrics are disabled or reporting interval isn't positive
+	 */
+	@Provides
+	@Singleton
+	@Nullable
+	public Slf4jMetricsReporter provideMetricsReporter(MetricsRegistry metrics,
+			@Nullable @ListenerPropertyValue(ListenerProperty.METRICS_REPORT_INTERVAL) String reportInterval) {
+		long interval = parseLong(reportInterval, DEFAULT_METRICS_REPORT_INTERVAL);
+		if (!(metrics instanceof SimpleMetricsRegistry) || interval <= 0) {
+			return null;
+		}
+		Slf4jMetricsReporter reporter = new Slf4jMetricsReporter((SimpleMetricsRegistry) metrics);
+		reporter.start(interval, TimeUnit.MILLISECONDS);
+		return reporter;
+	}
+
+	/**
+	 * Provides circuit breaker which stops requests to unhealthy server
+	 *
+	 * @param enabled          Whether circuit breaker is enabled
+	 * @param window           Count of the last requests failure rate is calculated for
+	 * @param failureRate      Percentage of failed and slow requests which opens circuit
+	 * @param slowCall         Requests taking longer than this time in millis are considered as failed
+	 * @param openTime         How long in millis requests are rejected
+	 * @param halfOpenCalls    Count of trial requests after open time
+	 * @return circuit breaker or null if it's disabled
+	 */
+	@Provides
+	@Singleton
+	@Nullable
+	public CircuitBreaker provideCircuitBreaker(@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_BREAKER) String enabled,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_WINDOW) String window,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_FAILURE_RATE) String failureRate,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_SLOW_CALL) String slowCall,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_OPEN_TIME) String openTime,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CIRCUIT_HALF_OPEN_CALLS) String halfOpenCalls) {
+		if (!Boolean.parseBoolean(enabled)) {
+			return null;
+		}
+		return new CircuitBreaker(parseInt(window, DEFAULT_CIRCUIT_WINDOW), parseInt(failureRate, DEFAULT_CIRCUIT_FAILURE_RATE),
+				parseLong(slowCall, DEFAULT_CIRCUIT_SLOW_CALL), parseLong(openTime, DEFAULT_CIRCUIT_OPEN_TIME),
+				parseInt(halfOpenCalls, DEFAULT_CIRCUIT_HALF_OPEN_CALLS));
 	}
 
 	/**
@@ -162,19 +354,146 @@ public class ReportPortalClientModule implements Module {
 	 * Provides junit-style reportportal service
 	 *
 	 * @param restEndpoint {@link RestEndpoint} instance
+	 * @param serializer   Serializer of spooled requests
+	 * @param payloadLimit Max size of logs batch in bytes
+	 * @param linger       Max time in millis log waits in the batch
+	 * @param async        Whether logs should be sent by background threads
+	 * @param asyncThreads Count of background sender threads
+	 * @param queueSize    Max count of logs waiting to be sent in asynchronous mode
+	 * @param inFlight     Max count of concurrent batch requests in synchronous mode. In asynchronous mode it's count of threads
+	 * @param spoolDir     Directory for requests which can't be sent. Spool is disabled if absent
+	 * @param adaptive     Whether count of logs in the batch and linger time are tuned by latency of batch requests
+	 * @param maxBatchSize Max count of logs in the batch in adaptive mode. Batch logs size is min count
+	 * @param maxLinger    Max linger time in millis in adaptive mode. Linger is min linger time
+	 * @param latency      Target latency in millis of batch request in adaptive mode
+	 * @param memoryLogs   Max count of logs pending in the memory
+	 * @param memoryBytes  Max size in bytes of logs pending in the memory. Memory isn't bounded if both limits are absent
+	 * @param overflow     What to do with log once memory limit is reached: block, drop_low_level, drop_attachments or spill
+	 * @param metrics      Registry of service metrics
+	 * @param metricsReporter Reporter of service metrics, closed with the service
+	 * @param convertImage Whether screenshots are converted to black and white colors
+	 * @param convertAsync Whether screenshots are converted by background threads of the service
+	 * @param convertThreads Count of background conversion threads
+	 * @param conversionSettings How screenshots are converted by background threads
+	 * @param conversionCache Max size in bytes of converted screenshots cached by content. Cache is disabled if zero
 	 */
 	@Provides
 	@Singleton
-	public BatchedReportPortalService provideReportPortalService(RestEndpoint restEndpoint,
+	public BatchedReportPortalService provideReportPortalService(RestEndpoint restEndpoint, Serializer serializer,
 			@ListenerPropertyValue(ListenerProperty.PROJECT_NAME) String project,
-			@ListenerPropertyValue(ListenerProperty.BATCH_SIZE_LOGS) String batchLogsSize) { // NOSONAR
-		int logsBatchSize;
-		try {
-			logsBatchSize = Integer.parseInt(batchLogsSize);
-		} catch (NumberFormatException e) {
-			logsBatchSize = 10;
+			@ListenerPropertyValue(ListenerProperty.BATCH_SIZE_LOGS) String batchLogsSize,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_PAYLOAD_LIMIT) String payloadLimit,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_LINGER) String linger,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_ASYNC) String async,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_ASYNC_THREADS) String asyncThreads,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_QUEUE_SIZE) String queueSize,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_IN_FLIGHT) String inFlight,
+			@Nullable @ListenerPropertyValue(ListenerProperty.SPOOL_DIRECTORY) String spoolDir,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_ADAPTIVE) String adaptive,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_SIZE_LOGS_MAX) String maxBatchSize,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_LINGER_MAX) String maxLinger,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_TARGET_LATENCY) String latency,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_MEMORY_ENTRIES) String memoryLogs,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_MEMORY_BYTES) String memoryBytes,
+			@Nullable @ListenerPropertyValue(ListenerProperty.BATCH_OVERFLOW) String overflow, MetricsRegistry metrics,
+			@Nullable Slf4jMetricsReporter metricsReporter,
+			@Nullable @ListenerPropertyValue(ListenerProperty.IS_CONVERT_IMAGE) String convertImage,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_ASYNC) String convertAsync,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_THREADS) String convertThreads,
+			ImageConversionSettings conversionSettings,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_CACHE_SIZE) String conversionCache) { // NOSONAR
+		int logsBatchSize = parseInt(batchLogsSize, DEFAULT_BATCH_SIZE_LOGS);
+		long logsBatchPayloadLimit = parseLong(payloadLimit, DEFAULT_BATCH_PAYLOAD_LIMIT);
+		long lingerTime = Math.max(0, parseLong(linger, 0));
+		boolean isAsync = Boolean.parseBoolean(async);
+
+		AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy;
+		if (Boolean.parseBoolean(adaptive)) {
+			batchPolicy = new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize,
+					Math.max(logsBatchSize, parseInt(maxBatchSize, DEFAULT_BATCH_SIZE_LOGS_MAX)), lingerTime,
+					Math.max(lingerTime, parseLong(maxLinger, DEFAULT_BATCH_LINGER_MAX)), parseLong(latency, DEFAULT_BATCH_TARGET_LATENCY),
+					logsBatchPayloadLimit);
+		} else {
+			batchPolicy = new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize, lingerTime);
 		}
-		return new BatchedReportPortalService(restEndpoint, API_BASE, project, logsBatchSize);
+
+		BatchedReportPortalService service = createReportPortalService(restEndpoint, serializer, project, batchPolicy, logsBatchPayloadLimit,
+				isAsync, asyncThreads, queueSize, parseInt(inFlight, 1), spoolDir);
+		if (null != memoryLogs || null != memoryBytes) {
+			OverflowPolicy overflowPolicy = null == overflow ? OverflowPolicy.BLOCK : OverflowPolicy.fromString(overflow.trim());
+			if (null == overflowPolicy) {
+				throw new InternalReportPortalClientException(
+						"Unsupported value of [" + ListenerProperty.BATCH_OVERFLOW + "] parameter: " + overflow);
+			}
+			service.setMemoryBudget(new MemoryBudget(parseInt(memoryLogs, Integer.MAX_VALUE), parseLong(memoryBytes, Long.MAX_VALUE)),
+					overflowPolicy);
+		}
+		service.setMetricsRegistry(metrics);
+		if (null != metricsReporter) {
+			service.setMetricsReporter(metricsReporter);
+		}
+		if (Boolean.parseBoolean(convertImage) && Boolean.parseBoolean(convertAsync)) {
+			long cacheSize = parseLong(conversionCache, DEFAULT_CONVERT_IMAGE_CACHE_SIZE);
+			service.setImageConversionPool(new ImageConversionPool(parseInt(convertThreads, DEFAULT_CONVERT_IMAGE_THREADS),
+					CONVERT_IMAGE_QUEUE_SIZE, conversionSettings, cacheSize > 0 ? new AttachmentCache(cacheSize) : null));
+		}
+		return service;
+	}
+
+	/**
+	 * Provides settings of screenshots conversion. Original screenshot is sent
+	 * if converted one isn't smaller
+	 *
+	 * @param maxWidth  Max width of screenshot in pixels. Not limited if absent
+	 * @param maxHeight Max height of screenshot in pixels. Not limited if absent
+	 * @param grayscale Whether screenshot is converted to black and white colors. True if absent
+	 * @param format    Output format: png or jpeg
+	 * @param quality   JPEG quality from 1 to 100
+	 */
+	@Provides
+	@Singleton
+	public ImageConversionSettings provideImageConversionSettings(
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_MAX_WIDTH) String maxWidth,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_MAX_HEIGHT) String maxHeight,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_GRAYSCALE) String grayscale,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_FORMAT) String format,
+			@Nullable @ListenerPropertyValue(ListenerProperty.CONVERT_IMAGE_QUALITY) String quality) {
+		ImageConversionSettings.Format outputFormat = null == format ? ImageConversionSettings.Format.PNG
+				: ImageConversionSettings.Format.fromString(format.trim());
+		if (null == outputFormat) {
+			throw new InternalReportPortalClientException(
+					"Unsupported value of [" + ListenerProperty.CONVERT_IMAGE_FORMAT + "] parameter: " + format);
+		}
+		return new ImageConversionSettings(parseInt(maxWidth, 0), parseInt(maxHeight, 0),
+				null == grayscale || Boolean.parseBoolean(grayscale), outputFormat, parseInt(quality, DEFAULT_CONVERT_IMAGE_QUALITY), true);
+	}
+
+	/**
+	 * Creates spooled service if spool directory is defined
+	 */
+	private static BatchedReportPortalService createReportPortalService(RestEndpoint restEndpoint, Serializer serializer, String project,
+			AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy, long logsBatchPayloadLimit,
+			boolean isAsync, @Nullable String asyncThreads, @Nullable String queueSize, int maxInFlight, @Nullable String spoolDir) {
+		if (null != spoolDir) {
+			Spool spool;
+			try {
+				spool = new Spool(new File(spoolDir), SPOOL_SEGMENT_SIZE);
+			} catch (IOException e) {
+				throw new InternalReportPortalClientException("Unable to open spool in " + spoolDir, e);
+			}
+			if (isAsync) {
+				return new SpooledReportPortalService(restEndpoint, API_BASE, project, batchPolicy, logsBatchPayloadLimit,
+						parseInt(asyncThreads, DEFAULT_BATCH_ASYNC_THREADS), parseInt(queueSize, DEFAULT_BATCH_QUEUE_SIZE), spool, serializer,
+						SPOOL_REPLAY_INTERVAL);
+			}
+			return new SpooledReportPortalService(restEndpoint, API_BASE, project, batchPolicy, logsBatchPayloadLimit, maxInFlight, spool,
+					serializer, SPOOL_REPLAY_INTERVAL);
+		}
+		if (isAsync) {
+			return new BatchedReportPortalService(restEndpoint, API_BASE, project, batchPolicy, logsBatchPayloadLimit,
+					parseInt(asyncThreads, DEFAULT_BATCH_ASYNC_THREADS), parseInt(queueSize, DEFAULT_BATCH_QUEUE_SIZE));
+		}
+		return new BatchedReportPortalService(restEndpoint, API_BASE, project, batchPolicy, logsBatchPayloadLimit, maxInFlight);
 	}
 
 	/**
@@ -190,6 +509,19 @@ public class ReportPortalClientModule implements Module {
 		return reportPortalService;
 	}
 
+	/**
+	 * Provides non-blocking wrapper over reportportal service
+	 *
+	 * @param reportPortalService Blocking service to be called in background
+	 * @param threads             Count of background threads
+	 */
+	@Provides
+	@Singleton
+	public IAsyncReportPortalService provideAsyncReportPortalService(BatchedReportPortalService reportPortalService,
+			@Nullable @ListenerPropertyValue(ListenerProperty.ASYNC_THREADS) String threads) {
+		return AsyncReportPortalService.create(reportPortalService, parseInt(threads, DEFAULT_ASYNC_THREADS));
+	}
+
 	/**
 	 * provides message parser
 	 */
@@ -199,4 +531,49 @@ public class ReportPortalClientModule implements Module {
 		return new HashMarkSeparatedMessageParser();
 	}
 
+	/**
+	 * Parses integer property value
+	 *
+	 * @param value        Property value
+	 * @param defaultValue Value to be used if property is absent or isn't a number
+	 */
+	private static int parseInt(@Nullable String value, int defaultValue) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Parses double property value
+	 *
+	 * @param value        Property value
+	 * @param defaultValue Value to be used if property is absent or isn't a number
+	 */
+	private static double parseDouble(@Nullable String value, double defaultValue) {
+		if (null == value) {
+			return defaultValue;
+		}
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Parses long property value
+	 *
+	 * @param value        Property value
+	 * @param defaultValue Value to be used if property is absent or isn't a number
+	 */
+	private static long parseLong(@Nullable String value, long defaultValue) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 }
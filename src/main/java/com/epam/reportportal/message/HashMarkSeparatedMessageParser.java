@@ -20,16 +20,16 @@
  */
 package com.epam.reportportal.message;
 
-import com.epam.reportportal.apache.commons.codec.binary.Base64;
+import com.epam.reportportal.utils.files.Base64ByteSource;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.CharBuffer;
 import java.util.List;
 
 /**
@@ -47,47 +47,72 @@ public class HashMarkSeparatedMessageParser implements MessageParser {
 	private enum MessageType {
 		FILE {
 			@Override
-			public ByteSource toByteSource(String data) {
-				File file = new File(data);
+			public ByteSource toByteSource(String message, int start, int end) {
+				File file = new File(message.substring(start, end));
 				return file.exists() ? Files.asByteSource(file) : null;
 			}
 		},
 		BASE64 {
+			/**
+			 * Encoded characters are copied to the byte array of the source,
+			 * which is half the size of the substring. Decoded content is never
+			 * held in the heap as a whole
+			 */
 			@Override
-			public ByteSource toByteSource(final String data) {
-				return ByteSource.wrap(Base64.decodeBase64(data));
+			public ByteSource toByteSource(String message, int start, int end) {
+				return new Base64ByteSource(CharBuffer.wrap(message, start, end));
 			}
 		},
 		RESOURCE {
 			@Override
-			public ByteSource toByteSource(String data) {
-				URL resource = Resources.getResource(data);
+			public ByteSource toByteSource(String message, int start, int end) {
+				URL resource = Resources.getResource(message.substring(start, end));
 				return null == resource ? null : Resources.asByteSource(resource);
 			}
 		};
 
-		abstract public ByteSource toByteSource(String data);
+		/** {@link #values()} copies array on every call */
+		private static final MessageType[] TYPES = values();
 
-		public static MessageType fromString(String messageType) {
-			return MessageType.valueOf(messageType);
+		/**
+		 * Converts data located between start and end indexes of the message
+		 */
+		abstract public ByteSource toByteSource(String message, int start, int end);
+
+		/**
+		 * Finds type by its name located between start and end indexes of the
+		 * message
+		 */
+		public static MessageType fromString(String message, int start, int end) {
+			for (MessageType type : TYPES) {
+				if (type.name().length() == end - start && message.startsWith(type.name(), start)) {
+					return type;
+				}
+			}
+			throw new IllegalArgumentException("Unknown message type: " + message.substring(start, end));
 		}
 	}
 
+	private static final char SEPARATOR = '#';
+
 	private static final int CHUNKS_COUNT = 4;
 
+	/**
+	 * Finds separators by index, so chunks other than message text and file
+	 * name are never copied
+	 */
 	@Override
 	public ReportPortalMessage parse(String message) {
-		Iterable<String> splitted = Splitter.on("#").limit(CHUNKS_COUNT).split(message);
-
-		List<String> splittedAsList = ImmutableList.<String>builder().addAll(splitted).build();
-
-		// -1 because there may be no
-		if (CHUNKS_COUNT != splittedAsList.size()) {
-			throw new RuntimeException(
-					"Incorrect message format. Chunks: " + Joiner.on("\n").join(splittedAsList) + "\n count: " + splittedAsList.size());
+		int typeStart = message.indexOf(SEPARATOR) + 1;
+		int dataStart = 0 == typeStart ? 0 : message.indexOf(SEPARATOR, typeStart) + 1;
+		int messageStart = 0 == dataStart ? 0 : message.indexOf(SEPARATOR, dataStart) + 1;
+		if (0 == messageStart) {
+			List<String> chunks = Splitter.on(SEPARATOR).limit(CHUNKS_COUNT).splitToList(message);
+			throw new RuntimeException("Incorrect message format. Chunks: " + Joiner.on("\n").join(chunks) + "\n count: " + chunks.size());
 		}
-		return new ReportPortalMessage(MessageType.fromString(splittedAsList.get(1)).toByteSource(splittedAsList.get(2)),
-				splittedAsList.get(3));
+		return new ReportPortalMessage(
+				MessageType.fromString(message, typeStart, dataStart - 1).toByteSource(message, dataStart, messageStart - 1),
+				message.substring(messageStart));
 	}
 
 	@Override
@@ -0,0 +1,966 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.hateoas.PagedResources;
+
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.utils.queue.Result;
+import com.epam.ta.reportportal.ws.model.*;
+import com.epam.ta.reportportal.ws.model.dashboard.CreateDashboardRQ;
+import com.epam.ta.reportportal.ws.model.dashboard.DashboardResource;
+import com.epam.ta.reportportal.ws.model.dashboard.UpdateDashboardRQ;
+import com.epam.ta.reportportal.ws.model.externalsystem.*;
+import com.epam.ta.reportportal.ws.model.favorites.AddFavoriteResourceRQ;
+import com.epam.ta.reportportal.ws.model.filter.CreateUserFilterRQ;
+import com.epam.ta.reportportal.ws.model.filter.UpdateUserFilterRQ;
+import com.epam.ta.reportportal.ws.model.filter.UserFilterResource;
+import com.epam.ta.reportportal.ws.model.issue.DefineIssueRQ;
+import com.epam.ta.reportportal.ws.model.issue.Issue;
+import com.epam.ta.reportportal.ws.model.launch.*;
+import com.epam.ta.reportportal.ws.model.log.LogResource;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.epam.ta.reportportal.ws.model.project.AssignUsersRQ;
+import com.epam.ta.reportportal.ws.model.project.CreateProjectRQ;
+import com.epam.ta.reportportal.ws.model.project.UnassignUsersRQ;
+import com.epam.ta.reportportal.ws.model.project.UpdateProjectRQ;
+import com.epam.ta.reportportal.ws.model.user.*;
+import com.epam.ta.reportportal.ws.model.widget.ChartObject;
+import com.epam.ta.reportportal.ws.model.widget.WidgetRQ;
+import com.epam.ta.reportportal.ws.model.widget.WidgetResource;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * {@link IAsyncReportPortalService} implementation which executes calls of
+ * blocking {@link IReportPortalService} in the pool of background threads.
+ * <br>
+ * Calls related to the same launch or item are chained: next one is submitted
+ * to the pool only once the previous one is completed. Log call is completed
+ * when log is put to the batch, so finish of the item is executed after its
+ * logs are queued, while future of the log is completed when log is actually
+ * saved. Started items are remembered until they're finished, so finish of
+ * the item or launch is also executed after all calls of its descendants
+ * submitted before the finish, including finishes of the children
+ */
+public final class AsyncReportPortalService implements IAsyncReportPortalService {
+
+	/** How long {@link #close()} waits for already submitted calls */
+	private static final long SHUTDOWN_TIMEOUT_SEC = 60L;
+
+	/** Future of the log result once log is queued */
+	private static final AsyncFunction<Result<? extends EntryCreatedRS>, EntryCreatedRS> RESULT_TO_FUTURE =
+			new AsyncFunction<Result<? extends EntryCreatedRS>, EntryCreatedRS>() {
+				@Override
+				public ListenableFuture<EntryCreatedRS> apply(Result<? extends EntryCreatedRS> result) {
+					/* future of the result is read only, so its type may be widened */
+					@SuppressWarnings("unchecked")
+					ListenableFuture<EntryCreatedRS> saved = (ListenableFuture<EntryCreatedRS>) result.asFuture();
+					return saved;
+				}
+			};
+
+	private final IReportPortalService delegate;
+
+	private final ListeningExecutorService executor;
+
+	/** Last submitted call of each launch or item which isn't completed yet */
+	private final Map<String, ListenableFuture<?>> lastCalls;
+
+	/** Launch or parent item of each started item which isn't finished yet */
+	private final Map<String, String> parents;
+
+	/** Not completed calls of each launch or item and of its descendants */
+	private final SetMultimap<String, ListenableFuture<?>> pendingCalls;
+
+	private AsyncReportPortalService(IReportPortalService delegate, ListeningExecutorService executor) {
+		this.delegate = Preconditions.checkNotNull(delegate, "Delegate service shouldn't be null");
+		this.executor = Preconditions.checkNotNull(executor, "Executor shouldn't be null");
+		this.lastCalls = Maps.newHashMap();
+		this.parents = Maps.newHashMap();
+		this.pendingCalls = HashMultimap.create();
+	}
+
+	/**
+	 * @param delegate
+	 *            - blocking service to be called in background
+	 * @param threads
+	 *            - count of background threads
+	 */
+	public static IAsyncReportPortalService create(IReportPortalService delegate, int threads) {
+		return create(delegate, MoreExecutors.listeningDecorator(createExecutor(threads)));
+	}
+
+	/**
+	 * @param delegate
+	 *            - blocking service to be called in background
+	 * @param executor
+	 *            - executor for background calls. It's shut down once async
+	 *            service is closed
+	 */
+	public static IAsyncReportPortalService create(IReportPortalService delegate, ListeningExecutorService executor) {
+		return new AsyncReportPortalService(delegate, executor);
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> startLaunch(final StartLaunchRQ rq) {
+		return executor.submit(new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return delegate.startLaunch(rq);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> finishLaunch(final String launchID, final FinishExecutionRQ rq) {
+		return submit(launchID, new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.finishLaunch(launchID, rq);
+			}
+		}, true);
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateLaunch(final String launchID, final UpdateLaunchRQ rq) {
+		return submit(launchID, new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateLaunch(launchID, rq);
+			}
+		}, false);
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> startTestItem(final String parentItemId, final StartTestItemRQ rq) {
+		return submit(parentItemId, new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return started(delegate.startTestItem(parentItemId, rq), parentItemId);
+			}
+		}, false);
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> finishTestItem(final String itemId, final FinishTestItemRQ rq) {
+		ListenableFuture<OperationCompletionRS> finished = submit(itemId, new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.finishTestItem(itemId, rq);
+			}
+		}, true);
+		finished.addListener(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (lastCalls) {
+					parents.remove(itemId);
+				}
+			}
+		}, MoreExecutors.directExecutor());
+		return finished;
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> startRootTestItem(final StartTestItemRQ rq) {
+		final String launchId = rq.getLaunchId();
+		return submit(launchId, new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return started(delegate.startRootTestItem(rq), launchId);
+			}
+		}, false);
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> log(final SaveLogRQ rq) {
+		ListenableFuture<Result<? extends EntryCreatedRS>> queued = submit(rq.getTestItemId(),
+				new Callable<Result<? extends EntryCreatedRS>>() {
+					@Override
+					public Result<? extends EntryCreatedRS> call() throws RestEndpointIOException {
+						return delegate.log(rq);
+					}
+				}, false);
+		return Futures.transform(queued, RESULT_TO_FUTURE, MoreExecutors.directExecutor());
+	}
+
+	@Override
+	public ListenableFuture<List<EntryCreatedRS>> createUserFilter(final CollectionsRQ<CreateUserFilterRQ> rq) {
+		return executor.submit(new Callable<List<EntryCreatedRS>>() {
+			@Override
+			public List<EntryCreatedRS> call() throws RestEndpointIOException {
+				return delegate.createUserFilter(rq);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateUserFilter(final String filterId, final UpdateUserFilterRQ rq) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateUserFilter(filterId, rq);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<LaunchResource> getLaunch(final String launchId) {
+		return executor.submit(new Callable<LaunchResource>() {
+			@Override
+			public LaunchResource call() throws RestEndpointIOException {
+				return delegate.getLaunch(launchId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<LaunchResource>> getProjectLaunches() {
+		return executor.submit(new Callable<PagedResources<LaunchResource>>() {
+			@Override
+			public PagedResources<LaunchResource> call() throws RestEndpointIOException {
+				return delegate.getProjectLaunches();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<LaunchResource>> getLaunches(final Map<String, String> parameters) {
+		return executor.submit(new Callable<PagedResources<LaunchResource>>() {
+			@Override
+			public PagedResources<LaunchResource> call() throws RestEndpointIOException {
+				return delegate.getLaunches(parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<LaunchResource>> getUserLaunches(final String user, final Map<String, String> parameters) {
+		return executor.submit(new Callable<PagedResources<LaunchResource>>() {
+			@Override
+			public PagedResources<LaunchResource> call() throws RestEndpointIOException {
+				return delegate.getUserLaunches(user, parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<TestItemResource> getTestItem(final String itemId) {
+		return executor.submit(new Callable<TestItemResource>() {
+			@Override
+			public TestItemResource call() throws RestEndpointIOException {
+				return delegate.getTestItem(itemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<TestItemResource>> getProjectTestItems() {
+		return executor.submit(new Callable<PagedResources<TestItemResource>>() {
+			@Override
+			public PagedResources<TestItemResource> call() throws RestEndpointIOException {
+				return delegate.getProjectTestItems();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<TestItemResource>> getAllTestItems(final Map<String, String> parameters) {
+		return executor.submit(new Callable<PagedResources<TestItemResource>>() {
+			@Override
+			public PagedResources<TestItemResource> call() throws RestEndpointIOException {
+				return delegate.getAllTestItems(parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<TestItemHistoryElement>> getTestItemsHistory(final Map<String, String> parameters) {
+		return executor.submit(new Callable<List<TestItemHistoryElement>>() {
+			@Override
+			public List<TestItemHistoryElement> call() throws RestEndpointIOException {
+				return delegate.getTestItemsHistory(parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<LogResource> getLog(final String logId) {
+		return executor.submit(new Callable<LogResource>() {
+			@Override
+			public LogResource call() throws RestEndpointIOException {
+				return delegate.getLog(logId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<LogResource>> getAllLogs(final String testStepId) {
+		return executor.submit(new Callable<PagedResources<LogResource>>() {
+			@Override
+			public PagedResources<LogResource> call() throws RestEndpointIOException {
+				return delegate.getAllLogs(testStepId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<LogResource>> getAllLogs(final String testStepId, final Map<String, String> parameters) {
+		return executor.submit(new Callable<PagedResources<LogResource>>() {
+			@Override
+			public PagedResources<LogResource> call() throws RestEndpointIOException {
+				return delegate.getAllLogs(testStepId, parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<UserFilterResource> getUserFilter(final String userFilterId) {
+		return executor.submit(new Callable<UserFilterResource>() {
+			@Override
+			public UserFilterResource call() throws RestEndpointIOException {
+				return delegate.getUserFilter(userFilterId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<UserFilterResource>> getProjectUserFilters() {
+		return executor.submit(new Callable<PagedResources<UserFilterResource>>() {
+			@Override
+			public PagedResources<UserFilterResource> call() throws RestEndpointIOException {
+				return delegate.getProjectUserFilters();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<PagedResources<UserFilterResource>> getAllUserFilters(final Map<String, String> parameters) {
+		return executor.submit(new Callable<PagedResources<UserFilterResource>>() {
+			@Override
+			public PagedResources<UserFilterResource> call() throws RestEndpointIOException {
+				return delegate.getAllUserFilters(parameters);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Map<String, SharedEntity>> getUserFilters() {
+		return executor.submit(new Callable<Map<String, SharedEntity>>() {
+			@Override
+			public Map<String, SharedEntity> call() throws RestEndpointIOException {
+				return delegate.getUserFilters();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Map<String, SharedEntity>> getSharedFilters() {
+		return executor.submit(new Callable<Map<String, SharedEntity>>() {
+			@Override
+			public Map<String, SharedEntity> call() throws RestEndpointIOException {
+				return delegate.getSharedFilters();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteTestItem(final String itemId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteTestItem(itemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteLaunch(final String launchId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteLaunch(launchId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteLog(final String logId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteLog(logId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteUserFilter(final String userFilterId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteUserFilter(userFilterId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<Issue>> defineTestItemIssueType(final DefineIssueRQ request) {
+		return executor.submit(new Callable<List<Issue>>() {
+			@Override
+			public List<Issue> call() throws RestEndpointIOException {
+				return delegate.defineTestItemIssueType(request);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> createWidget(final WidgetRQ createWidgetRQ) {
+		return executor.submit(new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return delegate.createWidget(createWidgetRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<WidgetResource> getWidget(final String widgetId) {
+		return executor.submit(new Callable<WidgetResource>() {
+			@Override
+			public WidgetResource call() throws RestEndpointIOException {
+				return delegate.getWidget(widgetId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Map<String, SharedEntity>> getSharedWidgets() {
+		return executor.submit(new Callable<Map<String, SharedEntity>>() {
+			@Override
+			public Map<String, SharedEntity> call() throws RestEndpointIOException {
+				return delegate.getSharedWidgets();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Iterable<Iterable<String>>> getChartData(final String widgetId) {
+		return executor.submit(new Callable<Iterable<Iterable<String>>>() {
+			@Override
+			public Iterable<Iterable<String>> call() throws RestEndpointIOException {
+				return delegate.getChartData(widgetId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateWidget(final String widgetId, final WidgetRQ updateRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateWidget(widgetId, updateRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> createDashboard(final CreateDashboardRQ createDashboardRQ) {
+		return executor.submit(new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return delegate.createDashboard(createDashboardRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<DashboardResource>> getProjectDashboards() {
+		return executor.submit(new Callable<List<DashboardResource>>() {
+			@Override
+			public List<DashboardResource> call() throws RestEndpointIOException {
+				return delegate.getProjectDashboards();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteDashboard(final String dashboardID) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteDashboard(dashboardID);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateDashboard(final String dashboardID, final UpdateDashboardRQ updateDashboardRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateDashboard(dashboardID, updateDashboardRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Map<String, SharedEntity>> getSharedDashboards() {
+		return executor.submit(new Callable<Map<String, SharedEntity>>() {
+			@Override
+			public Map<String, SharedEntity> call() throws RestEndpointIOException {
+				return delegate.getSharedDashboards();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<UserResource> getUser(final String userName) {
+		return executor.submit(new Callable<UserResource>() {
+			@Override
+			public UserResource call() throws RestEndpointIOException {
+				return delegate.getUser(userName);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> synchronizeUser() {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.synchronizeUser();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> editUser(final String username, final EditUserRQ editUserRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.editUser(username, editUserRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<CreateUserBidRS> createUser(final CreateUserRQ createUserRQ) {
+		return executor.submit(new Callable<CreateUserBidRS>() {
+			@Override
+			public CreateUserBidRS call() throws RestEndpointIOException {
+				return delegate.createUser(createUserRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<CreateUserRS> confirmUser(final String registrationUuid, final CreateUserRQConfirm rq) {
+		return executor.submit(new Callable<CreateUserRS>() {
+			@Override
+			public CreateUserRS call() throws RestEndpointIOException {
+				return delegate.confirmUser(registrationUuid, rq);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteUser(final String login) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteUser(login);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<byte[]> getMyPhoto() {
+		return executor.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() throws RestEndpointIOException {
+				return delegate.getMyPhoto();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<String>> getAllTags(final String value) {
+		return executor.submit(new Callable<List<String>>() {
+			@Override
+			public List<String> call() throws RestEndpointIOException {
+				return delegate.getAllTags(value);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<String>> getAllTags() {
+		return executor.submit(new Callable<List<String>>() {
+			@Override
+			public List<String> call() throws RestEndpointIOException {
+				return delegate.getAllTags();
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> createProject(final CreateProjectRQ createProjectRQ) {
+		return executor.submit(new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return delegate.createProject(createProjectRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateProject(final UpdateProjectRQ updateProjectRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateProject(updateProjectRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteProject(final String project) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteProject(project);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> unassignProjectUsers(final String projectName, final UnassignUsersRQ unassignUsersRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.unassignProjectUsers(projectName, unassignUsersRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> assignProjectUsers(final String projectName, final AssignUsersRQ assignUsersRQ) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.assignProjectUsers(projectName, assignUsersRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<DashboardResource> addFavoriteResource(final AddFavoriteResourceRQ favoriteResource) {
+		return executor.submit(new Callable<DashboardResource>() {
+			@Override
+			public DashboardResource call() throws RestEndpointIOException {
+				return delegate.addFavoriteResource(favoriteResource);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<ActivityResource>> getAllTestItemActivities(final String testItemId) {
+		return executor.submit(new Callable<List<ActivityResource>>() {
+			@Override
+			public List<ActivityResource> call() throws RestEndpointIOException {
+				return delegate.getAllTestItemActivities(testItemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<Issue>> defineItemIssue(final DefineIssueRQ defineIssueRQ) {
+		return executor.submit(new Callable<List<Issue>>() {
+			@Override
+			public List<Issue> call() throws RestEndpointIOException {
+				return delegate.defineItemIssue(defineIssueRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Ticket> createTicket(final String externalSystemName, final PostTicketRQ postTicketRQ) {
+		return executor.submit(new Callable<Ticket>() {
+			@Override
+			public Ticket call() throws RestEndpointIOException {
+				return delegate.createTicket(externalSystemName, postTicketRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Ticket> getTicket(final String externalSystemName, final String ticketId) {
+		return executor.submit(new Callable<Ticket>() {
+			@Override
+			public Ticket call() throws RestEndpointIOException {
+				return delegate.getTicket(externalSystemName, ticketId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<LaunchResource> mergeLaunches(final String projectName, final MergeLaunchesRQ mergeLaunchesRQ) {
+		return executor.submit(new Callable<LaunchResource>() {
+			@Override
+			public LaunchResource call() throws RestEndpointIOException {
+				return delegate.mergeLaunches(projectName, mergeLaunchesRQ);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<EntryCreatedRS> createExternalSystem(final CreateExternalSystemRQ createRQ, final String projectName) {
+		return executor.submit(new Callable<EntryCreatedRS>() {
+			@Override
+			public EntryCreatedRS call() throws RestEndpointIOException {
+				return delegate.createExternalSystem(createRQ, projectName);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<ExternalSystemResource> getExternalSystem(final String projectName, final String systemId) {
+		return executor.submit(new Callable<ExternalSystemResource>() {
+			@Override
+			public ExternalSystemResource call() throws RestEndpointIOException {
+				return delegate.getExternalSystem(projectName, systemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteExternalSystem(final String projectName, final String systemId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteExternalSystem(projectName, systemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> deleteAllExternalSystems(final String projectName) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.deleteAllExternalSystems(projectName);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateExternalSystem(final UpdateExternalSystemRQ rq, final String project, final String systemId) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateExternalSystem(rq, project, systemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> checkConnection(final String project, final String systemId, final UpdateExternalSystemRQ rq) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.checkConnection(project, systemId, rq);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Ticket> createTicket(final PostTicketRQ ticketRQ, final String project, final String systemId) {
+		return executor.submit(new Callable<Ticket>() {
+			@Override
+			public Ticket call() throws RestEndpointIOException {
+				return delegate.createTicket(ticketRQ, project, systemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Ticket> getTicket(final String ticketId, final String project, final String systemId) {
+		return executor.submit(new Callable<Ticket>() {
+			@Override
+			public Ticket call() throws RestEndpointIOException {
+				return delegate.getTicket(ticketId, project, systemId);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Map<String, List<ChartObject>>> compareLaunches(final String projectName, final String[] ids) {
+		return executor.submit(new Callable<Map<String, List<ChartObject>>>() {
+			@Override
+			public Map<String, List<ChartObject>> call() throws RestEndpointIOException {
+				return delegate.compareLaunches(projectName, ids);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<OperationCompletionRS> updateProjectEmailConfig(final String project, final UpdateProjectRQ rq) {
+		return executor.submit(new Callable<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS call() throws RestEndpointIOException {
+				return delegate.updateProjectEmailConfig(project, rq);
+			}
+		});
+	}
+
+	/**
+	 * Waits for already submitted calls and stops accepting new ones
+	 */
+	@Override
+	public void close() throws IOException {
+		List<ListenableFuture<?>> chained;
+		synchronized (lastCalls) {
+			chained = ImmutableList.copyOf(lastCalls.values());
+		}
+		try {
+			/* chained calls are submitted to the pool one by one, so pool is shut down after them */
+			try {
+				Futures.successfulAsList(chained).get(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				/* failures are reported by futures of the calls */
+			} catch (TimeoutException e) {
+				/* pool is shut down anyway */
+			}
+			executor.shutdown();
+			executor.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for submitted calls");
+		}
+	}
+
+	/**
+	 * Remembers parent of the started item, so calls of the item are awaited
+	 * by finish of the parent
+	 */
+	private EntryCreatedRS started(EntryCreatedRS created, String parentId) {
+		if (null != created && null != created.getId() && null != parentId) {
+			synchronized (lastCalls) {
+				parents.put(created.getId(), parentId);
+			}
+		}
+		return created;
+	}
+
+	/**
+	 * Submits call to the pool once previous call of the same launch or item
+	 * is completed
+	 *
+	 * @param key
+	 *            - ID of launch or item. NULL if call isn't chained
+	 * @param call
+	 * @param afterDescendants
+	 *            - whether call also waits for already submitted calls of
+	 *            descendants of the launch or item
+	 */
+	private <T> ListenableFuture<T> submit(final String key, Callable<T> call, boolean afterDescendants) {
+		if (null == key) {
+			return executor.submit(call);
+		}
+		final ListenableFutureTask<T> task = ListenableFutureTask.create(call);
+		/* launch or item and all its ancestors known at the moment */
+		final List<String> owners = Lists.newArrayList();
+		List<ListenableFuture<?>> awaited = Lists.newArrayList();
+		synchronized (lastCalls) {
+			ListenableFuture<?> previous = lastCalls.put(key, task);
+			if (null != previous) {
+				awaited.add(previous);
+			}
+			if (afterDescendants) {
+				awaited.addAll(pendingCalls.get(key));
+			}
+			for (String owner = key; null != owner && !owners.contains(owner); owner = parents.get(owner)) {
+				owners.add(owner);
+				pendingCalls.put(owner, task);
+			}
+		}
+		task.addListener(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (lastCalls) {
+					if (task == lastCalls.get(key)) {
+						lastCalls.remove(key);
+					}
+					for (String owner : owners) {
+						pendingCalls.remove(owner, task);
+					}
+				}
+			}
+		}, MoreExecutors.directExecutor());
+		Runnable start = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					executor.execute(task);
+				} catch (RejectedExecutionException e) {
+					task.cancel(false);
+				}
+			}
+		};
+		if (awaited.isEmpty()) {
+			start.run();
+		} else {
+			/* failures of the awaited calls shouldn't prevent the call */
+			Futures.successfulAsList(awaited).addListener(start, MoreExecutors.directExecutor());
+		}
+		return task;
+	}
+
+	private static ExecutorService createExecutor(int threads) {
+		Preconditions.checkArgument(threads > 0, "Count of threads should be positive");
+		return Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("rp-async-service-%d").setDaemon(true).build());
+	}
+}
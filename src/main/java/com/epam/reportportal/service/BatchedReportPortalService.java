@@ -20,81 +20,330 @@
  */
 package com.epam.reportportal.service;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.epam.reportportal.exception.InternalReportPortalClientException;
+import com.epam.reportportal.exception.ReportPortalClientException;
+import com.epam.reportportal.utils.files.ImageConversionPool;
+import com.epam.reportportal.utils.http.MultiPartEntity;
+import com.epam.reportportal.utils.http.StreamingRestEndpoint;
+import com.epam.reportportal.utils.metrics.MetricsRegistry;
+import com.epam.reportportal.utils.queue.AdaptiveFlushPolicy;
+import com.epam.reportportal.utils.queue.AsyncBatchExecutor;
 import com.epam.reportportal.utils.queue.BatchExecutor;
+import com.epam.reportportal.utils.queue.CompositeFlushPolicy;
+import com.epam.reportportal.utils.queue.FlushableQueue;
+import com.epam.reportportal.utils.queue.MemoryBudget;
 import com.epam.reportportal.utils.queue.Result;
+import com.epam.reportportal.utils.queue.WeightBasedFlushPolicy;
 import com.epam.reportportal.apache.http.entity.ContentType;
 import com.epam.ta.reportportal.ws.model.*;
 import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
 import com.epam.reportportal.restclient.endpoint.MultiPartRequest;
 import com.epam.reportportal.restclient.endpoint.RestEndpoint;
 import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 /**
  * Implementation with logging via batches. Keeps some logs until defined count
- * and sends them to reportportal in the batch request
+ * and sends them to reportportal in the batch request. Logs from all threads
+ * are collected into the same batch. Batch is sent once it reaches max count
+ * of logs, max payload size or linger time of its first log is over. <br>
+ * In asynchronous mode logs are put to the bounded queue and sent by the pool
+ * of background sender threads, so {@link #log(SaveLogRQ)} never waits for
+ * the HTTP request. <br>
+ * {@link StreamingRestEndpoint} streams attachments from their sources, so
+ * content of the file isn't copied to the request in the heap. <br>
+ * Count of logs in the batch and linger time may be tuned at runtime by
+ * latency of batch requests, see {@link AdaptiveFlushPolicy}. Memory of
+ * pending logs may be bounded, see
+ * {@link #setMemoryBudget(MemoryBudget, OverflowPolicy)}
  * 
  * @author Andrei Varabyeu
  * 
  */
-public class BatchedReportPortalService extends ReportPortalService {
+public class BatchedReportPortalService extends ReportPortalService implements Closeable {
 
-	private ThreadLocal<BatchExecutor<SaveLogRQ, BatchElementCreatedRS>> saveLogQueue;
+	public static final String LOGS_SUBMITTED = "rp.logs.submitted";
+	public static final String LOGS_PENDING = "rp.logs.pending";
+	public static final String LOGS_DROPPED = "rp.logs.dropped";
+	public static final String LOGS_PENDING_BYTES = "rp.logs.pending.bytes";
+	public static final String BATCH_SIZE = "rp.logs.batch.size";
+	public static final String BATCH_LATENCY = "rp.logs.batch.latency";
+
+	/**
+	 * Approximate size of log request in bytes: message and attachment
+	 */
+	private static final WeightBasedFlushPolicy.Weigher<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> PAYLOAD_WEIGHER =
+			new WeightBasedFlushPolicy.Weigher<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>() {
+		@Override
+		public long weigh(BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> element) {
+			return BatchedReportPortalService.weigh(element.getParameter());
+		}
+	};
+
+	private BatchExecutor<SaveLogRQ, BatchElementCreatedRS> saveLogQueue;
+
+	/** Levels of logs which aren't dropped by {@link OverflowPolicy#DROP_LOW_LEVEL} */
+	private static final Set<String> SEVERE_LEVELS = ImmutableSet.of("WARN", "ERROR", "FATAL");
+
+	/** Bounds memory of pending logs. NULL if memory isn't bounded */
+	private volatile MemoryBudget memoryBudget;
+
+	private volatile OverflowPolicy overflowPolicy;
+
+	/** Count of logs dropped or stripped of attachments by overflow policy */
+	private final AtomicLong droppedLogs = new AtomicLong();
+
+	/** Converts screenshots in background. Absent if conversion is disabled */
+	private volatile ImageConversionPool imageConversionPool;
+
+	/** Reports metrics of the service. Absent if metrics aren't reported */
+	private volatile Closeable metricsReporter;
+
+	/** Count of logs in the batch and linger time, tuned by request latency */
+	private final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy;
 
 	public BatchedReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project, final int logsBatchSize) {
+		this(endpoint, apiBase, project, logsBatchSize, Long.MAX_VALUE, 0);
+	}
+
+	/**
+	 * Creates service which sends logs from the logging thread once batch is
+	 * full
+	 * 
+	 * @param logsBatchSize
+	 *            - max count of logs in one batch request
+	 * @param logsBatchPayloadLimit
+	 *            - max size of logs in one batch request in bytes, including
+	 *            attachments
+	 * @param lingerTime
+	 *            - max time in millis log waits in the batch. Non-positive
+	 *            value means no limit
+	 */
+	public BatchedReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project, final int logsBatchSize,
+			final long logsBatchPayloadLimit, final long lingerTime) {
+		this(endpoint, apiBase, project, new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize, Math.max(0, lingerTime)),
+				logsBatchPayloadLimit, 1);
+	}
+
+	/**
+	 * Creates service which sends logs once batch is full. Count of logs in
+	 * the batch and linger time are defined by adaptive policy. Batches are
+	 * sent from the logging thread unless more than one batch request is
+	 * allowed to be in flight
+	 * 
+	 * @param batchPolicy
+	 *            - defines max count of logs in one batch request and max
+	 *            time in millis log waits in the batch
+	 * @param logsBatchPayloadLimit
+	 *            - max size of logs in one batch request in bytes, including
+	 *            attachments
+	 * @param maxInFlight
+	 *            - max count of concurrent batch requests. Logs of the item
+	 *            are sent before the item is finished anyway
+	 */
+	public BatchedReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project,
+			final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy, final long logsBatchPayloadLimit, final int maxInFlight) {
 
 		super(endpoint, apiBase, project);
 
-		saveLogQueue = new ThreadLocal<BatchExecutor<SaveLogRQ, BatchElementCreatedRS>>() {
+		this.batchPolicy = Preconditions.checkNotNull(batchPolicy, "Batch policy shouldn't be null");
+		final FlushableQueue.FlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> flushPolicy = createFlushPolicy(batchPolicy,
+				logsBatchPayloadLimit);
+		saveLogQueue = new BatchExecutor<SaveLogRQ, BatchElementCreatedRS>(batchPolicy.getMaxLingerTime(), TimeUnit.MILLISECONDS,
+				maxInFlight) {
+
 			@Override
-			protected BatchExecutor<SaveLogRQ, BatchElementCreatedRS> initialValue() {
-				return new BatchExecutor<SaveLogRQ, BatchElementCreatedRS>() {
+			protected void executeBatch(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+				executeLogs(batch);
+			}
 
-					@Override
-					protected void executeBatch(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+				return flushPolicy.shouldBeFlushed(batch);
+			}
 
-						MultiPartRequest.Builder<List<SaveLogRQ>> requestBuilder = new MultiPartRequest.Builder<List<SaveLogRQ>>();
-						List<SaveLogRQ> serializedPart = new ArrayList<SaveLogRQ>(batch.size());
+			@Override
+			protected long getLingerTime() {
+				return batchPolicy.getLingerTime();
+			}
 
-						for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> batchItem : batch) {
-							SaveLogRQ rq = batchItem.getParameter();
-							serializedPart.add(batchItem.getParameter());
+		};
 
-							if (null != rq.getFile()) {
-								requestBuilder.addBinaryPart(Constants.LOG_REQUEST_BINARY_PART, rq.getFile().getName(),
-										ContentType.APPLICATION_OCTET_STREAM.getMimeType(), rq.getFile().getContent());
-							}
-						}
+	}
 
-						requestBuilder.addSerializedPart(Constants.LOG_REQUEST_JSON_PART, serializedPart);
+	/**
+	 * Creates service which sends logs asynchronously
+	 * 
+	 * @param logsBatchSize
+	 *            - max count of logs in one batch request
+	 * @param logsBatchPayloadLimit
+	 *            - max size of logs in one batch request in bytes, including
+	 *            attachments
+	 * @param lingerTime
+	 *            - how long in millis sender waits for new logs if batch is
+	 *            not full yet
+	 * @param senderThreads
+	 *            - count of background threads sending batches. Logs of one
+	 *            item are always sent by the same thread
+	 * @param queueCapacity
+	 *            - max count of logs waiting to be sent. Logging thread is
+	 *            blocked once it's reached
+	 */
+	public BatchedReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project, final int logsBatchSize,
+			final long logsBatchPayloadLimit, final long lingerTime, final int senderThreads, final int queueCapacity) {
+		this(endpoint, apiBase, project, new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize, Math.max(0, lingerTime)),
+				logsBatchPayloadLimit, senderThreads, queueCapacity);
+	}
 
-						BatchSaveOperatingRS batchResponse = endpoint.post(apiBase + "/" + project + "/log", requestBuilder.build(),
-								BatchSaveOperatingRS.class);
-						for (BatchElementCreatedRS rsItem : batchResponse.getResponses()) {
-							batch.poll().getResult().set(rsItem);
-						}
+	/**
+	 * Creates service which sends logs asynchronously. Count of logs in the
+	 * batch and linger time are defined by adaptive policy
+	 * 
+	 * @param batchPolicy
+	 *            - defines max count of logs in one batch request and how
+	 *            long in millis sender waits for new logs if batch is not
+	 *            full yet
+	 * @param logsBatchPayloadLimit
+	 *            - max size of logs in one batch request in bytes, including
+	 *            attachments
+	 * @param senderThreads
+	 *            - count of background threads sending batches. Logs of one
+	 *            item are always sent by the same thread
+	 * @param queueCapacity
+	 *            - max count of logs waiting to be sent. Logging thread is
+	 *            blocked once it's reached
+	 */
+	public BatchedReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project,
+			final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy, final long logsBatchPayloadLimit,
+			final int senderThreads, final int queueCapacity) {
+		super(endpoint, apiBase, project);
 
-					}
+		this.batchPolicy = Preconditions.checkNotNull(batchPolicy, "Batch policy shouldn't be null");
+		saveLogQueue = new AsyncBatchExecutor<SaveLogRQ, BatchElementCreatedRS>(createFlushPolicy(batchPolicy, logsBatchPayloadLimit),
+				batchPolicy.getLingerTime(), TimeUnit.MILLISECONDS, senderThreads, queueCapacity) {
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+				executeLogs(batch);
+			}
 
-					@Override
-					protected boolean execute(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
-						return batch.size() >= logsBatchSize;
-					}
+			@Override
+			protected long getLingerTime() {
+				return batchPolicy.getLingerTime();
+			}
 
-				};
+			/**
+			 * Logs of the item are sent by one sender in the order they are
+			 * reported
+			 */
+			@Override
+			protected Object getStream(SaveLogRQ parameter) {
+				return parameter.getTestItemId();
 			}
 		};
+	}
+
+	/**
+	 * Bounds count and size of logs which are pending in the memory. Should be
+	 * called before logs are reported
+	 * 
+	 * @param memoryBudget
+	 *            - budget of pending logs
+	 * @param overflowPolicy
+	 *            - what to do with log once budget is exhausted
+	 */
+	public void setMemoryBudget(MemoryBudget memoryBudget, OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = Preconditions.checkNotNull(overflowPolicy, "Overflow policy shouldn't be null");
+		this.memoryBudget = Preconditions.checkNotNull(memoryBudget, "Memory budget shouldn't be null");
+	}
+
+	/**
+	 * Enables conversion of screenshots to black and white colors. Images are
+	 * converted by the pool while logs are waiting for the batch
+	 * 
+	 * @param imageConversionPool
+	 *            - pool of conversion threads
+	 */
+	public void setImageConversionPool(ImageConversionPool imageConversionPool) {
+		this.imageConversionPool = Preconditions.checkNotNull(imageConversionPool, "Image conversion pool shouldn't be null");
+	}
+
+	/**
+	 * Ties reporter of metrics to the service. Reporter is closed with the
+	 * service after pending logs are sent, so final report includes them
+	 * 
+	 * @param metricsReporter
+	 *            - reporter to be closed with the service
+	 */
+	public void setMetricsReporter(Closeable metricsReporter) {
+		this.metricsReporter = Preconditions.checkNotNull(metricsReporter, "Metrics reporter shouldn't be null");
+	}
 
+	/**
+	 * @return count of logs dropped or stripped of attachments because memory
+	 *         budget was exhausted
+	 */
+	public long getDroppedLogs() {
+		return droppedLogs.get();
+	}
+
+	/**
+	 * Registers gauges of pending and dropped logs as well
+	 */
+	@Override
+	public void setMetricsRegistry(MetricsRegistry metrics) {
+		super.setMetricsRegistry(metrics);
+		metrics.register(LOGS_PENDING, new MetricsRegistry.Gauge() {
+			@Override
+			public long getValue() {
+				return saveLogQueue.getPendingCount();
+			}
+		});
+		metrics.register(LOGS_DROPPED, new MetricsRegistry.Gauge() {
+			@Override
+			public long getValue() {
+				return droppedLogs.get();
+			}
+		});
+		metrics.register(LOGS_PENDING_BYTES, new MetricsRegistry.Gauge() {
+			@Override
+			public long getValue() {
+				MemoryBudget budget = memoryBudget;
+				return null == budget ? 0 : budget.getBytes();
+			}
+		});
 	}
 
 	@Override
 	public Result<BatchElementCreatedRS> log(SaveLogRQ rq) throws RestEndpointIOException {
+		metrics.increment(LOGS_SUBMITTED, 1);
 		try {
-			return saveLogQueue.get().submit(rq);
+			MemoryBudget budget = memoryBudget;
+			if (null != budget && !budget.tryAcquire(weigh(rq))) {
+				Result<BatchElementCreatedRS> overflow = overflow(budget, rq);
+				if (null != overflow) {
+					return overflow;
+				}
+			}
+			ImageConversionPool conversionPool = imageConversionPool;
+			if (null != conversionPool && null != rq.getFile() && null != rq.getFile().getContent()) {
+				SaveLogRQ.File converted = new SaveLogRQ.File();
+				converted.setName(rq.getFile().getName());
+				converted.setContent(conversionPool.convertIfImage(rq.getFile().getContent()));
+				rq.setFile(converted);
+			}
+			return saveLogQueue.submit(rq);
 		} catch (RestEndpointIOException e) {
 			throw e;
 		} catch (IOException e) {
@@ -102,19 +351,301 @@ public class BatchedReportPortalService extends ReportPortalService {
 		}
 	}
 
+	/**
+	 * Handles log which doesn't fit memory budget according to overflow
+	 * policy
+	 * 
+	 * @return result of log which isn't queued or null if budget is acquired
+	 *         and log should be queued
+	 * @throws IOException
+	 */
+	private Result<BatchElementCreatedRS> overflow(MemoryBudget budget, SaveLogRQ rq) throws IOException {
+		switch (overflowPolicy) {
+		case DROP_LOW_LEVEL:
+			if (!isSevere(rq)) {
+				droppedLogs.incrementAndGet();
+				Result<BatchElementCreatedRS> dropped = new Result<BatchElementCreatedRS>();
+				dropped.setException(droppedException());
+				return dropped;
+			}
+			/* pending logs of low level give way to the severe one */
+			if (evictLowLevelLogs(budget) && budget.tryAcquire(weigh(rq))) {
+				return null;
+			}
+			break;
+		case DROP_ATTACHMENTS:
+			if (null != rq.getFile()) {
+				droppedLogs.incrementAndGet();
+				rq.setFile(null);
+				if (budget.tryAcquire(weigh(rq))) {
+					return null;
+				}
+			}
+			break;
+		case SPILL:
+			Result<BatchElementCreatedRS> spilled = new Result<BatchElementCreatedRS>();
+			if (spill(new BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>(rq, spilled))) {
+				return spilled;
+			}
+			break;
+		default:
+			break;
+		}
+		/* pending logs are sent to free the budget */
+		flushLogs();
+		budget.acquire(weigh(rq));
+		return null;
+	}
+
+	/**
+	 * Drops pending logs of low level which aren't sent yet and releases their
+	 * budget
+	 * 
+	 * @return whether any log is dropped
+	 */
+	private boolean evictLowLevelLogs(MemoryBudget budget) {
+		List<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> evicted = saveLogQueue.remove(new Predicate<SaveLogRQ>() {
+			@Override
+			public boolean apply(SaveLogRQ input) {
+				return !isSevere(input);
+			}
+		});
+		if (evicted.isEmpty()) {
+			return false;
+		}
+		long weight = 0;
+		for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> log : evicted) {
+			weight += weigh(log.getParameter());
+			log.getResult().setException(droppedException());
+		}
+		droppedLogs.addAndGet(evicted.size());
+		budget.release(evicted.size(), weight);
+		return true;
+	}
+
+	private static boolean isSevere(SaveLogRQ rq) {
+		return null != rq.getLevel() && SEVERE_LEVELS.contains(rq.getLevel().toUpperCase());
+	}
+
+	private static InternalReportPortalClientException droppedException() {
+		return new InternalReportPortalClientException("Log is dropped since memory budget is exhausted");
+	}
+
+	/**
+	 * Moves log which doesn't fit memory budget to disk
+	 * 
+	 * @param log
+	 *            - log and its result
+	 * @return false if log can't be moved to disk
+	 * @throws IOException
+	 */
+	protected boolean spill(BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> log) throws IOException {
+		return false;
+	}
+
+	@Override
+	public OperationCompletionRS finishTestItem(final String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
+		OperationCompletionRS operationCompletionRS;
+		try {
+			flushLogs(itemId);
+		} finally {
+			operationCompletionRS = super.finishTestItem(itemId, rq);
+		}
+		return operationCompletionRS;
+	}
+
 	@Override
-	public OperationCompletionRS finishTestItem(String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
+	public OperationCompletionRS finishLaunch(String launchID, FinishExecutionRQ rq) throws RestEndpointIOException {
 		OperationCompletionRS operationCompletionRS;
 		try {
-			saveLogQueue.get().executeAndClear();
+			flushLogs();
+		} finally {
+			operationCompletionRS = super.finishLaunch(launchID, rq);
+		}
+		return operationCompletionRS;
+	}
+
+	/**
+	 * Sends pending logs if there are logs of the item among them. Logs of
+	 * other items may wait for the full batch
+	 * 
+	 * @param itemId
+	 * @throws RestEndpointIOException
+	 */
+	protected void flushLogs(final String itemId) throws RestEndpointIOException {
+		try {
+			saveLogQueue.executeAndClearIfAny(new Predicate<SaveLogRQ>() {
+				@Override
+				public boolean apply(SaveLogRQ input) {
+					return itemId.equals(input.getTestItemId());
+				}
+			});
 		} catch (RestEndpointIOException e) {
 			throw e;
 		} catch (IOException e) {
 			throw new RestEndpointIOException("Error occurred on logs saving", e);
+		}
+	}
+
+	/**
+	 * Sends all pending logs
+	 * 
+	 * @throws RestEndpointIOException
+	 */
+	protected void flushLogs() throws RestEndpointIOException {
+		try {
+			saveLogQueue.executeAndClear();
+		} catch (RestEndpointIOException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new RestEndpointIOException("Error occurred on logs saving", e);
+		}
+	}
+
+	/**
+	 * Sends pending logs and stops background threads of the log queue, image
+	 * conversion pool and metrics reporter
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			saveLogQueue.close();
 		} finally {
-			operationCompletionRS = super.finishTestItem(itemId, rq);
+			ImageConversionPool conversionPool = imageConversionPool;
+			if (null != conversionPool) {
+				conversionPool.close();
+			}
+			Closeable reporter = metricsReporter;
+			if (null != reporter) {
+				reporter.close();
+			}
 		}
-		return operationCompletionRS;
+	}
+
+	/**
+	 * Saves batch of logs and releases their memory budget
+	 */
+	private void executeLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+		MemoryBudget budget = memoryBudget;
+		if (null == budget) {
+			saveLogs(batch);
+			return;
+		}
+		int count = batch.size();
+		long weight = 0;
+		for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> parameter : batch) {
+			weight += weigh(parameter.getParameter());
+		}
+		try {
+			saveLogs(batch);
+		} finally {
+			budget.release(count, weight);
+		}
+	}
+
+	/**
+	 * Sends batch of logs in one multipart request and completes results of
+	 * each batch element
+	 * 
+	 * @param batch
+	 * @throws IOException
+	 */
+	protected void saveLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+		List<SaveLogRQ> serializedPart = new ArrayList<SaveLogRQ>(batch.size());
+		for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> batchItem : batch) {
+			serializedPart.add(batchItem.getParameter());
+		}
+
+		long weight = 0;
+		for (SaveLogRQ rq : serializedPart) {
+			weight += weigh(rq);
+		}
+
+		BatchSaveOperatingRS batchResponse;
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			batchResponse = postLogs(serializedPart);
+			failed = false;
+		} catch (ReportPortalClientException e) {
+			/* request is rejected, it isn't a sign of server or network problems */
+			failed = false;
+			throw e;
+		} finally {
+			long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			batchPolicy.onExecuted(serializedPart.size(), weight, latency, failed);
+			metrics.record(BATCH_SIZE, serializedPart.size());
+			metrics.record(BATCH_LATENCY, latency);
+		}
+
+		for (BatchElementCreatedRS rsItem : batchResponse.getResponses()) {
+			batch.poll().getResult().set(rsItem);
+		}
+		BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> missed;
+		while (null != (missed = batch.poll())) {
+			missed.getResult().setException(new InternalReportPortalClientException("Report portal hasn't sent response for the log"));
+		}
+	}
+
+	/**
+	 * Sends logs in one multipart request
+	 */
+	private BatchSaveOperatingRS postLogs(List<SaveLogRQ> serializedPart) throws IOException {
+		if (endpoint instanceof StreamingRestEndpoint) {
+			/* attachments are copied from their sources to the connection */
+			MultiPartEntity entity = new MultiPartEntity().addSerializedPart(Constants.LOG_REQUEST_JSON_PART, serializedPart);
+			for (SaveLogRQ rq : serializedPart) {
+				if (null != rq.getFile()) {
+					entity.addPart(Constants.LOG_REQUEST_BINARY_PART, rq.getFile().getName(),
+							ContentType.APPLICATION_OCTET_STREAM.getMimeType(), rq.getFile().getContent());
+				}
+			}
+			return ((StreamingRestEndpoint) endpoint).postMultiPart(apiBase + "/" + project + "/log", entity,
+					BatchSaveOperatingRS.class);
+		}
+		MultiPartRequest.Builder<List<SaveLogRQ>> requestBuilder = new MultiPartRequest.Builder<List<SaveLogRQ>>();
+		for (SaveLogRQ rq : serializedPart) {
+			if (null != rq.getFile()) {
+				requestBuilder.addBinaryPart(Constants.LOG_REQUEST_BINARY_PART, rq.getFile().getName(),
+						ContentType.APPLICATION_OCTET_STREAM.getMimeType(), rq.getFile().getContent());
+			}
+		}
+		requestBuilder.addSerializedPart(Constants.LOG_REQUEST_JSON_PART, serializedPart);
+		return endpoint.post(apiBase + "/" + project + "/log", requestBuilder.build(), BatchSaveOperatingRS.class);
+	}
+
+	/**
+	 * Approximate size of log request in bytes: message and attachment
+	 */
+	private static long weigh(SaveLogRQ rq) {
+		long weight = null == rq.getMessage() ? 0 : rq.getMessage().length();
+		if (null != rq.getFile() && null != rq.getFile().getContent()) {
+			try {
+				weight += rq.getFile().getContent().size();
+			} catch (IOException e) {
+				/* attachment which can't be read isn't counted */
+			}
+		}
+		return weight;
+	}
+
+	/**
+	 * Batch is full once it reaches max count of logs or max payload size.
+	 * Payload size is limited by current weight limit of batch policy as well
+	 */
+	private static FlushableQueue.FlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> createFlushPolicy(
+			final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy,
+			final long logsBatchPayloadLimit) {
+		List<FlushableQueue.FlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>> policies = Lists.newArrayList();
+		policies.add(batchPolicy);
+		policies.add(new WeightBasedFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchPayloadLimit,
+				PAYLOAD_WEIGHER) {
+			@Override
+			protected long getMaxWeight() {
+				return Math.min(logsBatchPayloadLimit, batchPolicy.getWeightLimit());
+			}
+		});
+		return new CompositeFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(policies);
 	}
 
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.hateoas.PagedResources;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import com.epam.ta.reportportal.ws.model.*;
+import com.epam.ta.reportportal.ws.model.dashboard.CreateDashboardRQ;
+import com.epam.ta.reportportal.ws.model.dashboard.DashboardResource;
+import com.epam.ta.reportportal.ws.model.dashboard.UpdateDashboardRQ;
+import com.epam.ta.reportportal.ws.model.externalsystem.*;
+import com.epam.ta.reportportal.ws.model.favorites.AddFavoriteResourceRQ;
+import com.epam.ta.reportportal.ws.model.filter.CreateUserFilterRQ;
+import com.epam.ta.reportportal.ws.model.filter.UpdateUserFilterRQ;
+import com.epam.ta.reportportal.ws.model.filter.UserFilterResource;
+import com.epam.ta.reportportal.ws.model.issue.DefineIssueRQ;
+import com.epam.ta.reportportal.ws.model.issue.Issue;
+import com.epam.ta.reportportal.ws.model.launch.*;
+import com.epam.ta.reportportal.ws.model.log.LogResource;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.epam.ta.reportportal.ws.model.project.AssignUsersRQ;
+import com.epam.ta.reportportal.ws.model.project.CreateProjectRQ;
+import com.epam.ta.reportportal.ws.model.project.UnassignUsersRQ;
+import com.epam.ta.reportportal.ws.model.project.UpdateProjectRQ;
+import com.epam.ta.reportportal.ws.model.user.*;
+import com.epam.ta.reportportal.ws.model.widget.ChartObject;
+import com.epam.ta.reportportal.ws.model.widget.WidgetRQ;
+import com.epam.ta.reportportal.ws.model.widget.WidgetResource;
+
+/**
+ * Non-blocking version of {@link IReportPortalService}. Each method is the
+ * asynchronous version of {@link IReportPortalService} method with the same
+ * name and parameters: it returns immediately, returned future is completed
+ * with response from ReportPortal or with exception thrown by the blocking
+ * method.
+ * <br>
+ * Calls related to the same launch or item (start of the child, log, finish)
+ * are executed in the order of submission. Other calls aren't ordered, so
+ * caller should wait for the future of parent operation (e.g. start of the
+ * launch) before using its ID in dependent calls
+ */
+public interface IAsyncReportPortalService extends Closeable {
+
+	ListenableFuture<EntryCreatedRS> startLaunch(StartLaunchRQ rq);
+
+	ListenableFuture<OperationCompletionRS> finishLaunch(String launchID, FinishExecutionRQ rq);
+
+	ListenableFuture<OperationCompletionRS> updateLaunch(String launchID, UpdateLaunchRQ rq);
+
+	ListenableFuture<EntryCreatedRS> startTestItem(String parentItemId, StartTestItemRQ rq);
+
+	ListenableFuture<OperationCompletionRS> finishTestItem(String itemId, FinishTestItemRQ rq);
+
+	ListenableFuture<EntryCreatedRS> startRootTestItem(StartTestItemRQ rq);
+
+	ListenableFuture<EntryCreatedRS> log(SaveLogRQ rq);
+
+	ListenableFuture<List<EntryCreatedRS>> createUserFilter(CollectionsRQ<CreateUserFilterRQ> rq);
+
+	ListenableFuture<OperationCompletionRS> updateUserFilter(String filterId, UpdateUserFilterRQ rq);
+
+	ListenableFuture<LaunchResource> getLaunch(String launchId);
+
+	ListenableFuture<PagedResources<LaunchResource>> getProjectLaunches();
+
+	ListenableFuture<PagedResources<LaunchResource>> getLaunches(Map<String, String> parameters);
+
+	ListenableFuture<PagedResources<LaunchResource>> getUserLaunches(String user, Map<String, String> parameters);
+
+	ListenableFuture<TestItemResource> getTestItem(String itemId);
+
+	ListenableFuture<PagedResources<TestItemResource>> getProjectTestItems();
+
+	ListenableFuture<PagedResources<TestItemResource>> getAllTestItems(Map<String, String> parameters);
+
+	ListenableFuture<List<TestItemHistoryElement>> getTestItemsHistory(Map<String, String> parameters);
+
+	ListenableFuture<LogResource> getLog(String logId);
+
+	ListenableFuture<PagedResources<LogResource>> getAllLogs(String testStepId);
+
+	ListenableFuture<PagedResources<LogResource>> getAllLogs(String testStepId, Map<String, String> parameters);
+
+	ListenableFuture<UserFilterResource> getUserFilter(String userFilterId);
+
+	ListenableFuture<PagedResources<UserFilterResource>> getProjectUserFilters();
+
+	ListenableFuture<PagedResources<UserFilterResource>> getAllUserFilters(Map<String, String> parameters);
+
+	ListenableFuture<Map<String, SharedEntity>> getUserFilters();
+
+	ListenableFuture<Map<String, SharedEntity>> getSharedFilters();
+
+	ListenableFuture<OperationCompletionRS> deleteTestItem(String itemId);
+
+	ListenableFuture<OperationCompletionRS> deleteLaunch(String launchId);
+
+	ListenableFuture<OperationCompletionRS> deleteLog(String logId);
+
+	ListenableFuture<OperationCompletionRS> deleteUserFilter(String userFilterId);
+
+	ListenableFuture<List<Issue>> defineTestItemIssueType(DefineIssueRQ request);
+
+	ListenableFuture<EntryCreatedRS> createWidget(WidgetRQ createWidgetRQ);
+
+	ListenableFuture<WidgetResource> getWidget(String widgetId);
+
+	ListenableFuture<Map<String, SharedEntity>> getSharedWidgets();
+
+	ListenableFuture<Iterable<Iterable<String>>> getChartData(String widgetId);
+
+	ListenableFuture<OperationCompletionRS> updateWidget(String widgetId, WidgetRQ updateRQ);
+
+	ListenableFuture<EntryCreatedRS> createDashboard(CreateDashboardRQ createDashboardRQ);
+
+	ListenableFuture<List<DashboardResource>> getProjectDashboards();
+
+	ListenableFuture<OperationCompletionRS> deleteDashboard(String dashboardID);
+
+	ListenableFuture<OperationCompletionRS> updateDashboard(String dashboardID, UpdateDashboardRQ updateDashboardRQ);
+
+	ListenableFuture<Map<String, SharedEntity>> getSharedDashboards();
+
+	ListenableFuture<UserResource> getUser(String userName);
+
+	ListenableFuture<OperationCompletionRS> synchronizeUser();
+
+	ListenableFuture<OperationCompletionRS> editUser(String username, EditUserRQ editUserRQ);
+
+	ListenableFuture<CreateUserBidRS> createUser(CreateUserRQ createUserRQ);
+
+	ListenableFuture<CreateUserRS> confirmUser(String registrationUuid, CreateUserRQConfirm rq);
+
+	ListenableFuture<OperationCompletionRS> deleteUser(String login);
+
+	ListenableFuture<byte[]> getMyPhoto();
+
+	ListenableFuture<List<String>> getAllTags(String value);
+
+	ListenableFuture<List<String>> getAllTags();
+
+	ListenableFuture<EntryCreatedRS> createProject(CreateProjectRQ createProjectRQ);
+
+	ListenableFuture<OperationCompletionRS> updateProject(UpdateProjectRQ updateProjectRQ);
+
+	ListenableFuture<OperationCompletionRS> deleteProject(String project);
+
+	ListenableFuture<OperationCompletionRS> unassignProjectUsers(String projectName, UnassignUsersRQ unassignUsersRQ);
+
+	ListenableFuture<OperationCompletionRS> assignProjectUsers(String projectName, AssignUsersRQ assignUsersRQ);
+
+	ListenableFuture<DashboardResource> addFavoriteResource(AddFavoriteResourceRQ favoriteResource);
+
+	ListenableFuture<List<ActivityResource>> getAllTestItemActivities(String testItemId);
+
+	ListenableFuture<List<Issue>> defineItemIssue(DefineIssueRQ defineIssueRQ);
+
+	ListenableFuture<Ticket> createTicket(String externalSystemName, PostTicketRQ postTicketRQ);
+
+	ListenableFuture<Ticket> getTicket(String externalSystemName, String ticketId);
+
+	ListenableFuture<LaunchResource> mergeLaunches(String projectName, MergeLaunchesRQ mergeLaunchesRQ);
+
+	ListenableFuture<EntryCreatedRS> createExternalSystem(CreateExternalSystemRQ createRQ, String projectName);
+
+	ListenableFuture<ExternalSystemResource> getExternalSystem(String projectName, String systemId);
+
+	ListenableFuture<OperationCompletionRS> deleteExternalSystem(String projectName, String systemId);
+
+	ListenableFuture<OperationCompletionRS> deleteAllExternalSystems(String projectName);
+
+	ListenableFuture<OperationCompletionRS> updateExternalSystem(UpdateExternalSystemRQ rq, String project, String systemId);
+
+	ListenableFuture<OperationCompletionRS> checkConnection(String project, String systemId, UpdateExternalSystemRQ rq);
+
+	ListenableFuture<Ticket> createTicket(PostTicketRQ ticketRQ, String project, String systemId);
+
+	ListenableFuture<Ticket> getTicket(String ticketId, String project, String systemId);
+
+	ListenableFuture<Map<String, List<ChartObject>>> compareLaunches(String projectName, String[] ids);
+
+	ListenableFuture<OperationCompletionRS> updateProjectEmailConfig(String project, UpdateProjectRQ rq);
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+/**
+ * Defines what happens with log once memory budget of pending logs is
+ * exhausted
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Pending logs are sent and logging thread waits for free budget
+	 */
+	BLOCK,
+
+	/**
+	 * Logs with level lower than WARN are dropped. Log of higher level first
+	 * evicts pending logs of lower level which aren't sent yet, then it's
+	 * handled as in {@link #BLOCK} policy
+	 */
+	DROP_LOW_LEVEL,
+
+	/**
+	 * Attachment of the log is dropped, text of the log is kept and handled as
+	 * in {@link #BLOCK} policy
+	 */
+	DROP_ATTACHMENTS,
+
+	/**
+	 * Log is written to disk spool if service has one. Otherwise it's handled
+	 * as in {@link #BLOCK} policy
+	 */
+	SPILL;
+
+	/**
+	 * Finds policy by its name ignoring case
+	 *
+	 * @param name
+	 *            - name of policy
+	 * @return policy or null if there is no such policy
+	 */
+	public static OverflowPolicy fromString(String name) {
+		for (OverflowPolicy policy : values()) {
+			if (policy.name().equalsIgnoreCase(name)) {
+				return policy;
+			}
+		}
+		return null;
+	}
+}
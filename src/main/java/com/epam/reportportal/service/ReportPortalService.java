@@ -21,10 +21,15 @@
 package com.epam.reportportal.service;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.hateoas.PagedResources;
 
 import com.epam.reportportal.exception.InternalReportPortalClientException;
+import com.epam.reportportal.utils.http.MultiPartEntity;
+import com.epam.reportportal.utils.http.StreamingRestEndpoint;
+import com.epam.reportportal.utils.metrics.MetricsRegistry;
+import com.epam.reportportal.utils.metrics.NoopMetricsRegistry;
 import com.epam.reportportal.utils.queue.Result;
 import com.epam.reportportal.apache.http.entity.ContentType;
 import com.epam.ta.reportportal.ws.model.*;
@@ -66,6 +71,11 @@ import com.google.common.reflect.TypeToken;
  * 
  */
 public class ReportPortalService implements IReportPortalService {
+	public static final String LAUNCH_START = "rp.launch.start";
+	public static final String LAUNCH_FINISH = "rp.launch.finish";
+	public static final String ITEM_START = "rp.item.start";
+	public static final String ITEM_FINISH = "rp.item.finish";
+
 	/** REST Client */
 	protected RestEndpoint endpoint;
 
@@ -73,12 +83,37 @@ public class ReportPortalService implements IReportPortalService {
 
 	protected String project;
 
+	/** Latency of reporting operations and other client metrics */
+	protected MetricsRegistry metrics = NoopMetricsRegistry.INSTANCE;
+
 	public ReportPortalService(RestEndpoint endpoint, String apiBase, String project) {
 		this.endpoint = Preconditions.checkNotNull(endpoint, "RestEndpoing shouldn't be NULL");
 		this.apiBase = Preconditions.checkNotNull(apiBase, "API base shouldn't be null");
 		this.project = Preconditions.checkNotNull(project, "Project shouldn't be null");
 	}
 
+	/**
+	 * Sets registry of client metrics. Should be called before reporting is
+	 * started
+	 * 
+	 * @param metrics
+	 */
+	public void setMetricsRegistry(MetricsRegistry metrics) {
+		this.metrics = Preconditions.checkNotNull(metrics, "Metrics registry shouldn't be null");
+	}
+
+	/**
+	 * Records latency of operation in millis
+	 * 
+	 * @param name
+	 *            - name of operation
+	 * @param start
+	 *            - start time of operation from {@link System#nanoTime()}
+	 */
+	protected void recordLatency(String name, long start) {
+		metrics.record(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -88,7 +123,12 @@ public class ReportPortalService implements IReportPortalService {
 	 */
 	@Override
 	public EntryCreatedRS startLaunch(StartLaunchRQ rq) throws RestEndpointIOException {
-		return endpoint.post(apiBase + "/" + project + "/launch/", rq, EntryCreatedRS.class);
+		long start = System.nanoTime();
+		try {
+			return endpoint.post(apiBase + "/" + project + "/launch/", rq, EntryCreatedRS.class);
+		} finally {
+			recordLatency(LAUNCH_START, start);
+		}
 	}
 
 	/*
@@ -100,7 +140,12 @@ public class ReportPortalService implements IReportPortalService {
 	 */
 	@Override
 	public OperationCompletionRS finishLaunch(String launchID, FinishExecutionRQ rq) throws RestEndpointIOException {
-		return endpoint.put(apiBase + "/" + project + "/launch/" + launchID + "/finish", rq, OperationCompletionRS.class);
+		long start = System.nanoTime();
+		try {
+			return endpoint.put(apiBase + "/" + project + "/launch/" + launchID + "/finish", rq, OperationCompletionRS.class);
+		} finally {
+			recordLatency(LAUNCH_FINISH, start);
+		}
 	}
 
 	@Override
@@ -109,12 +154,20 @@ public class ReportPortalService implements IReportPortalService {
 			EntryCreatedRS response = endpoint.post(apiBase + "/" + project + "/log", rq, EntryCreatedRS.class);
 			return new Result<EntryCreatedRS>(response);
 		} else {
-			MultiPartRequest<SaveLogRQ[]> request = new MultiPartRequest.Builder<SaveLogRQ[]>()
-					.addSerializedPart(Constants.LOG_REQUEST_JSON_PART, new SaveLogRQ[] { rq }).addBinaryPart(rq.getFile().getName(),
-							rq.getFile().getName(), ContentType.APPLICATION_OCTET_STREAM.getMimeType(), rq.getFile().getContent())
-					.build();
-
-			BatchSaveOperatingRS response = endpoint.post(apiBase + "/" + project + "/log", request, BatchSaveOperatingRS.class);
+			BatchSaveOperatingRS response;
+			if (endpoint instanceof StreamingRestEndpoint) {
+				MultiPartEntity entity = new MultiPartEntity().addSerializedPart(Constants.LOG_REQUEST_JSON_PART, new SaveLogRQ[] { rq })
+						.addPart(rq.getFile().getName(), rq.getFile().getName(), ContentType.APPLICATION_OCTET_STREAM.getMimeType(),
+								rq.getFile().getContent());
+				response = ((StreamingRestEndpoint) endpoint).postMultiPart(apiBase + "/" + project + "/log", entity,
+						BatchSaveOperatingRS.class);
+			} else {
+				MultiPartRequest<SaveLogRQ[]> request = new MultiPartRequest.Builder<SaveLogRQ[]>()
+						.addSerializedPart(Constants.LOG_REQUEST_JSON_PART, new SaveLogRQ[] { rq }).addBinaryPart(rq.getFile().getName(),
+								rq.getFile().getName(), ContentType.APPLICATION_OCTET_STREAM.getMimeType(), rq.getFile().getContent())
+						.build();
+				response = endpoint.post(apiBase + "/" + project + "/log", request, BatchSaveOperatingRS.class);
+			}
 			if (response.getResponses() == null || response.getResponses().size() == 0) {
 				throw new InternalReportPortalClientException("Report portal hasn't sent any response.");
 			}
@@ -243,7 +296,12 @@ public class ReportPortalService implements IReportPortalService {
 			urlBuilder.append("/");
 			urlBuilder.append(parentItemId);
 		}
-		return endpoint.post(urlBuilder.toString(), rq, EntryCreatedRS.class);
+		long start = System.nanoTime();
+		try {
+			return endpoint.post(urlBuilder.toString(), rq, EntryCreatedRS.class);
+		} finally {
+			recordLatency(ITEM_START, start);
+		}
 	}
 
 	/*
@@ -255,7 +313,12 @@ public class ReportPortalService implements IReportPortalService {
 	 */
 	@Override
 	public OperationCompletionRS finishTestItem(String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
-		return endpoint.put(apiBase + "/" + project + "/item/" + itemId, rq, OperationCompletionRS.class);
+		long start = System.nanoTime();
+		try {
+			return endpoint.put(apiBase + "/" + project + "/item/" + itemId, rq, OperationCompletionRS.class);
+		} finally {
+			recordLatency(ITEM_FINISH, start);
+		}
 	}
 
 	/*
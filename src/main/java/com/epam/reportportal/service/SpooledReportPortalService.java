@@ -0,0 +1,498 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.epam.reportportal.exception.ReportPortalClientException;
+import com.epam.reportportal.exception.ReportPortalServerException;
+import com.epam.reportportal.restclient.endpoint.RestEndpoint;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.utils.queue.AdaptiveFlushPolicy;
+import com.epam.reportportal.utils.queue.BatchExecutor;
+import com.epam.reportportal.utils.queue.Result;
+import com.epam.reportportal.utils.spool.Spool;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.FinishExecutionRQ;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Batched service which doesn't lose reports when ReportPortal is slow or
+ * down. Batches of logs and finishes of items and launches which can't be sent
+ * are written to the durable {@link Spool}. Once something is spooled, next
+ * requests are spooled as well to keep the order. Background thread replays
+ * spooled requests in the same order once ReportPortal is available again.
+ * Requests left in the spool by previous runs are replayed too.
+ * <br>
+ * Results of spooled logs are completed on replay. Finish of spooled item or
+ * launch returns empty response immediately. Requests rejected by
+ * ReportPortal with client error are dropped, because replay can't fix them.
+ * <br>
+ * Starts of launches and items aren't spooled: caller needs the ID returned by
+ * ReportPortal, so they fail as usual when ReportPortal is down
+ */
+public class SpooledReportPortalService extends BatchedReportPortalService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpooledReportPortalService.class);
+
+	private static final byte LOGS = 1;
+	private static final byte FINISH_ITEM = 2;
+	private static final byte FINISH_LAUNCH = 3;
+
+	/** Marks log without attachment */
+	private static final int NO_CONTENT = -1;
+
+	private final Spool spool;
+
+	private final Serializer serializer;
+
+	/** Results of logs spooled by this process by record position */
+	private final Map<Long, List<Result<BatchElementCreatedRS>>> spooledResults;
+
+	private final ScheduledExecutorService replayer;
+
+	/**
+	 * Requests are sent directly under read lock only if spool is empty and
+	 * appended under write lock, so direct request can't overtake spooled one
+	 */
+	private final ReadWriteLock spoolLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Creates service which sends logs from the logging thread
+	 *
+	 * @param spool
+	 *            - spool for requests which can't be sent
+	 * @param serializer
+	 *            - serializer of spooled requests
+	 * @param replayInterval
+	 *            - how often in millis replay of spooled requests is tried
+	 * @see BatchedReportPortalService#BatchedReportPortalService(RestEndpoint,
+	 *      String, String, int, long, long)
+	 */
+	public SpooledReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project, final int logsBatchSize,
+			final long logsBatchPayloadLimit, final long lingerTime, final Spool spool, final Serializer serializer,
+			final long replayInterval) {
+		this(endpoint, apiBase, project, new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize, Math.max(0, lingerTime)),
+				logsBatchPayloadLimit, 1, spool, serializer, replayInterval);
+	}
+
+	/**
+	 * Creates service which sends logs once batch is full. Count of logs in
+	 * the batch and linger time are defined by adaptive policy
+	 *
+	 * @param spool
+	 *            - spool for requests which can't be sent
+	 * @param serializer
+	 *            - serializer of spooled requests
+	 * @param replayInterval
+	 *            - how often in millis replay of spooled requests is tried
+	 * @see BatchedReportPortalService#BatchedReportPortalService(RestEndpoint,
+	 *      String, String, AdaptiveFlushPolicy, long, int)
+	 */
+	public SpooledReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project,
+			final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy, final long logsBatchPayloadLimit, final int maxInFlight,
+			final Spool spool, final Serializer serializer, final long replayInterval) {
+		super(endpoint, apiBase, project, batchPolicy, logsBatchPayloadLimit, maxInFlight);
+		this.spool = Preconditions.checkNotNull(spool, "Spool shouldn't be null");
+		this.serializer = Preconditions.checkNotNull(serializer, "Serializer shouldn't be null");
+		this.spooledResults = new ConcurrentHashMap<Long, List<Result<BatchElementCreatedRS>>>();
+		this.replayer = startReplay(replayInterval);
+	}
+
+	/**
+	 * Creates service which sends logs asynchronously
+	 *
+	 * @param spool
+	 *            - spool for requests which can't be sent
+	 * @param serializer
+	 *            - serializer of spooled requests
+	 * @param replayInterval
+	 *            - how often in millis replay of spooled requests is tried
+	 * @see BatchedReportPortalService#BatchedReportPortalService(RestEndpoint,
+	 *      String, String, int, long, long, int, int)
+	 */
+	public SpooledReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project, final int logsBatchSize,
+			final long logsBatchPayloadLimit, final long lingerTime, final int senderThreads, final int queueCapacity, final Spool spool,
+			final Serializer serializer, final long replayInterval) {
+		this(endpoint, apiBase, project, new AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>>(logsBatchSize, Math.max(0, lingerTime)),
+				logsBatchPayloadLimit, senderThreads, queueCapacity, spool, serializer, replayInterval);
+	}
+
+	/**
+	 * Creates service which sends logs asynchronously. Count of logs in the
+	 * batch and linger time are defined by adaptive policy
+	 *
+	 * @param spool
+	 *            - spool for requests which can't be sent
+	 * @param serializer
+	 *            - serializer of spooled requests
+	 * @param replayInterval
+	 *            - how often in millis replay of spooled requests is tried
+	 * @see BatchedReportPortalService#BatchedReportPortalService(RestEndpoint,
+	 *      String, String, AdaptiveFlushPolicy, long, int, int)
+	 */
+	public SpooledReportPortalService(final RestEndpoint endpoint, final String apiBase, final String project,
+			final AdaptiveFlushPolicy<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batchPolicy, final long logsBatchPayloadLimit, final int senderThreads,
+			final int queueCapacity, final Spool spool, final Serializer serializer, final long replayInterval) {
+		super(endpoint, apiBase, project, batchPolicy, logsBatchPayloadLimit, senderThreads, queueCapacity);
+		this.spool = Preconditions.checkNotNull(spool, "Spool shouldn't be null");
+		this.serializer = Preconditions.checkNotNull(serializer, "Serializer shouldn't be null");
+		this.spooledResults = new ConcurrentHashMap<Long, List<Result<BatchElementCreatedRS>>>();
+		this.replayer = startReplay(replayInterval);
+	}
+
+	@Override
+	public OperationCompletionRS finishTestItem(String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
+		/* logs go to the spool first if it isn't empty */
+		flushLogs(itemId);
+		spoolLock.readLock().lock();
+		try {
+			if (spool.isEmpty()) {
+				return putFinishTestItem(itemId, rq);
+			}
+		} catch (RestEndpointIOException e) {
+			LOGGER.warn("Unable to finish test item " + itemId + ". Request is spooled", e);
+		} catch (ReportPortalServerException e) {
+			LOGGER.warn("Unable to finish test item " + itemId + ". Request is spooled", e);
+		} finally {
+			spoolLock.readLock().unlock();
+		}
+		append(FINISH_ITEM, new FinishPayload(itemId, rq));
+		return new OperationCompletionRS();
+	}
+
+	@Override
+	public OperationCompletionRS finishLaunch(String launchID, FinishExecutionRQ rq) throws RestEndpointIOException {
+		flushLogs();
+		spoolLock.readLock().lock();
+		try {
+			if (spool.isEmpty()) {
+				return putFinishLaunch(launchID, rq);
+			}
+		} catch (RestEndpointIOException e) {
+			LOGGER.warn("Unable to finish launch " + launchID + ". Request is spooled", e);
+		} catch (ReportPortalServerException e) {
+			LOGGER.warn("Unable to finish launch " + launchID + ". Request is spooled", e);
+		} finally {
+			spoolLock.readLock().unlock();
+		}
+		append(FINISH_LAUNCH, new FinishPayload(launchID, rq));
+		return new OperationCompletionRS();
+	}
+
+	/**
+	 * Spools batch if spool isn't empty or batch can't be sent
+	 */
+	@Override
+	protected void saveLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+		spoolLock.readLock().lock();
+		try {
+			if (spool.isEmpty()) {
+				super.saveLogs(Lists.newLinkedList(batch));
+				return;
+			}
+		} catch (RestEndpointIOException e) {
+			LOGGER.warn("Unable to save batch of logs. Batch is spooled", e);
+		} catch (ReportPortalServerException e) {
+			LOGGER.warn("Unable to save batch of logs. Batch is spooled", e);
+		} finally {
+			spoolLock.readLock().unlock();
+		}
+		spoolLogs(batch);
+	}
+
+	/**
+	 * Log is spooled and replayed with other spooled requests
+	 */
+	@Override
+	protected boolean spill(BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> log) throws IOException {
+		Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch = Lists.newLinkedList();
+		batch.add(log);
+		spoolLogs(batch);
+		return true;
+	}
+
+	/**
+	 * Replays spooled requests while ReportPortal is available
+	 */
+	protected void replay() {
+		try {
+			Spool.Record record;
+			while (null != (record = spool.peek())) {
+				try {
+					send(record);
+				} catch (IOException e) {
+					LOGGER.debug("ReportPortal is still unavailable", e);
+					return;
+				} catch (ReportPortalServerException e) {
+					LOGGER.debug("ReportPortal is still unavailable", e);
+					return;
+				} catch (ReportPortalClientException e) {
+					LOGGER.error("Spooled request is rejected by ReportPortal and dropped", e);
+					fail(record, e);
+				}
+				spool.remove();
+			}
+		} catch (IOException e) {
+			LOGGER.error("Unable to read spooled request", e);
+		}
+	}
+
+	/**
+	 * Sends pending logs, stops replay and closes spool. Requests which are
+	 * still spooled will be replayed on the next start
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			replayer.shutdown();
+			try {
+				replayer.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			spool.close();
+		}
+	}
+
+	private void send(Spool.Record record) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(record.getPayload()));
+		switch (record.getType()) {
+		case LOGS:
+			Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch = readLogs(input,
+					spooledResults.get(record.getPosition()));
+			super.saveLogs(batch);
+			spooledResults.remove(record.getPosition());
+			break;
+		/* logs are already spooled before finish, so they aren't flushed again */
+		case FINISH_ITEM:
+			putFinishTestItem(input.readUTF(), read(input, FinishTestItemRQ.class));
+			break;
+		case FINISH_LAUNCH:
+			putFinishLaunch(input.readUTF(), read(input, FinishExecutionRQ.class));
+			break;
+		default:
+			LOGGER.error("Unknown type of spooled record " + record.getType() + ". Record is dropped");
+		}
+	}
+
+	/**
+	 * Sends finish of the item without flushing its logs: they are already
+	 * flushed or spooled before
+	 */
+	private OperationCompletionRS putFinishTestItem(String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
+		long start = System.nanoTime();
+		try {
+			return endpoint.put(apiBase + "/" + project + "/item/" + itemId, rq, OperationCompletionRS.class);
+		} finally {
+			recordLatency(ITEM_FINISH, start);
+		}
+	}
+
+	private OperationCompletionRS putFinishLaunch(String launchID, FinishExecutionRQ rq) throws RestEndpointIOException {
+		long start = System.nanoTime();
+		try {
+			return endpoint.put(apiBase + "/" + project + "/launch/" + launchID + "/finish", rq, OperationCompletionRS.class);
+		} finally {
+			recordLatency(LAUNCH_FINISH, start);
+		}
+	}
+
+	private void fail(Spool.Record record, Throwable cause) {
+		List<Result<BatchElementCreatedRS>> results = spooledResults.remove(record.getPosition());
+		if (null != results) {
+			for (Result<BatchElementCreatedRS> result : results) {
+				result.setException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Appends batch of logs to the spool and registers results of its logs.
+	 * Spool is locked until results are registered, so replay thread can't
+	 * peek the record before
+	 */
+	private void spoolLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+		List<Result<BatchElementCreatedRS>> results = Lists.newArrayListWithCapacity(batch.size());
+		for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> parameter : batch) {
+			results.add(parameter.getResult());
+		}
+		spoolLock.writeLock().lock();
+		try {
+			synchronized (spool) {
+				spooledResults.put(spool.append(LOGS, new LogsPayload(batch)), results);
+			}
+		} finally {
+			spoolLock.writeLock().unlock();
+		}
+	}
+
+	private void append(byte type, Spool.Payload payload) throws RestEndpointIOException {
+		spoolLock.writeLock().lock();
+		try {
+			spool.append(type, payload);
+		} catch (IOException e) {
+			throw new RestEndpointIOException("Unable to spool request", e);
+		} finally {
+			spoolLock.writeLock().unlock();
+		}
+	}
+
+	private Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> readLogs(DataInputStream input,
+			List<Result<BatchElementCreatedRS>> results) throws IOException {
+		int count = input.readInt();
+		Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch = Lists.newLinkedList();
+		for (int i = 0; i < count; i++) {
+			SaveLogRQ rq = read(input, SaveLogRQ.class);
+			int contentLength = input.readInt();
+			if (NO_CONTENT != contentLength) {
+				byte[] content = new byte[contentLength];
+				input.readFully(content);
+				if (null != rq.getFile()) {
+					rq.getFile().setContent(ByteSource.wrap(content));
+				}
+			}
+			/* results of logs spooled by previous runs aren't known */
+			Result<BatchElementCreatedRS> result = null == results ? new Result<BatchElementCreatedRS>() : results.get(i);
+			batch.add(new BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>(rq, result));
+		}
+		return batch;
+	}
+
+	private <T> T read(DataInputStream input, Class<T> type) throws IOException {
+		byte[] content = new byte[input.readInt()];
+		input.readFully(content);
+		return serializer.deserialize(content, type);
+	}
+
+	/**
+	 * Writes serialized request prefixed by its length
+	 */
+	private void write(DataOutputStream output, Object rq) throws IOException {
+		InputStream serialized = serializer.serialize(rq);
+		try {
+			byte[] content = ByteStreams.toByteArray(serialized);
+			output.writeInt(content.length);
+			output.write(content);
+		} finally {
+			serialized.close();
+		}
+	}
+
+	private ScheduledExecutorService startReplay(long replayInterval) {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("rp-spool-replay-%d").setDaemon(true).build());
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					replay();
+				} catch (RuntimeException e) {
+					LOGGER.error("Unable to replay spooled requests", e);
+				}
+			}
+		}, replayInterval, replayInterval, TimeUnit.MILLISECONDS);
+		return executor;
+	}
+
+	/**
+	 * Batch of logs in format [count]([request][attachment])*. Attachment is
+	 * copied from its source directly to the spool segment
+	 */
+	private final class LogsPayload implements Spool.Payload {
+		private final Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch;
+
+		LogsPayload(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			DataOutputStream output = new DataOutputStream(out);
+			output.writeInt(batch.size());
+			for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> parameter : batch) {
+				SaveLogRQ rq = parameter.getParameter();
+				write(output, rq);
+				/* attachment isn't the part of JSON request */
+				SaveLogRQ.File file = rq.getFile();
+				if (null == file || null == file.getContent()) {
+					output.writeInt(NO_CONTENT);
+				} else {
+					long length = file.getContent().size();
+					output.writeInt(Ints.checkedCast(length));
+					if (file.getContent().copyTo(output) != length) {
+						throw new IOException("Size of attachment " + file.getName() + " has changed while it was spooled");
+					}
+				}
+			}
+			output.flush();
+		}
+	}
+
+	/**
+	 * Finish of item or launch in format [ID][request]
+	 */
+	private final class FinishPayload implements Spool.Payload {
+		private final String id;
+		private final Object rq;
+
+		FinishPayload(String id, Object rq) {
+			this.id = id;
+			this.rq = rq;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			DataOutputStream output = new DataOutputStream(out);
+			output.writeUTF(id);
+			write(output, rq);
+			output.flush();
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.epam.ta.reportportal.ws.model.EntryCreatedRS;
+import com.epam.ta.reportportal.ws.model.FinishExecutionRQ;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.launch.StartLaunchRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Reports launch tree without waiting for responses from ReportPortal.
+ * Launches and test items get client-side virtual IDs immediately, calls
+ * which depend on the real ID are sent as soon as the corresponding
+ * {@link EntryCreatedRS} arrives. So children of the item may be started
+ * before the server responds for the parent.
+ * <br>
+ * Item (or launch) is finished only when its start, starts and finishes of
+ * its children are completed and its logs are submitted. Logs aren't awaited,
+ * since they may be sent only with the batch flushed by the finish itself:
+ * {@link IAsyncReportPortalService} executes calls of the same item in order
+ * of submission, so finish is executed after logs are queued. IDs unknown for
+ * this service are considered as real ones and used as is. Requests passed
+ * by caller aren't modified: copies with real IDs are sent instead.
+ * <br>
+ * Service isn't bound by injector since it keeps state of the reported tree,
+ * it's created over {@link IAsyncReportPortalService} by the caller
+ */
+public class VirtualIdReportPortalService {
+
+	/** Future of the log saving once log is submitted */
+	private static final AsyncFunction<ListenableFuture<EntryCreatedRS>, EntryCreatedRS> DEREFERENCE =
+			new AsyncFunction<ListenableFuture<EntryCreatedRS>, EntryCreatedRS>() {
+				@Override
+				public ListenableFuture<EntryCreatedRS> apply(ListenableFuture<EntryCreatedRS> saved) {
+					return saved;
+				}
+			};
+
+	private final IAsyncReportPortalService service;
+
+	/** Not yet finished launches and items by their virtual ID */
+	private final ConcurrentMap<String, Node> nodes;
+
+	public VirtualIdReportPortalService(IAsyncReportPortalService service) {
+		this.service = Preconditions.checkNotNull(service, "Async service shouldn't be null");
+		this.nodes = new ConcurrentHashMap<String, Node>();
+	}
+
+	/**
+	 * Starts launch
+	 *
+	 * @param rq
+	 *            - Launch Data
+	 * @return virtual ID of the launch
+	 */
+	public String startLaunch(StartLaunchRQ rq) {
+		return register(null, toId(service.startLaunch(rq)));
+	}
+
+	/**
+	 * Starts root item of the launch. Launch ID of the request may be virtual
+	 *
+	 * @param rq
+	 *            - Item Data
+	 * @return virtual ID of the item
+	 */
+	public String startRootTestItem(final StartTestItemRQ rq) {
+		String launchId = rq.getLaunchId();
+		ListenableFuture<EntryCreatedRS> created = Futures.transform(resolve(launchId), new AsyncFunction<String, EntryCreatedRS>() {
+			@Override
+			public ListenableFuture<EntryCreatedRS> apply(String realLaunchId) {
+				return service.startRootTestItem(copyOf(rq, realLaunchId));
+			}
+		}, MoreExecutors.directExecutor());
+		return register(node(launchId), toId(created));
+	}
+
+	/**
+	 * Starts child item. Parent ID and launch ID of the request may be virtual
+	 *
+	 * @param parentItemId
+	 *            - ID of the parent item
+	 * @param rq
+	 *            - Item Data
+	 * @return virtual ID of the item
+	 */
+	public String startTestItem(String parentItemId, final StartTestItemRQ rq) {
+		@SuppressWarnings("unchecked")
+		ListenableFuture<List<String>> ids = Futures.allAsList(resolve(parentItemId), resolve(rq.getLaunchId()));
+		ListenableFuture<EntryCreatedRS> created = Futures.transform(ids, new AsyncFunction<List<String>, EntryCreatedRS>() {
+			@Override
+			public ListenableFuture<EntryCreatedRS> apply(List<String> realIds) {
+				return service.startTestItem(realIds.get(0), copyOf(rq, realIds.get(1)));
+			}
+		}, MoreExecutors.directExecutor());
+		return register(node(parentItemId), toId(created));
+	}
+
+	/**
+	 * Sends log to the item. Item ID of the request may be virtual. Item
+	 * finish waits only until log is submitted
+	 *
+	 * @param rq
+	 *            - Log Data
+	 * @return future of log saving
+	 */
+	public ListenableFuture<EntryCreatedRS> log(final SaveLogRQ rq) {
+		String itemId = rq.getTestItemId();
+		ListenableFuture<ListenableFuture<EntryCreatedRS>> submitted = Futures.transform(resolve(itemId),
+				new Function<String, ListenableFuture<EntryCreatedRS>>() {
+					@Override
+					public ListenableFuture<EntryCreatedRS> apply(String realItemId) {
+						return service.log(copyOf(rq, realItemId));
+					}
+				}, MoreExecutors.directExecutor());
+		dependOn(node(itemId), submitted);
+		return Futures.transform(submitted, DEREFERENCE, MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Finishes item after all its children and logs are reported
+	 *
+	 * @param itemId
+	 *            - ID of the item
+	 * @param rq
+	 *            - Finish Data
+	 * @return future of item finishing
+	 */
+	public ListenableFuture<OperationCompletionRS> finishTestItem(final String itemId, final FinishTestItemRQ rq) {
+		return finish(itemId, new AsyncFunction<String, OperationCompletionRS>() {
+			@Override
+			public ListenableFuture<OperationCompletionRS> apply(String realItemId) {
+				return service.finishTestItem(realItemId, rq);
+			}
+		});
+	}
+
+	/**
+	 * Finishes launch after all its items are reported
+	 *
+	 * @param launchId
+	 *            - ID of the launch
+	 * @param rq
+	 *            - Finish Data
+	 * @return future of launch finishing
+	 */
+	public ListenableFuture<OperationCompletionRS> finishLaunch(final String launchId, final FinishExecutionRQ rq) {
+		return finish(launchId, new AsyncFunction<String, OperationCompletionRS>() {
+			@Override
+			public ListenableFuture<OperationCompletionRS> apply(String realLaunchId) {
+				return service.finishLaunch(realLaunchId, rq);
+			}
+		});
+	}
+
+	/**
+	 * Returns future of real ID for the virtual one
+	 *
+	 * @param id
+	 *            - virtual or real ID
+	 */
+	public ListenableFuture<String> resolve(String id) {
+		Node node = node(id);
+		return null == node ? Futures.immediateFuture(id) : node.realId;
+	}
+
+	private ListenableFuture<OperationCompletionRS> finish(final String id, final AsyncFunction<String, OperationCompletionRS> finish) {
+		final Node node = node(id);
+		if (null == node) {
+			return Futures.transform(Futures.immediateFuture(id), finish, MoreExecutors.directExecutor());
+		}
+		List<ListenableFuture<?>> dependencies = Lists.newArrayList(node.dependencies);
+		/* children failures shouldn't prevent parent finishing */
+		ListenableFuture<List<Object>> reported = Futures.successfulAsList(dependencies);
+		ListenableFuture<OperationCompletionRS> finished = Futures.transform(reported, new AsyncFunction<List<Object>, OperationCompletionRS>() {
+			@Override
+			public ListenableFuture<OperationCompletionRS> apply(List<Object> input) {
+				return Futures.transform(node.realId, finish, MoreExecutors.directExecutor());
+			}
+		}, MoreExecutors.directExecutor());
+		dependOn(node.parent, finished);
+		Futures.addCallback(finished, new FutureCallback<OperationCompletionRS>() {
+			@Override
+			public void onSuccess(OperationCompletionRS result) {
+				nodes.remove(id);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				nodes.remove(id);
+			}
+		}, MoreExecutors.directExecutor());
+		return finished;
+	}
+
+	private Node node(String id) {
+		return null == id ? null : nodes.get(id);
+	}
+
+	private String register(Node parent, ListenableFuture<String> realId) {
+		String virtualId = UUID.randomUUID().toString();
+		nodes.put(virtualId, new Node(parent, realId));
+		dependOn(parent, realId);
+		return virtualId;
+	}
+
+	private static void dependOn(Node node, final ListenableFuture<?> dependency) {
+		if (null != node) {
+			final Set<ListenableFuture<?>> dependencies = node.dependencies;
+			dependencies.add(dependency);
+			/* completed dependency isn't awaited anymore, so it's not kept for the whole node lifetime */
+			dependency.addListener(new Runnable() {
+				@Override
+				public void run() {
+					dependencies.remove(dependency);
+				}
+			}, MoreExecutors.directExecutor());
+		}
+	}
+
+	private static StartTestItemRQ copyOf(StartTestItemRQ rq, String launchId) {
+		StartTestItemRQ copy = new StartTestItemRQ();
+		copy.setName(rq.getName());
+		copy.setDescription(rq.getDescription());
+		copy.setTags(rq.getTags());
+		copy.setStartTime(rq.getStartTime());
+		copy.setType(rq.getType());
+		copy.setLaunchId(launchId);
+		return copy;
+	}
+
+	private static SaveLogRQ copyOf(SaveLogRQ rq, String testItemId) {
+		SaveLogRQ copy = new SaveLogRQ();
+		copy.setLogTime(rq.getLogTime());
+		copy.setMessage(rq.getMessage());
+		copy.setLevel(rq.getLevel());
+		copy.setFile(rq.getFile());
+		copy.setTestItemId(testItemId);
+		return copy;
+	}
+
+	private static ListenableFuture<String> toId(ListenableFuture<EntryCreatedRS> created) {
+		return Futures.transform(created, new Function<EntryCreatedRS, String>() {
+			@Override
+			public String apply(EntryCreatedRS input) {
+				return input.getId();
+			}
+		}, MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Launch or item which isn't finished yet
+	 */
+	private static final class Node {
+		private final Node parent;
+		private final ListenableFuture<String> realId;
+		/** Not completed futures to be awaited before node finishing */
+		private final Set<ListenableFuture<?>> dependencies;
+
+		Node(Node parent, ListenableFuture<String> realId) {
+			this.parent = parent;
+			this.realId = realId;
+			this.dependencies = Collections.newSetFromMap(new ConcurrentHashMap<ListenableFuture<?>, Boolean>());
+		}
+	}
+}
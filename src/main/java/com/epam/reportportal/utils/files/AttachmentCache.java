@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+
+/**
+ * Content-addressed cache of processed attachments. Attachments are
+ * identified by hash of their content, so identical screenshots are
+ * processed once and share the same content in the memory. Recently used
+ * entries are kept while their total size fits the limit
+ */
+public class AttachmentCache {
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	private final Cache<HashCode, ByteSource> cache;
+
+	/**
+	 * @param maxBytes
+	 *            - max total size of cached attachments in bytes
+	 */
+	public AttachmentCache(long maxBytes) {
+		Preconditions.checkArgument(maxBytes > 0, "Max size of cache should be positive");
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maxBytes).weigher(new Weigher<HashCode, ByteSource>() {
+			@Override
+			public int weigh(HashCode key, ByteSource value) {
+				try {
+					return (int) Math.min(Integer.MAX_VALUE, value.size());
+				} catch (IOException e) {
+					return 0;
+				}
+			}
+		}).recordStats().build();
+	}
+
+	/**
+	 * @return hash which identifies content in the cache
+	 */
+	public static HashCode hash(byte[] content) {
+		return HASH_FUNCTION.hashBytes(content);
+	}
+
+	/**
+	 * Returns cached attachment or processes content and caches result.
+	 * Concurrent requests of the same content wait for one processing
+	 *
+	 * @param hash
+	 *            - hash of original content
+	 * @param processor
+	 *            - processes original content
+	 * @return processed content
+	 * @throws IOException
+	 */
+	public ByteSource get(HashCode hash, Callable<ByteSource> processor) throws IOException {
+		try {
+			return cache.get(hash, processor);
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to process attachment", e.getCause());
+		}
+	}
+
+	/**
+	 * @return count of attachments found in the cache
+	 */
+	public long getHits() {
+		return cache.stats().hitCount();
+	}
+
+	/**
+	 * @return count of attachments processed since they weren't found in the
+	 *         cache
+	 */
+	public long getMisses() {
+		return cache.stats().missCount();
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+}
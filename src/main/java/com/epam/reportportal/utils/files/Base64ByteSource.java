@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.epam.reportportal.apache.commons.codec.binary.Base64;
+import com.epam.reportportal.apache.commons.codec.binary.Base64InputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+
+/**
+ * {@link ByteSource} of base64 encoded data which is decoded on reading
+ * through the small buffer. Decoded content is never held in the heap as a
+ * whole. Encoded characters are copied to the byte array, so the source
+ * doesn't keep the string it's taken from. Decoding is as lenient as
+ * {@link Base64#decodeBase64(String)}: characters outside of base64 alphabet
+ * are skipped, data after padding is ignored
+ */
+public class Base64ByteSource extends ByteSource {
+
+	/** Base64 characters without padding */
+	private final byte[] encoded;
+
+	public Base64ByteSource(CharSequence encoded) {
+		Preconditions.checkNotNull(encoded, "Encoded data shouldn't be null");
+		byte[] chars = new byte[encoded.length()];
+		int count = 0;
+		for (int i = 0; i < encoded.length(); i++) {
+			char c = encoded.charAt(i);
+			if ('=' == c) {
+				break;
+			}
+			if (c < 128 && Base64.isBase64((byte) c)) {
+				chars[count++] = (byte) c;
+			}
+		}
+		this.encoded = count == chars.length ? chars : Arrays.copyOf(chars, count);
+	}
+
+	@Override
+	public InputStream openStream() throws IOException {
+		return new Base64InputStream(new ByteArrayInputStream(encoded));
+	}
+
+	/**
+	 * Size of decoded content. Each base64 character holds 6 bits
+	 */
+	@Override
+	public long size() {
+		return encoded.length * 6L / 8;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return encoded.length < 2;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Converts screenshots to black and white colors in background threads.
+ * {@link #convertIfImage(ByteSource)} returns immediately and conversion
+ * result is awaited once attachment is read for sending. If all threads are
+ * busy and queue is full conversion is done by calling thread
+ */
+public class ImageConversionPool implements Closeable {
+
+	private final ThreadPoolExecutor executor;
+
+	private final ImageConversionSettings settings;
+
+	private final AttachmentCache cache;
+
+	/**
+	 * Images are converted to black and white colors
+	 * 
+	 * @param threads
+	 *            - count of conversion threads
+	 * @param queueCapacity
+	 *            - max count of images waiting for conversion
+	 */
+	public ImageConversionPool(int threads, int queueCapacity) {
+		this(threads, queueCapacity, ImageConversionSettings.DEFAULT);
+	}
+
+	/**
+	 * @param threads
+	 *            - count of conversion threads
+	 * @param queueCapacity
+	 *            - max count of images waiting for conversion
+	 * @param settings
+	 *            - how images are converted
+	 */
+	public ImageConversionPool(int threads, int queueCapacity, ImageConversionSettings settings) {
+		this(threads, queueCapacity, settings, null);
+	}
+
+	/**
+	 * @param threads
+	 *            - count of conversion threads
+	 * @param queueCapacity
+	 *            - max count of images waiting for conversion
+	 * @param settings
+	 *            - how images are converted
+	 * @param cache
+	 *            - cache of converted attachments. Identical attachments are
+	 *            converted once. Every attachment is converted if it's null
+	 */
+	public ImageConversionPool(int threads, int queueCapacity, ImageConversionSettings settings, @Nullable AttachmentCache cache) {
+		Preconditions.checkArgument(threads > 0, "Count of conversion threads should be positive");
+		Preconditions.checkArgument(queueCapacity > 0, "Queue capacity should be positive");
+		this.settings = Preconditions.checkNotNull(settings, "Conversion settings shouldn't be null");
+		this.cache = cache;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity),
+				new ThreadFactoryBuilder().setNameFormat("rp-image-conversion-%d").setDaemon(true).build(),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Submits conversion of the content if it's image
+	 *
+	 * @param content
+	 *            - attachment content
+	 * @return source of converted content
+	 */
+	public ByteSource convertIfImage(final ByteSource content) {
+		Future<ByteSource> converted = executor.submit(new Callable<ByteSource>() {
+			@Override
+			public ByteSource call() throws IOException {
+				if (null == cache) {
+					return ImageConverter.convertIfImage(content, settings);
+				}
+				final byte[] data = content.read();
+				return cache.get(AttachmentCache.hash(data), new Callable<ByteSource>() {
+					@Override
+					public ByteSource call() {
+						return ImageConverter.convertIfImage(ByteSource.wrap(data), settings);
+					}
+				});
+			}
+		});
+		return new ConvertedSource(content, converted);
+	}
+
+	/**
+	 * Stops conversion threads. Submitted conversions are completed
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Content which is available once conversion is done
+	 */
+	private static final class ConvertedSource extends ByteSource {
+		private final ByteSource original;
+		private final Future<ByteSource> converted;
+
+		ConvertedSource(ByteSource original, Future<ByteSource> converted) {
+			this.original = original;
+			this.converted = converted;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			try {
+				return converted.get().openStream();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for image conversion");
+			} catch (ExecutionException e) {
+				throw new IOException("Unable to convert image", e.getCause());
+			}
+		}
+
+		/**
+		 * Size of the original content. Pending logs are weighed by it, so
+		 * the size doesn't change once conversion is done and conversion
+		 * isn't awaited
+		 */
+		@Override
+		public long size() throws IOException {
+			return original.size();
+		}
+	}
+}
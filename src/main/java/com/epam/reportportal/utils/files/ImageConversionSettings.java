@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Defines how screenshots are converted before sending: max dimensions,
+ * colors and output format
+ */
+public class ImageConversionSettings {
+
+	/**
+	 * Output image format
+	 */
+	public enum Format {
+		PNG, JPEG;
+
+		/**
+		 * Finds format by its name ignoring case. "jpg" is accepted as
+		 * {@link #JPEG}
+		 *
+		 * @param name
+		 *            - name of format
+		 * @return format or null if there is no such format
+		 */
+		public static Format fromString(String name) {
+			if ("jpg".equalsIgnoreCase(name)) {
+				return JPEG;
+			}
+			for (Format format : values()) {
+				if (format.name().equalsIgnoreCase(name)) {
+					return format;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Black and white PNG of the original size as images were converted before
+	 */
+	public static final ImageConversionSettings DEFAULT = new ImageConversionSettings(0, 0, true, Format.PNG, 100, false);
+
+	private final int maxWidth;
+
+	private final int maxHeight;
+
+	private final boolean grayscale;
+
+	private final Format format;
+
+	private final int quality;
+
+	private final boolean keepSmaller;
+
+	/**
+	 * @param maxWidth
+	 *            - max width of the image in pixels. Image is downscaled
+	 *            keeping aspect ratio if it's wider. Not limited if zero
+	 * @param maxHeight
+	 *            - max height of the image in pixels. Not limited if zero
+	 * @param grayscale
+	 *            - whether image is converted to black and white colors
+	 * @param format
+	 *            - output format
+	 * @param quality
+	 *            - JPEG quality from 1 to 100
+	 * @param keepSmaller
+	 *            - whether original image is kept if converted one isn't
+	 *            smaller
+	 */
+	public ImageConversionSettings(int maxWidth, int maxHeight, boolean grayscale, Format format, int quality, boolean keepSmaller) {
+		Preconditions.checkArgument(maxWidth >= 0 && maxHeight >= 0, "Max dimensions shouldn't be negative");
+		Preconditions.checkArgument(quality > 0 && quality <= 100, "Quality should be between 1 and 100");
+		this.maxWidth = maxWidth;
+		this.maxHeight = maxHeight;
+		this.grayscale = grayscale;
+		this.format = Preconditions.checkNotNull(format, "Format shouldn't be null");
+		this.quality = quality;
+		this.keepSmaller = keepSmaller;
+	}
+
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+
+	public int getMaxHeight() {
+		return maxHeight;
+	}
+
+	public boolean isGrayscale() {
+		return grayscale;
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	public int getQuality() {
+		return quality;
+	}
+
+	public boolean isKeepSmaller() {
+		return keepSmaller;
+	}
+}
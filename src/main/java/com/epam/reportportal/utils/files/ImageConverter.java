@@ -20,12 +20,19 @@
  */
 package com.epam.reportportal.utils.files;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Set;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import com.epam.reportportal.exception.InternalReportPortalClientException;
 import org.apache.tika.detect.Detector;
@@ -36,6 +43,10 @@ import org.apache.tika.parser.AutoDetectParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteSource;
 
 /**
@@ -51,11 +62,40 @@ public class ImageConverter {
 
 	public static final String IMAGE_TYPE = "image";
 
+	private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final byte[] JPEG = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+	private static final byte[] GIF = { 'G', 'I', 'F', '8' };
+	private static final byte[] RIFF = { 'R', 'I', 'F', 'F' };
+	private static final byte[] WEBP = { 'W', 'E', 'B', 'P' };
+	private static final byte[] BMP = { 'B', 'M' };
+	private static final int BMP_HEADER_SIZE = 14;
+	private static final Set<Integer> BMP_INFO_HEADER_SIZES = ImmutableSet.of(12, 40, 52, 56, 64, 108, 124);
+
+	/**
+	 * Tika detector is thread-safe but expensive to create, so it's shared
+	 */
+	private static final Supplier<Detector> DETECTOR = Suppliers.memoize(new Supplier<Detector>() {
+		@Override
+		public Detector get() {
+			return new AutoDetectParser().getDetector();
+		}
+	});
+
 	public static ByteSource convertIfImage(ByteSource content) {
+		return convertIfImage(content, ImageConversionSettings.DEFAULT);
+	}
+
+	/**
+	 * Converts content according to the settings if it's image
+	 * 
+	 * @param content
+	 * @param settings
+	 */
+	public static ByteSource convertIfImage(ByteSource content, ImageConversionSettings settings) {
 		try {
 			byte[] data = content.read();
 			if (isImage(data)) {
-				return convert(data);
+				return convert(data, settings);
 			} else {
 				return ByteSource.wrap(data);
 			}
@@ -72,28 +112,62 @@ public class ImageConverter {
 	 * @throws Exception
 	 */
 	public static ByteSource convert(byte[] source) throws IOException {
+		return convert(source, ImageConversionSettings.DEFAULT);
+	}
+
+	/**
+	 * Downscales image to max dimensions, changes its colors and encodes it
+	 * to output format
+	 * 
+	 * @param source
+	 * @param settings
+	 * @throws IOException
+	 */
+	public static ByteSource convert(byte[] source, ImageConversionSettings settings) throws IOException {
 		BufferedImage image;
 		image = ImageIO.read(ByteSource.wrap(source).openBufferedStream());
-		final BufferedImage blackAndWhiteImage = new BufferedImage(image.getWidth(null), image.getHeight(null),
-				BufferedImage.TYPE_BYTE_GRAY);
-		final Graphics2D graphics2D = (Graphics2D) blackAndWhiteImage.getGraphics();
-		graphics2D.drawImage(image, 0, 0, null);
-		graphics2D.dispose();
-		return convertToInputStream(blackAndWhiteImage);
+		if (null == image) {
+			/* there is no ImageIO reader for the format, e.g. WebP */
+			return ByteSource.wrap(source);
+		}
+		double scale = 1;
+		if (settings.getMaxWidth() > 0) {
+			scale = Math.min(scale, (double) settings.getMaxWidth() / image.getWidth());
+		}
+		if (settings.getMaxHeight() > 0) {
+			scale = Math.min(scale, (double) settings.getMaxHeight() / image.getHeight());
+		}
+		int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+		int type;
+		if (settings.isGrayscale()) {
+			type = BufferedImage.TYPE_BYTE_GRAY;
+		} else if (image.getColorModel().hasAlpha() && ImageConversionSettings.Format.PNG == settings.getFormat()) {
+			type = BufferedImage.TYPE_INT_ARGB;
+		} else {
+			type = BufferedImage.TYPE_INT_RGB;
+		}
+		ByteSource converted = encode(resize(image, width, height, type), settings);
+		if (settings.isKeepSmaller() && converted.size() >= source.length) {
+			return ByteSource.wrap(source);
+		}
+		return converted;
 	}
 
-	/**
-	 * Check is input file is image
+		/**
+	 * Check is input file is image. Common formats are recognized by header
+	 * bytes, others are detected by Tika
 	 * 
 	 * @param fileContent
 	 */
 	public static boolean isImage(byte[] fileContent) {
-
-		AutoDetectParser parser = new AutoDetectParser();
-		Detector detector = parser.getDetector();
+		if (hasImageSignature(fileContent)) {
+			return true;
+		}
 		MediaType mediaType;
 		try {
-			mediaType = detector.detect(TikaInputStream.get(fileContent), new Metadata());
+			mediaType = DETECTOR.get().detect(TikaInputStream.get(fileContent), new Metadata());
 		} catch (Exception e) {
 			logger.error("Unable to read file content.", e);
 			throw new InternalReportPortalClientException("Unable to read file content.", e);
@@ -102,20 +176,97 @@ public class ImageConverter {
 	}
 
 	/**
-	 * Convert BufferedImage to input stream
+	 * Checks header bytes of the most common image formats: PNG, JPEG, GIF,
+	 * BMP and WebP
+	 * 
+	 * @param content
+	 */
+	@VisibleForTesting
+	static boolean hasImageSignature(byte[] content) {
+		return startsWith(content, 0, PNG) || startsWith(content, 0, JPEG) || startsWith(content, 0, GIF)
+				|| (startsWith(content, 0, RIFF) && startsWith(content, 8, WEBP)) || isBmp(content);
+	}
+
+	/**
+	 * "BM" is too short to be reliable, so size of BMP info header which
+	 * follows file header is checked as well
+	 */
+	private static boolean isBmp(byte[] content) {
+		if (content.length < BMP_HEADER_SIZE + 4 || !startsWith(content, 0, BMP)) {
+			return false;
+		}
+		int infoHeaderSize = (content[BMP_HEADER_SIZE] & 0xFF) | (content[BMP_HEADER_SIZE + 1] & 0xFF) << 8
+				| (content[BMP_HEADER_SIZE + 2] & 0xFF) << 16 | (content[BMP_HEADER_SIZE + 3] & 0xFF) << 24;
+		return BMP_INFO_HEADER_SIZES.contains(infoHeaderSize);
+	}
+
+	private static boolean startsWith(byte[] content, int offset, byte[] signature) {
+		if (content.length < offset + signature.length) {
+			return false;
+		}
+		for (int i = 0; i < signature.length; i++) {
+			if (content[offset + i] != signature[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Scales image down by halves while it's at least twice bigger than
+	 * target size. Each bilinear step averages 2x2 pixels, so result is close
+	 * to area averaging but much faster
+	 */
+	private static BufferedImage resize(BufferedImage image, int width, int height, int type) {
+		BufferedImage current = image;
+		int currentWidth = image.getWidth();
+		int currentHeight = image.getHeight();
+		do {
+			int nextWidth = currentWidth / 2 >= width ? currentWidth / 2 : width;
+			int nextHeight = currentHeight / 2 >= height ? currentHeight / 2 : height;
+			boolean last = nextWidth == width && nextHeight == height;
+			BufferedImage next = new BufferedImage(nextWidth, nextHeight, last ? type : BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = next.createGraphics();
+			if (BufferedImage.TYPE_INT_RGB == next.getType()) {
+				/* transparent areas become white rather than black */
+				graphics.setColor(Color.WHITE);
+				graphics.fillRect(0, 0, nextWidth, nextHeight);
+			}
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+			graphics.dispose();
+			current = next;
+			currentWidth = nextWidth;
+			currentHeight = nextHeight;
+		} while (currentWidth != width || currentHeight != height || current.getType() != type);
+		return current;
+	}
+
+	/**
+	 * Encodes image to output format
 	 * 
 	 * @param image
+	 * @param settings
 	 * @throws IOException
 	 */
-	private static ByteSource convertToInputStream(BufferedImage image) {
+	private static ByteSource encode(BufferedImage image, ImageConversionSettings settings) throws IOException {
 		ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
-		try {
+		if (ImageConversionSettings.Format.PNG == settings.getFormat()) {
 			ImageIO.write(image, "png", byteOutputStream);
-		} catch (IOException e) {
-			throw new InternalReportPortalClientException("Unable to transform file to byte array.", e);
+			return ByteSource.wrap(byteOutputStream.toByteArray());
+		}
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageOutputStream output = ImageIO.createImageOutputStream(byteOutputStream);
+		try {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(settings.getQuality() / 100f);
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+			output.close();
 		}
 		return ByteSource.wrap(byteOutputStream.toByteArray());
-
 	}
-
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+/**
+ * Stops calls to unhealthy server. Outcomes of the last calls are kept in
+ * the window. Once share of failed and slow calls in the full window reaches
+ * threshold, circuit is opened and calls aren't permitted. After open time is
+ * over, circuit is half-open: a few trial calls are permitted. Circuit is
+ * closed if all of them succeed and opened again otherwise
+ */
+public class CircuitBreaker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureRateThreshold;
+
+	private final long slowCallDuration;
+
+	private final long openDuration;
+
+	private final int halfOpenCalls;
+
+	private final Ticker ticker;
+
+	/** Outcomes of the last calls: true if call failed or was slow */
+	private final boolean[] window;
+
+	private int windowPosition;
+
+	private int windowCalls;
+
+	private int windowFailures;
+
+	private State state;
+
+	private long openedAt;
+
+	private int trialCalls;
+
+	private int trialSuccesses;
+
+	/**
+	 * @param windowSize
+	 *            - count of the last calls failure rate is calculated for
+	 * @param failureRateThreshold
+	 *            - percentage of failed and slow calls which opens circuit
+	 * @param slowCallDuration
+	 *            - calls taking longer than this time in millis are
+	 *            considered as failed
+	 * @param openDuration
+	 *            - how long in millis circuit stays open
+	 * @param halfOpenCalls
+	 *            - count of trial calls in half-open state
+	 */
+	public CircuitBreaker(int windowSize, int failureRateThreshold, long slowCallDuration, long openDuration, int halfOpenCalls) {
+		this(windowSize, failureRateThreshold, slowCallDuration, openDuration, halfOpenCalls, Ticker.systemTicker());
+	}
+
+	@VisibleForTesting
+	CircuitBreaker(int windowSize, int failureRateThreshold, long slowCallDuration, long openDuration, int halfOpenCalls, Ticker ticker) {
+		Preconditions.checkArgument(windowSize > 0, "Window size should be positive");
+		Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 100, "Failure rate threshold should be from 1 to 100");
+		Preconditions.checkArgument(halfOpenCalls > 0, "Count of half-open calls should be positive");
+		this.failureRateThreshold = failureRateThreshold;
+		this.slowCallDuration = slowCallDuration;
+		this.openDuration = openDuration;
+		this.halfOpenCalls = halfOpenCalls;
+		this.ticker = ticker;
+		this.window = new boolean[windowSize];
+		this.state = State.CLOSED;
+	}
+
+	/**
+	 * Checks whether call is permitted. Outcome of permitted call should be
+	 * reported with {@link #onSuccess(long)} or {@link #onFailure()}
+	 *
+	 * @return false if circuit is open
+	 */
+	public synchronized boolean tryAcquire() {
+		if (State.OPEN == state && now() - openedAt >= openDuration) {
+			LOGGER.info("Circuit is half-open, trying " + halfOpenCalls + " calls");
+			state = State.HALF_OPEN;
+			trialCalls = 0;
+			trialSuccesses = 0;
+		}
+		switch (state) {
+		case CLOSED:
+			return true;
+		case HALF_OPEN:
+			if (trialCalls < halfOpenCalls) {
+				trialCalls++;
+				return true;
+			}
+			return false;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Registers successful call
+	 *
+	 * @param duration
+	 *            - duration of call in millis
+	 */
+	public synchronized void onSuccess(long duration) {
+		record(duration > slowCallDuration);
+	}
+
+	/**
+	 * Registers failed call
+	 */
+	public synchronized void onFailure() {
+		record(true);
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	private void record(boolean failed) {
+		if (State.HALF_OPEN == state) {
+			if (failed) {
+				open();
+			} else if (++trialSuccesses >= halfOpenCalls) {
+				LOGGER.info("Circuit is closed");
+				state = State.CLOSED;
+			}
+			return;
+		}
+		if (State.OPEN == state) {
+			/* outcome of call permitted before circuit was opened */
+			return;
+		}
+		if (windowCalls == window.length) {
+			if (window[windowPosition]) {
+				windowFailures--;
+			}
+		} else {
+			windowCalls++;
+		}
+		window[windowPosition] = failed;
+		if (failed) {
+			windowFailures++;
+		}
+		windowPosition = (windowPosition + 1) % window.length;
+		if (windowCalls == window.length && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+			open();
+		}
+	}
+
+	private void open() {
+		LOGGER.warn("Server is unhealthy, circuit is open for " + openDuration + " ms");
+		state = State.OPEN;
+		openedAt = now();
+		windowPosition = 0;
+		windowCalls = 0;
+		windowFailures = 0;
+	}
+
+	private long now() {
+		return TimeUnit.NANOSECONDS.toMillis(ticker.read());
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.client.ClientProtocolException;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.google.common.base.Preconditions;
+
+/**
+ * HTTP client which executes requests only while circuit is not open. IO
+ * errors and 5xx responses are registered as failures. Requests are rejected
+ * with {@link CircuitBreakerOpenException} while circuit is open, so callers
+ * don't wait for timeouts of unhealthy server
+ */
+public class CircuitBreakerHttpClient extends CloseableHttpClient {
+
+	private final CloseableHttpClient delegate;
+
+	private final CircuitBreaker circuitBreaker;
+
+	public CircuitBreakerHttpClient(CloseableHttpClient delegate, CircuitBreaker circuitBreaker) {
+		this.delegate = Preconditions.checkNotNull(delegate, "HTTP client shouldn't be null");
+		this.circuitBreaker = Preconditions.checkNotNull(circuitBreaker, "Circuit breaker shouldn't be null");
+	}
+
+	@Override
+	protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+			throws IOException, ClientProtocolException {
+		if (!circuitBreaker.tryAcquire()) {
+			throw new CircuitBreakerOpenException("Circuit is open, request " + request.getRequestLine() + " is rejected");
+		}
+		long start = System.nanoTime();
+		CloseableHttpResponse response;
+		try {
+			response = delegate.execute(target, request, context);
+		} catch (IOException e) {
+			circuitBreaker.onFailure();
+			throw e;
+		} catch (RuntimeException e) {
+			circuitBreaker.onFailure();
+			throw e;
+		}
+		if (response.getStatusLine().getStatusCode() >= 500) {
+			circuitBreaker.onFailure();
+		} else {
+			circuitBreaker.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+		return response;
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	/* deprecated API is still abstract in CloseableHttpClient, so it's delegated as is */
+	@SuppressWarnings("deprecation")
+	@Override
+	public com.epam.reportportal.apache.http.params.HttpParams getParams() {
+		return delegate.getParams();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public com.epam.reportportal.apache.http.conn.ClientConnectionManager getConnectionManager() {
+		return delegate.getConnectionManager();
+	}
+
+	/**
+	 * Request is rejected since circuit is open
+	 */
+	public static class CircuitBreakerOpenException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		public CircuitBreakerOpenException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.HttpHeaders;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpRequestInterceptor;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.HttpEntityWrapper;
+import com.epam.reportportal.apache.http.message.BasicHeader;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.google.common.base.Preconditions;
+
+/**
+ * Compresses JSON bodies of POST/PUT requests and sets Content-Encoding
+ * header. Bodies smaller than threshold or of unknown length aren't
+ * compressed. {@link MultiPartEntity} with batch of logs is compressed as a
+ * whole regardless of its length: multipart parsers don't decode
+ * Content-Encoding of separate parts, so the encoding is set for the whole
+ * request. Should be executed before standard interceptors which set
+ * Content-Length and Content-Encoding headers. <br>
+ * Server (or proxy in front of it) should be able to decode compressed
+ * requests, so compression is disabled by default
+ */
+public class CompressionInterceptor implements HttpRequestInterceptor {
+
+	/**
+	 * Supported content encodings
+	 */
+	public enum Encoding {
+		GZIP("gzip") {
+			@Override
+			Deflater deflater(int level) {
+				return new Deflater(level, true);
+			}
+
+			@Override
+			DeflaterOutputStream compress(OutputStream out, final Deflater deflater) throws IOException {
+				return new GZIPOutputStream(out) {
+					{
+						/* replaces default deflater, so the caller is able to end it */
+						def.end();
+						def = deflater;
+					}
+				};
+			}
+		},
+		DEFLATE("deflate") {
+			@Override
+			Deflater deflater(int level) {
+				return new Deflater(level);
+			}
+
+			@Override
+			DeflaterOutputStream compress(OutputStream out, Deflater deflater) {
+				return new DeflaterOutputStream(out, deflater);
+			}
+		};
+
+		private final String name;
+
+		Encoding(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		abstract Deflater deflater(int level);
+
+		/**
+		 * Wraps stream with compressing one. Deflater isn't ended by the
+		 * stream and should be ended by the caller
+		 */
+		abstract DeflaterOutputStream compress(OutputStream out, Deflater deflater) throws IOException;
+
+		/**
+		 * Finds encoding by its name ignoring case
+		 *
+		 * @param name
+		 *            - name of encoding
+		 * @return encoding or null if encoding isn't supported
+		 */
+		public static Encoding fromString(String name) {
+			for (Encoding encoding : values()) {
+				if (encoding.name.equalsIgnoreCase(name)) {
+					return encoding;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final Encoding encoding;
+
+	private final int level;
+
+	private final long minSize;
+
+	/**
+	 * @param encoding
+	 *            - content encoding
+	 * @param level
+	 *            - compression level from 1 (fastest) to 9 (best), or -1
+	 *            for default level
+	 * @param minSize
+	 *            - min size of body in bytes to be compressed
+	 */
+	public CompressionInterceptor(Encoding encoding, int level, long minSize) {
+		Preconditions.checkArgument(Deflater.DEFAULT_COMPRESSION == level || (level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION),
+				"Compression level should be from 1 to 9 or -1");
+		this.encoding = Preconditions.checkNotNull(encoding, "Encoding shouldn't be null");
+		this.level = level;
+		this.minSize = minSize;
+	}
+
+	@Override
+	public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+		if (!(request instanceof HttpEntityEnclosingRequest)) {
+			return;
+		}
+		HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) request;
+		HttpEntity entity = entityRequest.getEntity();
+		if (null == entity || null != entity.getContentEncoding() || request.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+			return;
+		}
+		String method = request.getRequestLine().getMethod();
+		if (!"POST".equals(method) && !"PUT".equals(method)) {
+			return;
+		}
+		if (entity instanceof MultiPartEntity
+				|| isJson(entity.getContentType() == null ? null : entity.getContentType().getValue()) && entity.getContentLength() >= minSize) {
+			entityRequest.setEntity(new CompressedEntity(entity));
+		}
+	}
+
+	/**
+	 * @param contentType
+	 *            - value of Content-Type header
+	 * @return whether content type is JSON
+	 */
+	static boolean isJson(String contentType) {
+		return null != contentType && ContentType.parse(contentType).getMimeType().equalsIgnoreCase(ContentType.APPLICATION_JSON.getMimeType());
+	}
+
+	/**
+	 * Compresses wrapped entity on writing
+	 */
+	private class CompressedEntity extends HttpEntityWrapper {
+
+		CompressedEntity(HttpEntity wrapped) {
+			super(wrapped);
+		}
+
+		@Override
+		public Header getContentEncoding() {
+			return new BasicHeader(HttpHeaders.CONTENT_ENCODING, encoding.getName());
+		}
+
+		@Override
+		public long getContentLength() {
+			return -1;
+		}
+
+		@Override
+		public boolean isChunked() {
+			return true;
+		}
+
+		@Override
+		public InputStream getContent() throws IOException {
+			throw new UnsupportedOperationException("Compressed entity does not implement #getContent()");
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			Deflater deflater = encoding.deflater(level);
+			try {
+				DeflaterOutputStream compressed = encoding.compress(out, deflater);
+				wrappedEntity.writeTo(compressed);
+				/* finishes compressed stream without closing the connection stream */
+				compressed.finish();
+			} finally {
+				deflater.end();
+			}
+			out.flush();
+		}
+	}
+}
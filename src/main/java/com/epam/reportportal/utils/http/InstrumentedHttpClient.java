@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.client.ClientProtocolException;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.entity.HttpEntityWrapper;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.utils.metrics.MetricsRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * HTTP client which collects metrics of requests: count of requests, server
+ * errors (IO errors and 5xx responses) and client errors (4xx responses),
+ * latency and size of request bodies before content encoding
+ */
+public class InstrumentedHttpClient extends CloseableHttpClient {
+
+	public static final String REQUESTS = "rp.http.requests";
+	public static final String ERRORS = "rp.http.errors";
+	public static final String CLIENT_ERRORS = "rp.http.client.errors";
+	public static final String LATENCY = "rp.http.latency";
+	public static final String BYTES_SENT = "rp.http.bytes.sent";
+
+	private final CloseableHttpClient delegate;
+
+	private final MetricsRegistry metrics;
+
+	public InstrumentedHttpClient(CloseableHttpClient delegate, MetricsRegistry metrics) {
+		this.delegate = Preconditions.checkNotNull(delegate, "HTTP client shouldn't be null");
+		this.metrics = Preconditions.checkNotNull(metrics, "Metrics registry shouldn't be null");
+	}
+
+	@Override
+	protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+			throws IOException, ClientProtocolException {
+		HttpEntityEnclosingRequest entityRequest = null;
+		HttpEntity entity = null;
+		if (request instanceof HttpEntityEnclosingRequest) {
+			entityRequest = (HttpEntityEnclosingRequest) request;
+			entity = entityRequest.getEntity();
+			/* entity is counted only once even if the same request is executed again */
+			if (null != entity && !(entity instanceof CountingEntity)) {
+				entityRequest.setEntity(new CountingEntity(entity));
+			}
+		}
+		metrics.increment(REQUESTS, 1);
+		long start = System.nanoTime();
+		try {
+			CloseableHttpResponse response = delegate.execute(target, request, context);
+			int status = response.getStatusLine().getStatusCode();
+			if (status >= 500) {
+				metrics.increment(ERRORS, 1);
+			} else if (status >= 400) {
+				metrics.increment(CLIENT_ERRORS, 1);
+			}
+			return response;
+		} catch (IOException e) {
+			metrics.increment(ERRORS, 1);
+			throw e;
+		} finally {
+			metrics.record(LATENCY, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			if (null != entityRequest) {
+				entityRequest.setEntity(entity);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	/* deprecated API is still abstract in CloseableHttpClient, so it's delegated as is */
+	@SuppressWarnings("deprecation")
+	@Override
+	public com.epam.reportportal.apache.http.params.HttpParams getParams() {
+		return delegate.getParams();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public com.epam.reportportal.apache.http.conn.ClientConnectionManager getConnectionManager() {
+		return delegate.getConnectionManager();
+	}
+
+	/**
+	 * Counts bytes of body each time it's written, including retries made by
+	 * the delegate
+	 */
+	private class CountingEntity extends HttpEntityWrapper {
+
+		CountingEntity(HttpEntity wrapped) {
+			super(wrapped);
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			CountingOutputStream counting = new CountingOutputStream(out);
+			try {
+				wrappedEntity.writeTo(counting);
+			} finally {
+				metrics.increment(BYTES_SENT, counting.getCount());
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+import com.epam.reportportal.apache.http.entity.AbstractHttpEntity;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+
+/**
+ * multipart/form-data entity which copies parts from their sources directly
+ * to the connection stream. Content of the parts isn't buffered, so entity
+ * is sent with chunked transfer encoding. Serialized parts are converted by
+ * {@link StreamingRestEndpoint} before sending, the entity itself stays
+ * untouched, so it may be sent again on retry
+ */
+public class MultiPartEntity extends AbstractHttpEntity {
+
+	private static final byte[] CRLF = "\r\n".getBytes(Charsets.US_ASCII);
+	private static final byte[] DASHES = "--".getBytes(Charsets.US_ASCII);
+
+	private final String boundary;
+
+	private final List<Part> parts;
+
+	public MultiPartEntity() {
+		this(UUID.randomUUID().toString());
+	}
+
+	private MultiPartEntity(String boundary) {
+		this.boundary = boundary;
+		this.parts = Lists.newArrayList();
+		setContentType("multipart/form-data; boundary=" + boundary);
+		setChunked(true);
+	}
+
+	/**
+	 * Adds part which is serialized by endpoint's serializer
+	 */
+	public MultiPartEntity addSerializedPart(String name, Object value) {
+		parts.add(new Part(name, value));
+		return this;
+	}
+
+	/**
+	 * Adds file part
+	 *
+	 * @param contentType
+	 *            - MIME type of the part
+	 * @param content
+	 *            - content of the part, it's copied to the connection on
+	 *            sending. Empty part is sent if content is <code>null</code>
+	 */
+	public MultiPartEntity addPart(String name, String filename, String contentType, ByteSource content) {
+		parts.add(new Part(name, filename, contentType, null == content ? ByteSource.empty() : content));
+		return this;
+	}
+
+	/**
+	 * Binds parts added by {@link #addSerializedPart(String, Object)} to the
+	 * serializer. Values are serialized each time entity is written, so
+	 * serialized stream is copied to the connection as is
+	 *
+	 * @param serializer
+	 *            - serializer of parts
+	 * @return copy of this entity with serialized parts
+	 */
+	public MultiPartEntity serialize(Serializer serializer) {
+		MultiPartEntity serialized = new MultiPartEntity(boundary);
+		for (Part part : parts) {
+			if (null == part.content) {
+				serialized.parts.add(new Part(part.name, null, serializer.getMimeType(), new SerializedContent(serializer, part.value)));
+			} else {
+				serialized.parts.add(part);
+			}
+		}
+		return serialized;
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		throw new UnsupportedOperationException("Multipart entity does not implement #getContent()");
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		byte[] delimiter = boundary.getBytes(Charsets.US_ASCII);
+		for (Part part : parts) {
+			Preconditions.checkState(null != part.content, "Part %s isn't serialized", part.name);
+			out.write(DASHES);
+			out.write(delimiter);
+			out.write(CRLF);
+			out.write(part.headers());
+			part.content.copyTo(out);
+			out.write(CRLF);
+		}
+		out.write(DASHES);
+		out.write(delimiter);
+		out.write(DASHES);
+		out.write(CRLF);
+		out.flush();
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+
+	private static final class Part {
+		private final String name;
+		private final String filename;
+		private final Object value;
+		private final String contentType;
+		private final ByteSource content;
+
+		Part(String name, String filename, String contentType, ByteSource content) {
+			this(name, filename, null, contentType, content);
+		}
+
+		Part(String name, Object value) {
+			this(name, null, value, null, null);
+		}
+
+		private Part(String name, String filename, Object value, String contentType, ByteSource content) {
+			this.name = name;
+			this.filename = filename;
+			this.value = value;
+			this.contentType = contentType;
+			this.content = content;
+		}
+
+		byte[] headers() {
+			StringBuilder headers = new StringBuilder("Content-Disposition: form-data; name=\"").append(escape(name)).append('"');
+			if (null != filename) {
+				headers.append("; filename=\"").append(escape(filename)).append('"');
+			}
+			headers.append("\r\nContent-Type: ").append(contentType);
+			headers.append("\r\n\r\n");
+			return headers.toString().getBytes(Charsets.UTF_8);
+		}
+
+		/**
+		 * Percent-encodes characters which would break quoted header value,
+		 * as browsers do for multipart/form-data
+		 */
+		private static String escape(String value) {
+			return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+		}
+	}
+
+	/**
+	 * Content of serialized part, {@link Serializer} provides new stream on
+	 * each call
+	 */
+	private static final class SerializedContent extends ByteSource {
+		private final Serializer serializer;
+		private final Object value;
+
+		SerializedContent(Serializer serializer, Object value) {
+			this.serializer = serializer;
+			this.value = value;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			return serializer.serialize(value);
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProxySelector;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLContext;
+
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpRequestInterceptor;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.client.ClientProtocolException;
+import com.epam.reportportal.apache.http.client.config.RequestConfig;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.config.Registry;
+import com.epam.reportportal.apache.http.config.RegistryBuilder;
+import com.epam.reportportal.apache.http.conn.ConnectionKeepAliveStrategy;
+import com.epam.reportportal.apache.http.conn.socket.ConnectionSocketFactory;
+import com.epam.reportportal.apache.http.conn.socket.PlainConnectionSocketFactory;
+import com.epam.reportportal.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import com.epam.reportportal.apache.http.conn.ssl.SSLContexts;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import com.epam.reportportal.apache.http.impl.client.HttpClientBuilder;
+import com.epam.reportportal.apache.http.impl.client.HttpClients;
+import com.epam.reportportal.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import com.epam.reportportal.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.restclient.endpoint.HttpClientFactory;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Creates HTTP client with the pool of persistent connections. Connections
+ * are kept alive for the time defined by server or keep-alive time if server
+ * doesn't define it. Background thread closes expired connections and
+ * connections which are idle for too long, it's stopped when the client is
+ * closed. Proxy is taken from system properties
+ */
+public class PooledHttpClientFactory implements HttpClientFactory {
+
+	private final List<HttpRequestInterceptor> interceptors;
+
+	private final SSLContext sslContext;
+
+	private final int maxConnections;
+
+	private final int maxConnectionsPerRoute;
+
+	private final long keepAlive;
+
+	private final int connectTimeout;
+
+	private final int socketTimeout;
+
+	private final long idleTimeout;
+
+	private final RetryStrategy retryStrategy;
+
+	/**
+	 * @param interceptors
+	 *            - request interceptors, e.g. authorization or compression.
+	 *            They are executed in the given order before standard ones,
+	 *            so they are able to replace request entity
+	 * @param sslContext
+	 *            - SSL context for HTTPS connections. Default one is used if
+	 *            null. Host names aren't verified for custom context as
+	 *            {@link com.epam.reportportal.restclient.endpoint.SslClientFactory}
+	 *            does
+	 * @param maxConnections
+	 *            - max count of connections in the pool
+	 * @param maxConnectionsPerRoute
+	 *            - max count of connections to the same host
+	 * @param keepAlive
+	 *            - how long in millis connection is kept alive if server
+	 *            doesn't define it
+	 * @param connectTimeout
+	 *            - timeout in millis to establish connection and to lease it
+	 *            from the pool. Zero means no timeout
+	 * @param socketTimeout
+	 *            - timeout in millis waiting for data. Zero means no timeout
+	 * @param idleTimeout
+	 *            - connections which are idle longer than this time in millis
+	 *            are closed. Non-positive value disables eviction
+	 */
+	public PooledHttpClientFactory(List<HttpRequestInterceptor> interceptors, @Nullable SSLContext sslContext, int maxConnections,
+			int maxConnectionsPerRoute, long keepAlive, int connectTimeout, int socketTimeout, long idleTimeout) {
+		this(interceptors, sslContext, maxConnections, maxConnectionsPerRoute, keepAlive, connectTimeout, socketTimeout, idleTimeout, null);
+	}
+
+	/**
+	 * @param retryStrategy
+	 *            - retries requests failed because of transient problems.
+	 *            Default HttpClient retry handler is used if null
+	 * @see #PooledHttpClientFactory(List, SSLContext, int, int, long, int,
+	 *      int, long)
+	 */
+	public PooledHttpClientFactory(List<HttpRequestInterceptor> interceptors, @Nullable SSLContext sslContext, int maxConnections,
+			int maxConnectionsPerRoute, long keepAlive, int connectTimeout, int socketTimeout, long idleTimeout,
+			@Nullable RetryStrategy retryStrategy) {
+		Preconditions.checkArgument(maxConnections > 0, "Max count of connections should be positive");
+		Preconditions.checkArgument(maxConnectionsPerRoute > 0, "Max count of connections per route should be positive");
+		this.interceptors = Preconditions.checkNotNull(interceptors, "Interceptors shouldn't be null");
+		this.sslContext = sslContext;
+		this.maxConnections = maxConnections;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		this.keepAlive = keepAlive;
+		this.connectTimeout = connectTimeout;
+		this.socketTimeout = socketTimeout;
+		this.idleTimeout = idleTimeout;
+		this.retryStrategy = retryStrategy;
+	}
+
+	@Override
+	public CloseableHttpClient createHttpClient() {
+		SSLConnectionSocketFactory sslSocketFactory = null == sslContext ? SSLConnectionSocketFactory.getSocketFactory()
+				: new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
+		Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory> create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory()).register("https", sslSocketFactory).build();
+
+		final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+		RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeout).setConnectionRequestTimeout(connectTimeout)
+				.setSocketTimeout(socketTimeout).build();
+
+		HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(new KeepAliveStrategy(keepAlive))
+				.setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()));
+		if (null != retryStrategy) {
+			builder.setRetryHandler(retryStrategy).setServiceUnavailableRetryStrategy(retryStrategy);
+		}
+		/* each interceptor is added to the head, so the list is reversed to keep the order */
+		for (HttpRequestInterceptor interceptor : Lists.reverse(interceptors)) {
+			builder.addInterceptorFirst(interceptor);
+		}
+
+		if (idleTimeout <= 0) {
+			return builder.build();
+		}
+		ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("rp-connection-evictor-%d").setDaemon(true).build());
+		evictor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				connectionManager.closeExpiredConnections();
+				connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+			}
+		}, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+		return new EvictingHttpClient(builder.build(), evictor);
+	}
+
+	/**
+	 * Creates SSL context which trusts certificates from the JKS keystore.
+	 * Context is built by HttpClient's {@link SSLContexts} as
+	 * {@link com.epam.reportportal.restclient.endpoint.SslClientFactory} does,
+	 * keystore is loaded from the file or classpath
+	 *
+	 * @param keyStore
+	 *            - path to JKS keystore file or classpath resource
+	 * @param keyStorePassword
+	 *            - keystore password
+	 * @throws IOException
+	 *             if keystore can't be loaded
+	 * @throws GeneralSecurityException
+	 *             if keystore is incorrect
+	 */
+	public static SSLContext createSslContext(String keyStore, String keyStorePassword) throws IOException, GeneralSecurityException {
+		KeyStore trustStore = KeyStore.getInstance("JKS");
+		File file = new File(keyStore);
+		InputStream input = file.isFile() ? new FileInputStream(file) : Resources.getResource(keyStore).openStream();
+		try {
+			trustStore.load(input, keyStorePassword.toCharArray());
+		} finally {
+			input.close();
+		}
+		return SSLContexts.custom().loadTrustMaterial(trustStore).build();
+	}
+
+	/**
+	 * Uses keep-alive time from the response or default one
+	 */
+	private static class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+		private final long keepAlive;
+
+		KeepAliveStrategy(long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return duration > 0 ? duration : keepAlive;
+		}
+	}
+
+	/**
+	 * Stops eviction of idle connections when the client is closed
+	 */
+	private static class EvictingHttpClient extends CloseableHttpClient {
+
+		private final CloseableHttpClient delegate;
+
+		private final ScheduledExecutorService evictor;
+
+		EvictingHttpClient(CloseableHttpClient delegate, ScheduledExecutorService evictor) {
+			this.delegate = delegate;
+			this.evictor = evictor;
+		}
+
+		@Override
+		protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+				throws IOException, ClientProtocolException {
+			return delegate.execute(target, request, context);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				delegate.close();
+			} finally {
+				evictor.shutdownNow();
+			}
+		}
+
+		/* deprecated API is still abstract in CloseableHttpClient, so it's delegated as is */
+		@SuppressWarnings("deprecation")
+		@Override
+		public com.epam.reportportal.apache.http.params.HttpParams getParams() {
+			return delegate.getParams();
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public com.epam.reportportal.apache.http.conn.ClientConnectionManager getConnectionManager() {
+			return delegate.getConnectionManager();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounds count of retries relatively to count of requests, so retries can't
+ * multiply load of server which is already overloaded. Each request deposits
+ * part of token, each retry withdraws one token
+ */
+public class RetryBudget {
+
+	private final double ratio;
+
+	private final double maxTokens;
+
+	private double tokens;
+
+	/**
+	 * @param ratio
+	 *            - max share of retries among requests, e.g. 0.1 allows one
+	 *            retry per ten requests
+	 * @param maxTokens
+	 *            - max count of retries which may be accumulated. Budget is
+	 *            full initially
+	 */
+	public RetryBudget(double ratio, int maxTokens) {
+		Preconditions.checkArgument(ratio >= 0, "Ratio should not be negative");
+		Preconditions.checkArgument(maxTokens >= 0, "Max count of tokens should not be negative");
+		this.ratio = ratio;
+		this.maxTokens = maxTokens;
+		this.tokens = maxTokens;
+	}
+
+	/**
+	 * Registers request
+	 */
+	public synchronized void deposit() {
+		tokens = Math.min(maxTokens, tokens + ratio);
+	}
+
+	/**
+	 * Withdraws token for retry
+	 *
+	 * @return false if budget is exhausted and request shouldn't be retried
+	 */
+	public synchronized boolean tryWithdraw() {
+		if (tokens < 1) {
+			return false;
+		}
+		tokens--;
+		return true;
+	}
+}
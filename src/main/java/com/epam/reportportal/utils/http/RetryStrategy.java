@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.Random;
+import java.util.Set;
+
+import javax.net.ssl.SSLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.epam.reportportal.apache.http.Header;
+import com.epam.reportportal.apache.http.HttpHeaders;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.HttpStatus;
+import com.epam.reportportal.apache.http.client.HttpRequestRetryHandler;
+import com.epam.reportportal.apache.http.client.ServiceUnavailableRetryStrategy;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.client.utils.DateUtils;
+import com.epam.reportportal.apache.http.conn.ConnectTimeoutException;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.utils.metrics.MetricsRegistry;
+import com.epam.reportportal.utils.metrics.NoopMetricsRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Retries requests failed because of transient network or server problems.
+ * <br>
+ * Idempotent requests (GET, PUT, DELETE) are retried on IO errors and on
+ * 500, 502, 503, 504 and 429 responses. Non-idempotent requests (POST) are
+ * retried only if they weren't sent to the server or server explicitly asks
+ * to retry them later: 503 and 429 responses with Retry-After header. <br>
+ * Responses are retried with exponential backoff and full jitter, Retry-After
+ * header is honored. IO errors are mostly caused by stale pooled connections,
+ * so such requests are retried at once with new connection instead of
+ * holding the caller thread. Count of retries is bounded by
+ * {@link RetryBudget}
+ */
+public class RetryStrategy implements HttpRequestRetryHandler, ServiceUnavailableRetryStrategy {
+
+	public static final String RETRIES = "rp.http.retries";
+	public static final String RETRIES_REJECTED = "rp.http.retries.rejected";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RetryStrategy.class);
+
+	private static final Set<String> IDEMPOTENT_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+	/** Server didn't process the request */
+	private static final Set<Integer> UNPROCESSED_STATUSES = ImmutableSet.of(HttpStatus.SC_SERVICE_UNAVAILABLE, 429);
+
+	/** Request might be processed by the server */
+	private static final Set<Integer> FAILED_STATUSES = ImmutableSet.of(HttpStatus.SC_INTERNAL_SERVER_ERROR, HttpStatus.SC_BAD_GATEWAY,
+			HttpStatus.SC_GATEWAY_TIMEOUT);
+
+	private final int maxRetries;
+
+	private final long delay;
+
+	private final long maxDelay;
+
+	private final RetryBudget budget;
+
+	private final Random random;
+
+	private final MetricsRegistry metrics;
+
+	/** Interval before retry of response, calculated for the current thread */
+	private final ThreadLocal<Long> retryInterval;
+
+	/**
+	 * @param maxRetries
+	 *            - max count of retries of one request
+	 * @param delay
+	 *            - initial delay in millis before retry. Doubled with each
+	 *            retry
+	 * @param maxDelay
+	 *            - max delay in millis before retry, including Retry-After
+	 *            delay
+	 * @param budget
+	 *            - bounds count of retries of all requests
+	 */
+	public RetryStrategy(int maxRetries, long delay, long maxDelay, RetryBudget budget) {
+		this(maxRetries, delay, maxDelay, budget, NoopMetricsRegistry.INSTANCE);
+	}
+
+	/**
+	 * @param metrics
+	 *            - registry of count of retries and retries rejected by
+	 *            budget
+	 * @see #RetryStrategy(int, long, long, RetryBudget)
+	 */
+	public RetryStrategy(int maxRetries, long delay, long maxDelay, RetryBudget budget, MetricsRegistry metrics) {
+		Preconditions.checkArgument(maxRetries >= 0, "Max count of retries should not be negative");
+		Preconditions.checkArgument(delay > 0, "Delay should be positive");
+		Preconditions.checkArgument(maxDelay >= delay, "Max delay should not be less than delay");
+		this.maxRetries = maxRetries;
+		this.delay = delay;
+		this.maxDelay = maxDelay;
+		this.budget = Preconditions.checkNotNull(budget, "Retry budget shouldn't be null");
+		this.random = new Random();
+		this.metrics = Preconditions.checkNotNull(metrics, "Metrics registry shouldn't be null");
+		this.retryInterval = new ThreadLocal<Long>() {
+			@Override
+			protected Long initialValue() {
+				return 0L;
+			}
+		};
+	}
+
+	/**
+	 * Decides whether request failed with IO error should be retried. Request
+	 * is retried without delay
+	 */
+	@Override
+	public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+		if (executionCount > maxRetries || !isTransient(exception)) {
+			return false;
+		}
+		HttpClientContext clientContext = HttpClientContext.adapt(context);
+		if (clientContext.isRequestSent() && !isIdempotent(clientContext.getRequest())) {
+			return false;
+		}
+		if (!budget.tryWithdraw()) {
+			LOGGER.debug("Retry budget is exhausted");
+			metrics.increment(RETRIES_REJECTED, 1);
+			return false;
+		}
+		metrics.increment(RETRIES, 1);
+		LOGGER.debug("Request failed, retry #" + executionCount, exception);
+		return true;
+	}
+
+	/**
+	 * Decides whether request should be retried according to response status.
+	 * Interval before retry is available from {@link #getRetryInterval()} in
+	 * the same thread
+	 */
+	@Override
+	public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+		if (1 == executionCount) {
+			budget.deposit();
+		}
+		int status = response.getStatusLine().getStatusCode();
+		boolean idempotent = isIdempotent(HttpClientContext.adapt(context).getRequest());
+		boolean retriable = (UNPROCESSED_STATUSES.contains(status) && (idempotent || response.containsHeader(HttpHeaders.RETRY_AFTER)))
+				|| (FAILED_STATUSES.contains(status) && idempotent);
+		if (!retriable || executionCount > maxRetries) {
+			return false;
+		}
+		if (!budget.tryWithdraw()) {
+			LOGGER.debug("Retry budget is exhausted");
+			metrics.increment(RETRIES_REJECTED, 1);
+			return false;
+		}
+		metrics.increment(RETRIES, 1);
+		long interval = Math.min(maxDelay, Math.max(backoff(executionCount), retryAfter(response)));
+		LOGGER.debug("Server responded with " + status + ", retry #" + executionCount + " in " + interval + " ms");
+		retryInterval.set(interval);
+		return true;
+	}
+
+	@Override
+	public long getRetryInterval() {
+		return retryInterval.get();
+	}
+
+	/**
+	 * Random delay between zero and exponentially growing limit
+	 *
+	 * @param retry
+	 *            - number of retry starting from 1
+	 */
+	long backoff(int retry) {
+		long limit = delay << Math.min(retry - 1, 30);
+		if (limit <= 0 || limit > maxDelay) {
+			limit = maxDelay;
+		}
+		return (long) (random.nextDouble() * limit);
+	}
+
+	/**
+	 * Parses Retry-After header: delay in seconds or date
+	 *
+	 * @return delay in millis or zero if there is no valid header
+	 */
+	static long retryAfter(HttpResponse response) {
+		Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+		if (null == header) {
+			return 0;
+		}
+		String value = header.getValue().trim();
+		try {
+			return Math.max(0, Long.parseLong(value) * 1000);
+		} catch (NumberFormatException e) {
+			Date date = DateUtils.parseDate(value);
+			return null == date ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+		}
+	}
+
+	private static boolean isTransient(IOException exception) {
+		if (exception instanceof ConnectTimeoutException) {
+			return true;
+		}
+		/* interruptions, unknown hosts and SSL handshake failures won't disappear on retry */
+		return !(exception instanceof InterruptedIOException || exception instanceof UnknownHostException
+				|| exception instanceof SSLException);
+	}
+
+	private static boolean isIdempotent(HttpRequest request) {
+		return null != request && IDEMPOTENT_METHODS.contains(request.getRequestLine().getMethod().toUpperCase());
+	}
+}
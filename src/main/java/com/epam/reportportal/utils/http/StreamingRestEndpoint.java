@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.client.HttpClient;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.util.EntityUtils;
+import com.epam.reportportal.restclient.endpoint.ErrorHandler;
+import com.epam.reportportal.restclient.endpoint.HttpClientRestEndpoint;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link HttpClientRestEndpoint} which is able to send
+ * {@link MultiPartEntity}, so attachments are streamed to the connection
+ * instead of being copied to the heap
+ */
+public class StreamingRestEndpoint extends HttpClientRestEndpoint {
+
+	private final HttpClient httpClient;
+
+	private final List<Serializer> serializers;
+
+	private final ErrorHandler<HttpResponse> errorHandler;
+
+	private final String baseUrl;
+
+	public StreamingRestEndpoint(HttpClient httpClient, List<Serializer> serializers, ErrorHandler<HttpResponse> errorHandler,
+			String baseUrl) {
+		super(httpClient, serializers, errorHandler, baseUrl);
+		Preconditions.checkArgument(!serializers.isEmpty(), "At least one serializer should be provided");
+		this.httpClient = httpClient;
+		this.serializers = serializers;
+		this.errorHandler = errorHandler;
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Sends multipart request. Serialized parts are serialized by default
+	 * (first) serializer
+	 *
+	 * @param resource
+	 *            - resource relative to base URL
+	 * @param entity
+	 *            - request body
+	 * @param clazz
+	 *            - type of response
+	 * @return deserialized response
+	 * @throws RestEndpointIOException
+	 */
+	public <RS> RS postMultiPart(String resource, MultiPartEntity entity, Class<RS> clazz) throws RestEndpointIOException {
+		HttpPost post = new HttpPost(baseUrl + resource);
+		post.setEntity(entity.serialize(serializers.get(0)));
+		HttpResponse response = null;
+		try {
+			response = httpClient.execute(post);
+			if (errorHandler.hasError(response)) {
+				errorHandler.handle(response);
+			}
+			return deserialize(response, clazz);
+		} catch (RestEndpointIOException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new RestEndpointIOException("Unable to execute HTTP request", e);
+		} finally {
+			if (null != response) {
+				EntityUtils.consumeQuietly(response.getEntity());
+			}
+		}
+	}
+
+	private <RS> RS deserialize(HttpResponse response, Class<RS> clazz) throws IOException {
+		HttpEntity entity = response.getEntity();
+		if (null == entity) {
+			return null;
+		}
+		String mimeType = ContentType.getOrDefault(entity).getMimeType();
+		for (Serializer serializer : serializers) {
+			if (serializer.canRead(mimeType)) {
+				return serializer.deserialize(EntityUtils.toByteArray(entity), clazz);
+			}
+		}
+		throw new RestEndpointIOException("Unsupported media type of the response: " + mimeType);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.metrics;
+
+/**
+ * Registry of client metrics. Implementations should be thread-safe and
+ * cheap to call from reporting threads. Names of client metrics have common
+ * <code>rp.</code> prefix followed by the area: <code>rp.launch</code>,
+ * <code>rp.item</code>, <code>rp.logs</code> or <code>rp.http</code>
+ */
+public interface MetricsRegistry {
+
+	/**
+	 * Increments counter
+	 *
+	 * @param name
+	 *            - name of counter
+	 * @param count
+	 *            - increment
+	 */
+	void increment(String name, long count);
+
+	/**
+	 * Records value of distribution, e.g. latency or size
+	 *
+	 * @param name
+	 *            - name of distribution
+	 * @param value
+	 *            - recorded value
+	 */
+	void record(String name, long value);
+
+	/**
+	 * Registers gauge which value is read on reporting
+	 *
+	 * @param name
+	 *            - name of gauge
+	 * @param gauge
+	 *            - source of value
+	 */
+	void register(String name, Gauge gauge);
+
+	/**
+	 * Source of current value, e.g. queue depth
+	 */
+	interface Gauge {
+		long getValue();
+	}
+}
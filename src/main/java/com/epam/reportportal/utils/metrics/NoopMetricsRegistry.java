@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.metrics;
+
+/**
+ * Registry which ignores all metrics. Used if metrics are disabled
+ */
+public final class NoopMetricsRegistry implements MetricsRegistry {
+
+	public static final NoopMetricsRegistry INSTANCE = new NoopMetricsRegistry();
+
+	private NoopMetricsRegistry() {
+		// singleton
+	}
+
+	@Override
+	public void increment(String name, long count) {
+		// metrics are disabled
+	}
+
+	@Override
+	public void record(String name, long value) {
+		// metrics are disabled
+	}
+
+	@Override
+	public void register(String name, Gauge gauge) {
+		// metrics are disabled
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.metrics;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * In-process registry. Distributions keep count, sum, min, max and the last
+ * recorded values to estimate percentiles
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+	/** Count of the last values percentiles are calculated from */
+	private static final int RESERVOIR_SIZE = 1024;
+
+	private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+	private final ConcurrentMap<String, Distribution> distributions = new ConcurrentHashMap<String, Distribution>();
+
+	private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+
+	@Override
+	public void increment(String name, long count) {
+		AtomicLong counter = counters.get(name);
+		if (null == counter) {
+			AtomicLong created = new AtomicLong();
+			counter = counters.putIfAbsent(name, created);
+			if (null == counter) {
+				counter = created;
+			}
+		}
+		counter.addAndGet(count);
+	}
+
+	@Override
+	public void record(String name, long value) {
+		Distribution distribution = distributions.get(name);
+		if (null == distribution) {
+			Distribution created = new Distribution();
+			distribution = distributions.putIfAbsent(name, created);
+			if (null == distribution) {
+				distribution = created;
+			}
+		}
+		distribution.record(value);
+	}
+
+	@Override
+	public void register(String name, Gauge gauge) {
+		gauges.put(name, gauge);
+	}
+
+	/**
+	 * @return value of counter or zero if it doesn't exist
+	 */
+	public long getCounter(String name) {
+		AtomicLong counter = counters.get(name);
+		return null == counter ? 0 : counter.get();
+	}
+
+	/**
+	 * @return snapshot of distribution or null if it doesn't exist
+	 */
+	public Snapshot getDistribution(String name) {
+		Distribution distribution = distributions.get(name);
+		return null == distribution ? null : distribution.snapshot();
+	}
+
+	/**
+	 * @return current value of gauge or null if it doesn't exist
+	 */
+	public Long getGauge(String name) {
+		Gauge gauge = gauges.get(name);
+		return null == gauge ? null : gauge.getValue();
+	}
+
+	public Set<String> getCounterNames() {
+		return ImmutableSortedSet.copyOf(counters.keySet());
+	}
+
+	public Set<String> getDistributionNames() {
+		return ImmutableSortedSet.copyOf(distributions.keySet());
+	}
+
+	public Set<String> getGaugeNames() {
+		return ImmutableSortedSet.copyOf(gauges.keySet());
+	}
+
+	/**
+	 * Recorded values of distribution
+	 */
+	private static class Distribution {
+		private final long[] reservoir = new long[RESERVOIR_SIZE];
+		private long count;
+		private long sum;
+		private long min = Long.MAX_VALUE;
+		private long max = Long.MIN_VALUE;
+
+		synchronized void record(long value) {
+			reservoir[(int) (count % RESERVOIR_SIZE)] = value;
+			count++;
+			sum += value;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+
+		synchronized Snapshot snapshot() {
+			long[] values = Arrays.copyOf(reservoir, (int) Math.min(count, RESERVOIR_SIZE));
+			Arrays.sort(values);
+			return new Snapshot(count, sum, min, max, percentile(values, 0.5), percentile(values, 0.95), percentile(values, 0.99));
+		}
+
+		private static long percentile(long[] sorted, double quantile) {
+			if (0 == sorted.length) {
+				return 0;
+			}
+			return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+		}
+	}
+
+	/**
+	 * Statistics of distribution. Percentiles are calculated from the last
+	 * recorded values
+	 */
+	public static class Snapshot {
+		private final long count;
+		private final long sum;
+		private final long min;
+		private final long max;
+		private final long p50;
+		private final long p95;
+		private final long p99;
+
+		Snapshot(long count, long sum, long min, long max, long p50, long p95, long p99) {
+			this.count = count;
+			this.sum = sum;
+			this.min = min;
+			this.max = max;
+			this.p50 = p50;
+			this.p95 = p95;
+			this.p99 = p99;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getSum() {
+			return sum;
+		}
+
+		public long getMin() {
+			return min;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP95() {
+			return p95;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count + ", min=" + min + ", p50=" + p50 + ", p95=" + p95 + ", p99=" + p99 + ", max=" + max + ", sum=" + sum;
+		}
+	}
+}
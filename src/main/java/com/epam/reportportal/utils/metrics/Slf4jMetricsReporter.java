@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.metrics;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Periodically writes all metrics of {@link SimpleMetricsRegistry} to the
+ * log
+ */
+public class Slf4jMetricsReporter implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Slf4jMetricsReporter.class);
+
+	private final SimpleMetricsRegistry registry;
+
+	private final Logger logger;
+
+	private final ScheduledExecutorService reporter;
+
+	public Slf4jMetricsReporter(SimpleMetricsRegistry registry) {
+		this(registry, LOGGER);
+	}
+
+	/**
+	 * @param registry
+	 *            - registry to be reported
+	 * @param logger
+	 *            - logger metrics are written to
+	 */
+	public Slf4jMetricsReporter(SimpleMetricsRegistry registry, Logger logger) {
+		this.registry = Preconditions.checkNotNull(registry, "Registry shouldn't be null");
+		this.logger = Preconditions.checkNotNull(logger, "Logger shouldn't be null");
+		this.reporter = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("rp-metrics-reporter-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Starts periodical reporting
+	 *
+	 * @param interval
+	 *            - interval between reports
+	 * @param unit
+	 *            - time unit of interval
+	 */
+	public void start(long interval, TimeUnit unit) {
+		reporter.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					report();
+				} catch (RuntimeException e) {
+					LOGGER.error("Unable to report metrics", e);
+				}
+			}
+		}, interval, interval, unit);
+	}
+
+	/**
+	 * Writes current values of all metrics
+	 */
+	public void report() {
+		if (!logger.isInfoEnabled()) {
+			return;
+		}
+		for (String name : registry.getCounterNames()) {
+			logger.info("counter " + name + ": " + registry.getCounter(name));
+		}
+		for (String name : registry.getGaugeNames()) {
+			logger.info("gauge " + name + ": " + registry.getGauge(name));
+		}
+		for (String name : registry.getDistributionNames()) {
+			logger.info("distribution " + name + ": " + registry.getDistribution(name));
+		}
+	}
+
+	/**
+	 * Stops reporting and writes final values
+	 */
+	@Override
+	public void close() {
+		reporter.shutdownNow();
+		report();
+	}
+}
@@ -29,10 +29,55 @@ public enum ListenerProperty {
 	BASE_URL("rp.endpoint", false),
 	PROJECT_NAME("rp.project", false),
 	BATCH_SIZE_LOGS("rp.batch.size.logs", false),
+	BATCH_PAYLOAD_LIMIT("rp.batch.payload.limit", false),
+	BATCH_LINGER("rp.batch.linger", false),
+	BATCH_ASYNC("rp.batch.async", false),
+	BATCH_ASYNC_THREADS("rp.batch.async.threads", false),
+	BATCH_QUEUE_SIZE("rp.batch.queue.size", false),
+	BATCH_IN_FLIGHT("rp.batch.in.flight", false),
+	BATCH_ADAPTIVE("rp.batch.adaptive", false),
+	BATCH_SIZE_LOGS_MAX("rp.batch.size.logs.max", false),
+	BATCH_LINGER_MAX("rp.batch.linger.max", false),
+	BATCH_TARGET_LATENCY("rp.batch.target.latency", false),
+	BATCH_MEMORY_ENTRIES("rp.batch.memory.entries", false),
+	BATCH_MEMORY_BYTES("rp.batch.memory.bytes", false),
+	BATCH_OVERFLOW("rp.batch.overflow", false),
+	ASYNC_THREADS("rp.async.threads", false),
+	SPOOL_DIRECTORY("rp.spool.dir", false),
+	// http connection pool
+	HTTP_MAX_CONNECTIONS("rp.http.max.connections", false),
+	HTTP_MAX_CONNECTIONS_PER_ROUTE("rp.http.max.connections.per.route", false),
+	HTTP_KEEP_ALIVE("rp.http.keep.alive", false),
+	HTTP_CONNECT_TIMEOUT("rp.http.connect.timeout", false),
+	HTTP_SOCKET_TIMEOUT("rp.http.socket.timeout", false),
+	HTTP_IDLE_TIMEOUT("rp.http.idle.timeout", false),
+	HTTP_COMPRESSION("rp.http.compression", false),
+	HTTP_COMPRESSION_LEVEL("rp.http.compression.level", false),
+	HTTP_COMPRESSION_MIN_SIZE("rp.http.compression.min.size", false),
+	RETRY_ATTEMPTS("rp.retry.attempts", false),
+	RETRY_DELAY("rp.retry.delay", false),
+	RETRY_MAX_DELAY("rp.retry.max.delay", false),
+	RETRY_BUDGET("rp.retry.budget", false),
+	CIRCUIT_BREAKER("rp.circuit.breaker", false),
+	CIRCUIT_WINDOW("rp.circuit.window", false),
+	CIRCUIT_FAILURE_RATE("rp.circuit.failure.rate", false),
+	CIRCUIT_SLOW_CALL("rp.circuit.slow.call", false),
+	CIRCUIT_OPEN_TIME("rp.circuit.open.time", false),
+	CIRCUIT_HALF_OPEN_CALLS("rp.circuit.half.open.calls", false),
+	METRICS("rp.metrics", false),
+	METRICS_REPORT_INTERVAL("rp.metrics.report.interval", false),
 	LAUNCH_NAME("rp.launch", false),
 	LAUNCH_TAGS("rp.tags", false),
 	DESCRIPTION("rp.description", false),
 	IS_CONVERT_IMAGE("rp.convertimage", false),
+	CONVERT_IMAGE_ASYNC("rp.convertimage.async", false),
+	CONVERT_IMAGE_THREADS("rp.convertimage.threads", false),
+	CONVERT_IMAGE_MAX_WIDTH("rp.convertimage.max.width", false),
+	CONVERT_IMAGE_MAX_HEIGHT("rp.convertimage.max.height", false),
+	CONVERT_IMAGE_GRAYSCALE("rp.convertimage.grayscale", false),
+	CONVERT_IMAGE_FORMAT("rp.convertimage.format", false),
+	CONVERT_IMAGE_QUALITY("rp.convertimage.quality", false),
+	CONVERT_IMAGE_CACHE_SIZE("rp.convertimage.cache.size", false),
 	KEYSTORE_RESOURCE("rp.keystore.resource", false),
 	KEYSTORE_PASSWORD("rp.keystore.password", false),
 	MODE("rp.mode", false),
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.util.Queue;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Flush policy which tunes max queue size and linger time at runtime
+ * according to feedback from batch executions (AIMD). While batches are
+ * full and executed faster than target latency, size is increased and linger
+ * time is decreased by constant steps. Once execution fails or takes longer
+ * than target latency, size is halved and linger time is doubled, so that
+ * loaded server receives fewer and smaller requests. Size and linger time are
+ * always kept within provided bounds
+ * <br>
+ * Weight limit of the batch (e.g. payload size in bytes) is tuned the same
+ * way as size, since a few heavy batches may load the server as much as
+ * many light ones. Policy itself checks only size of the queue, weight limit
+ * is applied by {@link WeightBasedFlushPolicy} which reads it with
+ * {@link #getWeightLimit()}
+ *
+ * @param <E>
+ */
+public class AdaptiveFlushPolicy<E> implements FlushableQueue.FlushPolicy<E> {
+
+	/** Count of additive steps between lower and upper bounds */
+	private static final int STEPS = 16;
+
+	private final int minSize;
+
+	private final int maxSize;
+
+	private final long minLingerTime;
+
+	private final long maxLingerTime;
+
+	private final long targetLatency;
+
+	private final long minWeight;
+
+	private final long maxWeight;
+
+	private final int sizeStep;
+
+	private final long lingerStep;
+
+	private final long weightStep;
+
+	private volatile int size;
+
+	private volatile long lingerTime;
+
+	private volatile long weightLimit;
+
+	/**
+	 * Creates policy with fixed size and linger time
+	 *
+	 * @param size
+	 *            - max queue size
+	 * @param lingerTime
+	 *            - linger time in millis
+	 */
+	public AdaptiveFlushPolicy(int size, long lingerTime) {
+		this(size, size, lingerTime, lingerTime, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param minSize
+	 *            - lower bound of max queue size. Initial size
+	 * @param maxSize
+	 *            - upper bound of max queue size
+	 * @param minLingerTime
+	 *            - lower bound of linger time in millis. Initial linger time
+	 * @param maxLingerTime
+	 *            - upper bound of linger time in millis
+	 * @param targetLatency
+	 *            - executions taking longer than this time in millis are
+	 *            considered as slow
+	 */
+	public AdaptiveFlushPolicy(int minSize, int maxSize, long minLingerTime, long maxLingerTime, long targetLatency) {
+		this(minSize, maxSize, minLingerTime, maxLingerTime, targetLatency, Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxWeight
+	 *            - upper bound of weight limit. Initial weight limit. Weight
+	 *            limit isn't decreased lower than 1/16 of it
+	 * @see #AdaptiveFlushPolicy(int, int, long, long, long)
+	 */
+	public AdaptiveFlushPolicy(int minSize, int maxSize, long minLingerTime, long maxLingerTime, long targetLatency, long maxWeight) {
+		this(minSize, maxSize, minLingerTime, maxLingerTime, targetLatency, Math.max(1, maxWeight / STEPS), maxWeight);
+	}
+
+	private AdaptiveFlushPolicy(int minSize, int maxSize, long minLingerTime, long maxLingerTime, long targetLatency, long minWeight,
+			long maxWeight) {
+		Preconditions.checkArgument(minSize > 0, "Min size should be positive");
+		Preconditions.checkArgument(maxSize >= minSize, "Max size should not be less than min size");
+		Preconditions.checkArgument(minLingerTime >= 0, "Min linger time should not be negative");
+		Preconditions.checkArgument(maxLingerTime >= minLingerTime, "Max linger time should not be less than min linger time");
+		Preconditions.checkArgument(targetLatency > 0, "Target latency should be positive");
+		Preconditions.checkArgument(maxWeight > 0, "Max weight should be positive");
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.minLingerTime = minLingerTime;
+		this.maxLingerTime = maxLingerTime;
+		this.targetLatency = targetLatency;
+		this.minWeight = minWeight;
+		this.maxWeight = maxWeight;
+		this.sizeStep = Math.max(1, (maxSize - minSize) / STEPS);
+		this.lingerStep = Math.max(1, (maxLingerTime - minLingerTime) / STEPS);
+		this.weightStep = Math.max(1, (maxWeight - minWeight) / STEPS);
+		this.size = minSize;
+		this.lingerTime = minLingerTime;
+		this.weightLimit = maxWeight;
+	}
+
+	/**
+	 * Returns {@link <code>true</code>} if queue size reaches current max
+	 * value
+	 */
+	@Override
+	public boolean shouldBeFlushed(Queue<E> queue) {
+		return queue.size() >= size;
+	}
+
+	/**
+	 * Adjusts size, weight limit and linger time according to execution of
+	 * batch
+	 *
+	 * @param count
+	 *            - count of elements in the batch
+	 * @param weight
+	 *            - summary weight of elements in the batch
+	 * @param latency
+	 *            - execution time in millis
+	 * @param failed
+	 *            - whether execution failed because of server or network
+	 *            problems
+	 */
+	public synchronized void onExecuted(int count, long weight, long latency, boolean failed) {
+		if (failed || latency > targetLatency) {
+			size = Math.max(minSize, size / 2);
+			weightLimit = Math.max(minWeight, weightLimit / 2);
+			lingerTime = Math.min(maxLingerTime, Math.max(lingerTime * 2, minLingerTime + lingerStep));
+		} else if (count >= size || weight >= weightLimit) {
+			/* batches which aren't full say nothing about capacity of the server */
+			size = Math.min(maxSize, size + sizeStep);
+			weightLimit = Math.min(maxWeight, weightLimit + weightStep);
+			lingerTime = Math.max(minLingerTime, lingerTime - lingerStep);
+		}
+	}
+
+	/**
+	 * @return current max queue size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return current max summary weight of the batch
+	 */
+	public long getWeightLimit() {
+		return weightLimit;
+	}
+
+	/**
+	 * @return current linger time in millis
+	 */
+	public long getLingerTime() {
+		return lingerTime;
+	}
+
+	/**
+	 * @return upper bound of linger time in millis
+	 */
+	public long getMaxLingerTime() {
+		return maxLingerTime;
+	}
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Asynchronous Batch executor. {@link #submit(Object)} only puts parameter to
+ * the bounded queue and returns immediately. Sender threads drain the queues
+ * into batches and execute them in background. Batch is collected until flush
+ * policy allows execution, queue is empty and linger time is over.
+ * <br>
+ * Each stream of parameters (see {@link #getStream(Object)}) is always sent by
+ * the same sender, so batches of the stream are executed one by one in the
+ * order of submission. Different streams may be executed concurrently.
+ * {@link #executeAndClear()} waits until all parameters submitted before the
+ * call are executed
+ *
+ * @param <P>
+ *            - type of parameter
+ * @param <R>
+ *            - type of result
+ */
+public abstract class AsyncBatchExecutor<P, R> extends BatchExecutor<P, R> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncBatchExecutor.class);
+
+	/** How long sender waits for new parameters before checking shutdown */
+	private static final long POLL_TIMEOUT_MS = 100L;
+
+	/** Queue of each sender thread */
+	private final List<BlockingQueue<Entry<P, R>>> queues;
+
+	private final FlushableQueue.FlushPolicy<Parameter<P, R>> flushPolicy;
+
+	/** How long sender waits for parameters to fill the batch */
+	private final long lingerTime;
+
+	private final ExecutorService senders;
+
+	/** Parameters which are submitted but not executed by their sequence numbers */
+	private final ConcurrentSkipListMap<Long, P> pending;
+
+	private final AtomicLong sequence;
+
+	private final Lock lock;
+
+	private final Condition executed;
+
+	private volatile boolean running;
+
+	public AsyncBatchExecutor(int batchSize, int senderThreads, int queueCapacity) {
+		this(new SizeBasedFlushPolicy<Parameter<P, R>>(batchSize), 0, TimeUnit.MILLISECONDS, senderThreads, queueCapacity);
+	}
+
+	/**
+	 * @param flushPolicy
+	 *            - defines when batch is full
+	 * @param lingerTime
+	 *            - how long sender waits for new parameters if batch is not
+	 *            full yet
+	 * @param unit
+	 *            - time unit of linger time
+	 * @param senderThreads
+	 *            - count of sender threads. Makes sense only if there is more
+	 *            than one stream of parameters
+	 * @param queueCapacity
+	 *            - max count of parameters waiting in the queues. It's split
+	 *            between sender threads
+	 */
+	public AsyncBatchExecutor(FlushableQueue.FlushPolicy<Parameter<P, R>> flushPolicy, long lingerTime, TimeUnit unit,
+			int senderThreads, int queueCapacity) {
+		Preconditions.checkArgument(senderThreads > 0, "Count of sender threads should be positive");
+		Preconditions.checkArgument(queueCapacity > 0, "Queue capacity should be positive");
+
+		this.flushPolicy = Preconditions.checkNotNull(flushPolicy, "Flush policy shouldn't be null");
+		this.lingerTime = unit.toMillis(lingerTime);
+		this.queues = Lists.newArrayListWithCapacity(senderThreads);
+		for (int i = 0; i < senderThreads; i++) {
+			queues.add(new LinkedBlockingQueue<Entry<P, R>>(Math.max(1, queueCapacity / senderThreads)));
+		}
+		this.pending = new ConcurrentSkipListMap<Long, P>();
+		this.sequence = new AtomicLong();
+		this.lock = new ReentrantLock();
+		this.executed = lock.newCondition();
+		this.running = true;
+
+		this.senders = Executors.newFixedThreadPool(senderThreads,
+				new ThreadFactoryBuilder().setNameFormat("rp-batch-sender-%d").setDaemon(true).build());
+		for (BlockingQueue<Entry<P, R>> queue : queues) {
+			senders.execute(new Sender(queue));
+		}
+	}
+
+	/**
+	 * Puts parameter to the queue of its stream. Blocks if queue is full
+	 *
+	 * @param parameter
+	 * @throws IOException
+	 */
+	@Override
+	public Result<R> submit(final P parameter) throws IOException {
+		Preconditions.checkState(running, "Executor is already closed");
+		final Result<R> result = new Result<R>();
+		final long seq = sequence.incrementAndGet();
+		pending.put(seq, parameter);
+		try {
+			queueOf(parameter).put(new Entry<P, R>(seq, new Parameter<P, R>(parameter, result)));
+		} catch (InterruptedException e) {
+			pending.remove(seq);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for space in the queue");
+		}
+		return result;
+	}
+
+	/**
+	 * Waits until all parameters submitted before this call are executed
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void executeAndClear() throws IOException {
+		awaitExecuted(Lists.newLinkedList(pending.headMap(sequence.get(), true).keySet()));
+	}
+
+	/**
+	 * Waits until parameters matching predicate which are submitted before
+	 * this call are executed. Other parameters may wait for their batches
+	 */
+	@Override
+	public void executeAndClearIfAny(Predicate<? super P> predicate) throws IOException {
+		List<Long> matching = Lists.newLinkedList();
+		for (Map.Entry<Long, P> entry : pending.entrySet()) {
+			if (predicate.apply(entry.getValue())) {
+				matching.add(entry.getKey());
+			}
+		}
+		awaitExecuted(matching);
+	}
+
+	/**
+	 * Removes parameters matching predicate which are still in the queues.
+	 * Parameters taken by sender threads are kept
+	 */
+	@Override
+	public List<Parameter<P, R>> remove(Predicate<? super P> predicate) {
+		List<Parameter<P, R>> removed = Lists.newArrayList();
+		for (BlockingQueue<Entry<P, R>> queue : queues) {
+			for (Entry<P, R> entry : queue) {
+				/* entry may be taken by sender concurrently, it's removed only if it's still in the queue */
+				if (predicate.apply(entry.parameter.getParameter()) && queue.remove(entry)) {
+					removed.add(entry.parameter);
+					pending.remove(entry.seq);
+				}
+			}
+		}
+		if (!removed.isEmpty()) {
+			lock.lock();
+			try {
+				executed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Batches are built by sender threads, so queue is never flushed on
+	 * submit
+	 */
+	@Override
+	protected boolean execute(Queue<Parameter<P, R>> batch) throws IOException {
+		return false;
+	}
+
+	@Override
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * How long in millis sender waits for new parameters if batch is not full
+	 * yet. May be overridden to change linger time at runtime
+	 */
+	@Override
+	protected long getLingerTime() {
+		return lingerTime;
+	}
+
+	/**
+	 * Stream of the parameter. Parameters of the same stream are executed in
+	 * the order of submission. All parameters belong to the same stream by
+	 * default
+	 *
+	 * @param parameter
+	 * @return stream key or NULL
+	 */
+	protected Object getStream(P parameter) {
+		return null;
+	}
+
+	/**
+	 * Stops sender threads. Parameters which are already in the queue are
+	 * executed before
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!running) {
+			return;
+		}
+		running = false;
+		senders.shutdown();
+		try {
+			if (!senders.awaitTermination(POLL_TIMEOUT_MS * 10, TimeUnit.MILLISECONDS)) {
+				senders.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		super.close();
+	}
+
+	private BlockingQueue<Entry<P, R>> queueOf(P parameter) {
+		Object stream = getStream(parameter);
+		return queues.get(null == stream ? 0 : (stream.hashCode() & Integer.MAX_VALUE) % queues.size());
+	}
+
+	/**
+	 * Waits until parameters with provided sequence numbers are executed
+	 */
+	private void awaitExecuted(List<Long> sequences) throws IOException {
+		if (sequences.isEmpty()) {
+			return;
+		}
+		if (!running) {
+			/* nobody is going to drain the queues */
+			for (BlockingQueue<Entry<P, R>> queue : queues) {
+				drain(queue);
+			}
+		}
+		lock.lock();
+		try {
+			while (true) {
+				for (Iterator<Long> it = sequences.iterator(); it.hasNext();) {
+					if (!pending.containsKey(it.next())) {
+						it.remove();
+					}
+				}
+				if (sequences.isEmpty()) {
+					return;
+				}
+				executed.await(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for batch execution");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Executes all entries which are in the queue right now
+	 */
+	private void drain(BlockingQueue<Entry<P, R>> queue) throws IOException {
+		int left = queue.size();
+		Entry<P, R> first;
+		while (left > 0 && null != (first = queue.poll())) {
+			try {
+				List<Entry<P, R>> entries = collect(queue, first, 0);
+				left -= entries.size();
+				send(entries);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while draining the queue");
+			}
+		}
+	}
+
+	/**
+	 * Takes entries from the queue until flush policy says that batch is full,
+	 * queue is empty and linger time is over
+	 */
+	private List<Entry<P, R>> collect(BlockingQueue<Entry<P, R>> queue, Entry<P, R> first, long linger) throws InterruptedException {
+		List<Entry<P, R>> entries = new ArrayList<Entry<P, R>>();
+		entries.add(first);
+		Queue<Parameter<P, R>> batch = Lists.newLinkedList();
+		batch.add(first.parameter);
+
+		long deadline = System.currentTimeMillis() + linger;
+		while (!flushPolicy.shouldBeFlushed(batch)) {
+			long left = deadline - System.currentTimeMillis();
+			Entry<P, R> next = left > 0 ? queue.poll(left, TimeUnit.MILLISECONDS) : queue.poll();
+			if (null == next) {
+				break;
+			}
+			entries.add(next);
+			batch.add(next.parameter);
+		}
+		return entries;
+	}
+
+	private void send(List<Entry<P, R>> entries) {
+		Queue<Parameter<P, R>> batch = Lists.newLinkedList();
+		for (Entry<P, R> entry : entries) {
+			batch.add(entry.parameter);
+		}
+		try {
+			executeBatch(batch);
+		} catch (Exception e) {
+			LOGGER.error("Unable to execute batch of " + entries.size() + " elements", e);
+			fail(batch, e);
+		} finally {
+			lock.lock();
+			try {
+				for (Entry<P, R> entry : entries) {
+					pending.remove(entry.seq);
+				}
+				executed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Takes parameters from its queue and executes them
+	 */
+	private class Sender implements Runnable {
+
+		private final BlockingQueue<Entry<P, R>> queue;
+
+		Sender(BlockingQueue<Entry<P, R>> queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			while (running || !queue.isEmpty()) {
+				try {
+					Entry<P, R> first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+					if (null == first) {
+						continue;
+					}
+					send(collect(queue, first, running ? getLingerTime() : 0));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queued parameter with its sequence number
+	 */
+	private static final class Entry<P, R> {
+		private final long seq;
+		private final Parameter<P, R> parameter;
+
+		Entry(long seq, Parameter<P, R> parameter) {
+			this.seq = seq;
+			this.parameter = parameter;
+		}
+	}
+}
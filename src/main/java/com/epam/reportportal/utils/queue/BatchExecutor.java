@@ -20,16 +20,52 @@
  */
 package com.epam.reportportal.utils.queue;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Abstract Batch executor. Waits onle {@link #execute(Queue)} is allowed and
  * {@link #executeBatch(Queue)}. Returns {@link Future} since we cannot
- * guarantee that operation will be execute in submit time
+ * guarantee that operation will be execute in submit time<br>
+ * Executor is thread-safe and may be shared between threads: parameters
+ * submitted from all threads are merged into the same batch, batches are
+ * executed one by one in the order they are built.<br>
+ * If linger time is provided, batch is executed by timer once its first
+ * parameter waits longer than linger time, even if {@link #execute(Queue)}
+ * doesn't allow execution yet.<br>
+ * If more than one batch is allowed to be in flight, batches are executed
+ * concurrently by background threads and thread which fills the batch waits
+ * only if max count of batches is already in flight. Flush methods wait until
+ * all affected batches are executed, so parameters submitted before flush are
+ * always executed once it returns
  * 
  * @author Andrei Varabyeu
  * 
@@ -37,13 +73,87 @@ import com.google.common.collect.Lists;
  * 			<P>
  * @param <R>
  */
-public abstract class BatchExecutor<P, R> {
+public abstract class BatchExecutor<P, R> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchExecutor.class);
 
 	/** {@link Queue} delegate */
 	private Queue<Parameter<P, R>> batch;
 
+	/** Filled batches waiting for execution */
+	private final Queue<Queue<Parameter<P, R>>> ready;
+
+	/** Guards {@link #batch} and {@link #ready} */
+	private final Object batchLock;
+
+	/**
+	 * Batches are executed under this lock one by one, in the same order they
+	 * were filled
+	 */
+	private final Lock executionLock;
+
+	/** Max time in millis parameter waits in the batch */
+	private final long lingerTime;
+
+	/** Executes batches by linger time. NULL if there is no linger time */
+	private final ScheduledExecutorService lingerTimer;
+
+	/** Linger task of current batch. Guarded by {@link #batchLock} */
+	private ScheduledFuture<?> linger;
+
+	/**
+	 * Executes batches concurrently. NULL if batches are executed one by one
+	 * by threads which fill them
+	 */
+	private final ExecutorService inFlightExecutor;
+
+	/** Bounds count of batches in flight */
+	private final Semaphore inFlightPermits;
+
+	/** Copies of batches which are executed right now */
+	private final Set<List<Parameter<P, R>>> inFlight;
+
 	public BatchExecutor() {
+		this(0, TimeUnit.MILLISECONDS);
+	}
+
+	public BatchExecutor(long lingerTime, TimeUnit unit) {
+		this(lingerTime, unit, 1);
+	}
+
+	/**
+	 * @param lingerTime
+	 *            - max time parameter waits in the batch. Non-positive value
+	 *            means that batch is executed only when
+	 *            {@link #execute(Queue)} allows it or on explicit flush
+	 * @param unit
+	 *            - time unit of linger time
+	 * @param maxInFlight
+	 *            - max count of batches executed concurrently
+	 */
+	public BatchExecutor(long lingerTime, TimeUnit unit, int maxInFlight) {
+		Preconditions.checkArgument(maxInFlight > 0, "Max count of batches in flight should be positive");
 		this.batch = Lists.newLinkedList();
+		this.ready = Lists.newLinkedList();
+		this.batchLock = new Object();
+		this.executionLock = new ReentrantLock();
+		this.lingerTime = unit.toMillis(lingerTime);
+		this.lingerTimer = this.lingerTime > 0 ? createLingerTimer() : null;
+		this.inFlightExecutor = maxInFlight > 1 ? Executors.newFixedThreadPool(maxInFlight,
+				new ThreadFactoryBuilder().setNameFormat("rp-batch-in-flight-%d").setDaemon(true).build()) : null;
+		this.inFlightPermits = new Semaphore(maxInFlight);
+		this.inFlight = Sets.newIdentityHashSet();
+	}
+
+	/**
+	 * Timer which removes cancelled linger tasks at once, since most of
+	 * batches are filled before their linger time is over
+	 */
+	private static ScheduledExecutorService createLingerTimer() {
+		ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+				new ThreadFactoryBuilder().setNameFormat("rp-batch-linger-%d").setDaemon(true).build());
+		timer.setRemoveOnCancelPolicy(true);
+		return timer;
 	}
 
 	/**
@@ -54,9 +164,19 @@ public abstract class BatchExecutor<P, R> {
 	 */
 	public Result<R> submit(final P parameter) throws IOException {
 		final Result<R> result = new Result<R>();
-		batch.offer(new Parameter<P, R>(parameter, result));
-		if (execute(batch)) {
-			executeAndClear();
+		boolean filled;
+		synchronized (batchLock) {
+			batch.offer(new Parameter<P, R>(parameter, result));
+			filled = execute(batch);
+			if (filled) {
+				detach();
+			} else if (null != lingerTimer && 1 == batch.size() && getLingerTime() > 0 && !lingerTimer.isShutdown()) {
+				cancelLinger();
+				linger = lingerTimer.schedule(new Linger(batch), getLingerTime(), TimeUnit.MILLISECONDS);
+			}
+		}
+		if (filled) {
+			executeReady();
 		}
 		return result;
 
@@ -68,10 +188,315 @@ public abstract class BatchExecutor<P, R> {
 	 * @throws IOException
 	 */
 	public void executeAndClear() throws IOException {
-		Queue<Parameter<P, R>> flushed = batch;
-		batch = Lists.newLinkedList();
-		if (!flushed.isEmpty())
-			executeBatch(flushed);
+		synchronized (batchLock) {
+			detach();
+		}
+		executeReady();
+		awaitInFlight(Predicates.alwaysTrue());
+	}
+
+	/**
+	 * Executes all hold operations only if there is at least one parameter
+	 * matching provided predicate in the batch queue. Anyway waits until
+	 * matching parameters which are already ready for execution or executed
+	 * by other threads are executed
+	 * 
+	 * @param predicate
+	 * @throws IOException
+	 */
+	public void executeAndClearIfAny(final Predicate<? super P> predicate) throws IOException {
+		synchronized (batchLock) {
+			if (anyMatches(Collections.singleton(batch), predicate)) {
+				detach();
+			}
+		}
+		executeReady();
+		awaitInFlight(predicate);
+	}
+
+	/**
+	 * Removes parameters matching predicate which wait for execution.
+	 * Parameters of batches which are executed right now are kept. Results of
+	 * removed parameters aren't completed
+	 * 
+	 * @param predicate
+	 * @return removed parameters
+	 */
+	public List<Parameter<P, R>> remove(Predicate<? super P> predicate) {
+		List<Parameter<P, R>> removed = Lists.newArrayList();
+		synchronized (batchLock) {
+			removeFrom(batch, predicate, removed);
+			for (Iterator<Queue<Parameter<P, R>>> it = ready.iterator(); it.hasNext();) {
+				Queue<Parameter<P, R>> next = it.next();
+				removeFrom(next, predicate, removed);
+				if (next.isEmpty()) {
+					it.remove();
+				}
+			}
+			batchLock.notifyAll();
+		}
+		return removed;
+	}
+
+	private static <P, R> void removeFrom(Queue<Parameter<P, R>> batch, Predicate<? super P> predicate, List<Parameter<P, R>> removed) {
+		for (Iterator<Parameter<P, R>> it = batch.iterator(); it.hasNext();) {
+			Parameter<P, R> parameter = it.next();
+			if (predicate.apply(parameter.getParameter())) {
+				it.remove();
+				removed.add(parameter);
+			}
+		}
+	}
+
+	/**
+	 * Moves current batch to the queue of batches ready for execution. Should
+	 * be called under {@link #batchLock}
+	 */
+	private void detach() {
+		if (!batch.isEmpty()) {
+			ready.offer(batch);
+			batch = Lists.newLinkedList();
+			cancelLinger();
+		}
+	}
+
+	/**
+	 * Cancels linger task of current batch, so timer doesn't keep tasks of
+	 * batches which are already executed. Should be called under
+	 * {@link #batchLock}
+	 */
+	private void cancelLinger() {
+		if (null != linger) {
+			linger.cancel(false);
+			linger = null;
+		}
+	}
+
+	/**
+	 * Executes batches which are ready for execution. If batches are executed
+	 * by threads which fill them, waits for batch which is executed by other
+	 * thread right now as well
+	 * 
+	 * @throws IOException
+	 */
+	private void executeReady() throws IOException {
+		if (null != inFlightExecutor) {
+			dispatchReady();
+			return;
+		}
+		executionLock.lock();
+		try {
+			Queue<Parameter<P, R>> next;
+			while (true) {
+				synchronized (batchLock) {
+					next = ready.poll();
+				}
+				if (null == next) {
+					return;
+				}
+				try {
+					executeBatch(next);
+				} catch (IOException e) {
+					fail(next, e);
+					throw e;
+				} catch (RuntimeException e) {
+					fail(next, e);
+					throw e;
+				}
+			}
+		} finally {
+			executionLock.unlock();
+		}
+	}
+
+	/**
+	 * Passes batches which are ready for execution to background threads.
+	 * Waits if max count of batches is already in flight
+	 * 
+	 * @throws IOException
+	 */
+	private void dispatchReady() throws IOException {
+		while (true) {
+			synchronized (batchLock) {
+				if (ready.isEmpty()) {
+					return;
+				}
+			}
+			/* batch stays in the ready queue while permit is awaited, so flush waits for it */
+			try {
+				inFlightPermits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for batches in flight");
+			}
+			final Queue<Parameter<P, R>> next;
+			final List<Parameter<P, R>> copy;
+			synchronized (batchLock) {
+				next = ready.poll();
+				if (null == next) {
+					inFlightPermits.release();
+					return;
+				}
+				/* batch is drained on execution, so copy is kept to find its parameters */
+				copy = ImmutableList.copyOf(next);
+				inFlight.add(copy);
+			}
+			Runnable execution = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						executeBatch(next);
+					} catch (Exception e) {
+						LOGGER.error("Unable to execute batch of " + copy.size() + " elements", e);
+						fail(copy, e);
+					} finally {
+						synchronized (batchLock) {
+							inFlight.remove(copy);
+							batchLock.notifyAll();
+						}
+						inFlightPermits.release();
+					}
+				}
+			};
+			try {
+				inFlightExecutor.execute(execution);
+			} catch (RejectedExecutionException e) {
+				/* executor is already closed, nobody is going to execute this and next batches */
+				List<Parameter<P, R>> rejected = Lists.newArrayList(copy);
+				synchronized (batchLock) {
+					inFlight.remove(copy);
+					Queue<Parameter<P, R>> left;
+					while (null != (left = ready.poll())) {
+						rejected.addAll(left);
+					}
+					batchLock.notifyAll();
+				}
+				inFlightPermits.release();
+				fail(rejected, e);
+				throw new IOException("Batches of " + rejected.size() + " elements are rejected since executor is closed", e);
+			}
+		}
+	}
+
+	/**
+	 * Waits until batches containing parameters matching predicate are
+	 * executed by background threads. Batches executed by threads which fill
+	 * them are awaited by {@link #executeReady()}
+	 * 
+	 * @param predicate
+	 * @throws IOException
+	 */
+	private void awaitInFlight(Predicate<? super P> predicate) throws IOException {
+		if (null == inFlightExecutor) {
+			return;
+		}
+		synchronized (batchLock) {
+			while (anyMatches(inFlight, predicate) || anyMatches(ready, predicate)) {
+				try {
+					batchLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for batches in flight");
+				}
+			}
+		}
+	}
+
+	private static <P, R> boolean anyMatches(Iterable<? extends Iterable<Parameter<P, R>>> batches, Predicate<? super P> predicate) {
+		for (Iterable<Parameter<P, R>> batch : batches) {
+			for (Parameter<P, R> parameter : batch) {
+				if (predicate.apply(parameter.getParameter())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Executes batch once linger time of its first parameter is over, if it
+	 * is not executed yet
+	 */
+	private class Linger implements Runnable {
+
+		private final Queue<Parameter<P, R>> target;
+
+		Linger(Queue<Parameter<P, R>> target) {
+			this.target = target;
+		}
+
+		@Override
+		public void run() {
+			synchronized (batchLock) {
+				if (batch != target) {
+					return;
+				}
+				detach();
+			}
+			try {
+				executeReady();
+			} catch (Exception e) {
+				LOGGER.error("Unable to execute batch by linger time", e);
+			}
+		}
+	}
+
+	/**
+	 * Executes all hold operations and stops linger timer and background
+	 * threads
+	 * 
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			executeAndClear();
+		} finally {
+			if (null != lingerTimer) {
+				lingerTimer.shutdownNow();
+			}
+			if (null != inFlightExecutor) {
+				inFlightExecutor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * @return count of submitted parameters which are not executed yet
+	 */
+	public int getPendingCount() {
+		int count = 0;
+		synchronized (batchLock) {
+			count += batch.size();
+			for (Queue<Parameter<P, R>> next : ready) {
+				count += next.size();
+			}
+			for (List<Parameter<P, R>> next : inFlight) {
+				count += next.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Max time in millis parameter waits in the batch. May be overridden to
+	 * change linger time at runtime, but linger timer exists only if executor
+	 * is created with positive linger time
+	 */
+	protected long getLingerTime() {
+		return lingerTime;
+	}
+
+	/**
+	 * Completes exceptionally results of batch which are not completed yet
+	 * 
+	 * @param batch
+	 * @param cause
+	 */
+	protected static <P, R> void fail(Iterable<Parameter<P, R>> batch, Throwable cause) {
+		for (Parameter<P, R> parameter : batch) {
+			parameter.getResult().setException(cause);
+		}
 	}
 
 	/**
@@ -104,7 +529,7 @@ public abstract class BatchExecutor<P, R> {
 	 * @param <R>
 	 *            - type of result
 	 */
-	protected static final class Parameter<P, R> {
+	public static final class Parameter<P, R> {
 		private final Result<R> result;
 		private final P parameter;
 
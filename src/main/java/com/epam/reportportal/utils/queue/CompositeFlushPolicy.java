@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.util.List;
+import java.util.Queue;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Flush policy which combines several policies. Queue should be flushed once
+ * any of them says so
+ * 
+ * @param <E>
+ */
+public class CompositeFlushPolicy<E> implements FlushableQueue.FlushPolicy<E> {
+
+	private final List<FlushableQueue.FlushPolicy<E>> policies;
+
+	public CompositeFlushPolicy(List<FlushableQueue.FlushPolicy<E>> policies) {
+		Preconditions.checkArgument(!policies.isEmpty(), "At least one flush policy should be provided");
+		this.policies = ImmutableList.copyOf(policies);
+	}
+
+	/**
+	 * Returns {@link <code>true</code>} if at least one of policies returns
+	 * {@link <code>true</code>}
+	 */
+	@Override
+	public boolean shouldBeFlushed(Queue<E> queue) {
+		for (FlushableQueue.FlushPolicy<E> policy : policies) {
+			if (policy.shouldBeFlushed(queue)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
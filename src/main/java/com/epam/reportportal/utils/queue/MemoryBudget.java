@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.io.InterruptedIOException;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounds count and total size of pending elements. Element is acquired
+ * before it's queued and released once it leaves the memory. Single element
+ * which is larger than the whole budget is accepted only if budget is empty
+ */
+public class MemoryBudget {
+
+	private final int maxEntries;
+
+	private final long maxBytes;
+
+	private int entries;
+
+	private long bytes;
+
+	/**
+	 * @param maxEntries
+	 *            - max count of pending elements
+	 * @param maxBytes
+	 *            - max size of pending elements in bytes
+	 */
+	public MemoryBudget(int maxEntries, long maxBytes) {
+		Preconditions.checkArgument(maxEntries > 0, "Max count of entries should be positive");
+		Preconditions.checkArgument(maxBytes > 0, "Max size in bytes should be positive");
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Acquires budget for element if there is enough of it
+	 *
+	 * @param weight
+	 *            - size of element in bytes
+	 * @return true if budget is acquired
+	 */
+	public synchronized boolean tryAcquire(long weight) {
+		if (entries > 0 && (entries >= maxEntries || bytes + weight > maxBytes)) {
+			return false;
+		}
+		entries++;
+		bytes += weight;
+		return true;
+	}
+
+	/**
+	 * Waits until there is enough budget for element and acquires it
+	 *
+	 * @param weight
+	 *            - size of element in bytes
+	 * @throws InterruptedIOException
+	 *             if current thread is interrupted while waiting
+	 */
+	public synchronized void acquire(long weight) throws InterruptedIOException {
+		while (!tryAcquire(weight)) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for memory budget");
+			}
+		}
+	}
+
+	/**
+	 * Releases budget of elements which left the memory
+	 *
+	 * @param count
+	 *            - count of elements
+	 * @param weight
+	 *            - total size of elements in bytes
+	 */
+	public synchronized void release(int count, long weight) {
+		entries = Math.max(0, entries - count);
+		bytes = Math.max(0, bytes - weight);
+		notifyAll();
+	}
+
+	/**
+	 * @return count of pending elements
+	 */
+	public synchronized int getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return size of pending elements in bytes
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+}
@@ -20,10 +20,27 @@
  */
 package com.epam.reportportal.utils.queue;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
- * Represents mutable result of some operation.
+ * Represents result of some operation which may be completed later, possibly
+ * in another thread. Backed by {@link SettableFuture}, so it's thread-safe.
+ * <br>
+ * {@link #get()} never blocks and returns NULL until result is set. Use
+ * {@link #get(long, TimeUnit)} to wait for the result or
+ * {@link #addCallback(FutureCallback)} to be notified once it's completed
  * 
  * @author Andrei Varabyeu
  * 
@@ -32,27 +49,111 @@ import com.google.common.base.Supplier;
  */
 public class Result<T> implements Supplier<T> {
 
+	private final SettableFuture<T> delegate = SettableFuture.create();
+
 	public Result() {
 
 	}
 
 	public Result(T delegate) {
-		this.delegate = delegate;
+		this.delegate.set(delegate);
 	}
 
-	private T delegate;
-
+	/**
+	 * Whether result is successfully completed with non-null value
+	 */
 	public boolean isPresent() {
-		return (null != delegate);
+		return (null != get());
+	}
+
+	/**
+	 * Whether result is completed either successfully or exceptionally
+	 */
+	public boolean isDone() {
+		return delegate.isDone();
 	}
 
+	/**
+	 * Returns result if it's successfully completed, otherwise NULL. Doesn't
+	 * block
+	 */
 	@Override
 	public T get() {
-		return delegate;
+		if (!delegate.isDone()) {
+			return null;
+		}
+		try {
+			return Uninterruptibles.getUninterruptibly(delegate);
+		} catch (ExecutionException e) {
+			return null;
+		} catch (CancellationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for the result
+	 * 
+	 * @param timeout
+	 * @param unit
+	 * @throws InterruptedException
+	 *             if current thread was interrupted while waiting
+	 * @throws ExecutionException
+	 *             if result is completed exceptionally
+	 * @throws TimeoutException
+	 *             if result is not completed in time
+	 */
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return delegate.get(timeout, unit);
 	}
 
+	/**
+	 * Completes result successfully. Does nothing if result is already
+	 * completed
+	 * 
+	 * @param t
+	 */
 	public void set(T t) {
-		this.delegate = t;
+		delegate.set(t);
+	}
+
+	/**
+	 * Completes result exceptionally. Does nothing if result is already
+	 * completed
+	 * 
+	 * @param throwable
+	 */
+	public void setException(Throwable throwable) {
+		delegate.setException(throwable);
+	}
+
+	/**
+	 * Registers callback to be executed once result is completed. Callback is
+	 * executed in thread which completes the result or in current thread if
+	 * it's already completed
+	 * 
+	 * @param callback
+	 */
+	public void addCallback(FutureCallback<? super T> callback) {
+		addCallback(callback, MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Registers callback to be executed with provided executor once result is
+	 * completed
+	 * 
+	 * @param callback
+	 * @param executor
+	 */
+	public void addCallback(FutureCallback<? super T> callback, Executor executor) {
+		Futures.addCallback(delegate, callback, executor);
+	}
+
+	/**
+	 * Represents result as {@link ListenableFuture}
+	 */
+	public ListenableFuture<T> asFuture() {
+		return delegate;
 	}
 
 }
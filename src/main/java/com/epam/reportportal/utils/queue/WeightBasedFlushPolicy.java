@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Flush policy based on max summary weight of queue elements (e.g. size of
+ * payload in bytes). Once weight of queue reaches max value, queue should be
+ * flushed
+ * <br>
+ * Policy may be shared by several queues. Summary weight is kept for each
+ * queue between calls, so only elements added to the tail since the previous
+ * call are weighed. It's recalculated if the queue is changed other way
+ * 
+ * @param <E>
+ */
+public class WeightBasedFlushPolicy<E> implements FlushableQueue.FlushPolicy<E> {
+
+	/** Max summary weight of queue */
+	private final long maxWeight;
+
+	private final Weigher<? super E> weigher;
+
+	/** Weight of queues by their identity */
+	private final Cache<Queue<E>, Weight<E>> weights;
+
+	public WeightBasedFlushPolicy(long maxWeight, Weigher<? super E> weigher) {
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.weights = CacheBuilder.newBuilder().weakKeys().build();
+	}
+
+	/**
+	 * Returns {@link <code>true</code>} if summary weight of queue elements
+	 * reaches provided max value
+	 */
+	@Override
+	public boolean shouldBeFlushed(Queue<E> queue) {
+		Weight<E> weight = weights.getIfPresent(queue);
+		if (null == weight) {
+			weight = new Weight<E>();
+			weights.put(queue, weight);
+		}
+		return weight.update(queue, weigher) >= getMaxWeight();
+	}
+
+	/**
+	 * Max summary weight of queue. May be overridden to change it at runtime
+	 */
+	protected long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Calculates weight of queue element
+	 * 
+	 * @param <E>
+	 */
+	public interface Weigher<E> {
+		long weigh(E element);
+	}
+
+	/**
+	 * Summary weight of the queue. Queue is used by one thread at a time, so
+	 * weight isn't synchronized
+	 */
+	private static final class Weight<E> {
+		/** Count of weighed elements */
+		private int count;
+		/** Last weighed element */
+		private E last;
+		private long weight;
+
+		long update(Queue<E> queue, Weigher<? super E> weigher) {
+			int size = queue.size();
+			if (queue instanceof Deque && size == count && ((Deque<E>) queue).peekLast() == last) {
+				return weight;
+			}
+			if (queue instanceof Deque && size == count + 1) {
+				/* usual case: one element is added to the tail */
+				Iterator<E> tail = ((Deque<E>) queue).descendingIterator();
+				E added = tail.next();
+				if (0 == count || tail.next() == last) {
+					weight += weigher.weigh(added);
+					last = added;
+					count = size;
+					return weight;
+				}
+			}
+			weight = 0;
+			last = null;
+			for (E element : queue) {
+				weight += weigher.weigh(element);
+				last = element;
+			}
+			count = size;
+			return weight;
+		}
+	}
+}
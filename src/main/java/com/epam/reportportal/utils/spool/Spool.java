@@ -0,0 +1,426 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.spool;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Durable FIFO of binary records. Records are appended to segment files in
+ * the spool directory by positional writes and read in the same order, also
+ * after restart of the process. Each segment starts with read position of the
+ * segment followed by records in format [size][type][payload], where size is
+ * length of type and payload. Zero size marks the end of the segment.
+ * Fully read segments are deleted.
+ * <br>
+ * Data is written to the page cache on append, so it survives crash of the
+ * process. {@link #close()} forces it to the disk. Segments aren't mapped to
+ * the memory, so consumed ones may be deleted on any platform once their
+ * channels are closed. Record is removed only
+ * after it's processed, so it may be processed twice if process crashes in
+ * between
+ */
+public class Spool implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Spool.class);
+
+	private static final String SEGMENT_SUFFIX = ".spool";
+
+	/** Read position of the segment */
+	private static final int SEGMENT_HEADER_SIZE = 4;
+
+	/** Size and type of the record */
+	private static final int RECORD_HEADER_SIZE = 5;
+
+	private final File directory;
+
+	private final int segmentSize;
+
+	private final Deque<Segment> segments;
+
+	private long nextSegment;
+
+	/**
+	 * Opens spool. Records left in the directory by previous processes are
+	 * read first
+	 *
+	 * @param directory
+	 *            - directory for segment files
+	 * @param segmentSize
+	 *            - size of segment file in bytes. Segment grows if record
+	 *            doesn't fit
+	 * @throws IOException
+	 */
+	public Spool(File directory, int segmentSize) throws IOException {
+		Preconditions.checkArgument(segmentSize > SEGMENT_HEADER_SIZE, "Segment size is too small");
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create spool directory " + directory);
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.segments = new LinkedList<Segment>();
+
+		File[] files = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		/* names are zero-padded indexes */
+		Arrays.sort(files);
+		for (File file : files) {
+			long index = Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()));
+			nextSegment = Math.max(nextSegment, index + 1);
+			Segment segment = new Segment(index, file, (int) Math.max(file.length(), SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE));
+			if (segment.isConsumed()) {
+				delete(segment);
+			} else {
+				segments.add(segment);
+			}
+		}
+	}
+
+	/**
+	 * Appends record to the end of spool
+	 *
+	 * @param type
+	 *            - type of the record
+	 * @param payload
+	 *            - record content
+	 * @return position of the record, unique within the spool
+	 * @throws IOException
+	 */
+	public long append(byte type, final byte[] payload) throws IOException {
+		return append(type, new Payload() {
+			@Override
+			public void writeTo(OutputStream output) throws IOException {
+				output.write(payload);
+			}
+		}, payload.length);
+	}
+
+	/**
+	 * Appends record to the end of spool. Payload is written directly to the
+	 * segment file, so record isn't collected in the heap. Segment grows if
+	 * record doesn't fit. Record isn't appended if payload fails
+	 *
+	 * @param type
+	 *            - type of the record
+	 * @param payload
+	 *            - writer of record content
+	 * @return position of the record, unique within the spool
+	 * @throws IOException
+	 */
+	public long append(byte type, Payload payload) throws IOException {
+		return append(type, payload, 0);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            - size of payload if it's known, new segment is created if
+	 *            record doesn't fit the tail one
+	 */
+	private synchronized long append(byte type, Payload payload, int expectedSize) throws IOException {
+		int recordSize = RECORD_HEADER_SIZE + expectedSize;
+		Segment tail = segments.peekLast();
+		if (null == tail || tail.writePosition + recordSize > tail.capacity) {
+			tail = new Segment(nextSegment, segmentFile(nextSegment), Math.max(segmentSize, SEGMENT_HEADER_SIZE + recordSize));
+			nextSegment++;
+			segments.add(tail);
+		}
+		int position = tail.writePosition;
+		SegmentOutputStream output = new SegmentOutputStream(tail, position + 4);
+		output.write(type);
+		payload.writeTo(output);
+		output.flush();
+		int end = position + 4 + output.size;
+		/* bytes of failed appends may be left after the record */
+		if (end + 4 <= tail.capacity) {
+			tail.writeInt(end, 0);
+		}
+		/* size is written last so incomplete record isn't visible */
+		tail.writeInt(position, output.size);
+		tail.writePosition = end;
+		tail.capacity = Math.max(tail.capacity, end);
+		return position(tail, position);
+	}
+
+	/**
+	 * Returns first record without removing it
+	 *
+	 * @return first record or null if spool is empty
+	 * @throws IOException
+	 */
+	public synchronized Record peek() throws IOException {
+		Segment head = head();
+		if (null == head) {
+			return null;
+		}
+		int position = head.readPosition;
+		ByteBuffer record = ByteBuffer.allocate(head.readInt(position));
+		head.read(record, position + 4);
+		record.flip();
+		byte type = record.get();
+		byte[] payload = new byte[record.remaining()];
+		record.get(payload);
+		return new Record(position(head, position), type, payload);
+	}
+
+	/**
+	 * Removes first record
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void remove() throws IOException {
+		Segment head = head();
+		if (null == head) {
+			return;
+		}
+		head.readPosition += RECORD_HEADER_SIZE + head.readInt(head.readPosition) - 1;
+		head.writeInt(0, head.readPosition);
+		head();
+	}
+
+	public synchronized boolean isEmpty() {
+		return null == head();
+	}
+
+	/**
+	 * Forces all segments to the disk and closes them
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for (Segment segment : segments) {
+			segment.channel.force(false);
+			segment.channel.close();
+		}
+	}
+
+	/**
+	 * Returns first segment with unread records deleting consumed ones
+	 */
+	private Segment head() {
+		Segment head;
+		while (null != (head = segments.peekFirst()) && head.isConsumed()) {
+			if (head == segments.peekLast()) {
+				/* keep writing to the tail */
+				return null;
+			}
+			delete(segments.pollFirst());
+		}
+		return head;
+	}
+
+	private File segmentFile(long index) {
+		return new File(directory, String.format("%019d%s", index, SEGMENT_SUFFIX));
+	}
+
+	private static long position(Segment segment, int offset) {
+		return (segment.index << 32) | offset;
+	}
+
+	private static void delete(Segment segment) {
+		try {
+			segment.channel.close();
+		} catch (IOException e) {
+			LOGGER.warn("Unable to close consumed spool segment " + segment.file, e);
+		}
+		if (!segment.file.delete()) {
+			LOGGER.warn("Unable to delete consumed spool segment " + segment.file);
+		}
+	}
+
+	/**
+	 * Content of the appended record
+	 */
+	public interface Payload {
+
+		/**
+		 * Writes content of the record
+		 *
+		 * @param output
+		 *            - stream of the segment file
+		 * @throws IOException
+		 */
+		void writeTo(OutputStream output) throws IOException;
+	}
+
+	/**
+	 * Spooled record
+	 */
+	public static final class Record {
+		private final long position;
+		private final byte type;
+		private final byte[] payload;
+
+		Record(long position, byte type, byte[] payload) {
+			this.position = position;
+			this.type = type;
+			this.payload = payload;
+		}
+
+		public long getPosition() {
+			return position;
+		}
+
+		public byte getType() {
+			return type;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+	}
+
+	/**
+	 * Segment file. Zero bytes after the last record mark the end of segment
+	 */
+	private static final class Segment {
+		private final long index;
+		private final File file;
+		private final FileChannel channel;
+		private int capacity;
+		private int readPosition;
+		private int writePosition;
+
+		Segment(long index, File file, int size) throws IOException {
+			this.index = index;
+			this.file = file;
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				if (raf.length() < size) {
+					raf.setLength(size);
+				}
+			} catch (IOException e) {
+				raf.close();
+				throw e;
+			}
+			this.channel = raf.getChannel();
+			this.capacity = size;
+			readPosition = Math.max(SEGMENT_HEADER_SIZE, readInt(0));
+			writePosition = readPosition;
+			int recordSize;
+			while (writePosition + RECORD_HEADER_SIZE <= capacity && (recordSize = readInt(writePosition)) > 0
+					&& writePosition + 4 + recordSize <= capacity) {
+				writePosition += 4 + recordSize;
+			}
+		}
+
+		boolean isConsumed() {
+			return readPosition >= writePosition;
+		}
+
+		int readInt(int position) throws IOException {
+			ByteBuffer value = ByteBuffer.allocate(4);
+			read(value, position);
+			return value.getInt(0);
+		}
+
+		void writeInt(int position, int value) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(4);
+			buffer.putInt(0, value);
+			write(buffer, position);
+		}
+
+		void read(ByteBuffer buffer, int position) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					throw new EOFException("Spool segment " + file + " is truncated");
+				}
+			}
+		}
+
+		void write(ByteBuffer buffer, int position) throws IOException {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, position + buffer.position());
+			}
+		}
+	}
+
+	/**
+	 * Buffered output which writes record to the segment at the given
+	 * position
+	 */
+	private static final class SegmentOutputStream extends OutputStream {
+		private static final int BUFFER_SIZE = 8 * 1024;
+
+		private final Segment segment;
+		private final ByteBuffer buffer;
+		private int position;
+		private int size;
+
+		SegmentOutputStream(Segment segment, int position) {
+			this.segment = segment;
+			this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			this.position = position;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			buffer.put((byte) b);
+			size++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if ((long) position + buffer.position() + len > Integer.MAX_VALUE) {
+				throw new IOException("Record doesn't fit spool segment " + segment.file);
+			}
+			while (len > 0) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				int chunk = Math.min(len, buffer.remaining());
+				buffer.put(b, off, chunk);
+				off += chunk;
+				len -= chunk;
+				size += chunk;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			buffer.flip();
+			int written = buffer.remaining();
+			segment.write(buffer, position);
+			position += written;
+			buffer.clear();
+		}
+	}
+}
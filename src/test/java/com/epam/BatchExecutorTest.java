@@ -21,14 +21,23 @@
 package com.epam;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.epam.reportportal.utils.queue.BatchExecutor;
 import com.epam.reportportal.utils.queue.Result;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.base.Predicates;
+
 /**
  * Unit test for batch executor
  * 
@@ -80,4 +89,274 @@ public class BatchExecutorTest {
 		Assert.assertTrue(firstResult.isPresent());
 		Assert.assertEquals("There are no result of operation", firstResult.get(), "Item 1 result");
 	}
+
+	@Test
+	public void testSharedBatchExecutor() throws IOException, InterruptedException {
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+		final BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>() {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				batchSizes.add(batch.size());
+				for (Parameter<String, String> batchItem : batch) {
+					batchItem.getResult().set(batchItem.getParameter());
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return batch.size() >= 10;
+			}
+		};
+
+		final int threads = 8;
+		final int perThread = 25;
+		final List<Result<String>> results = new CopyOnWriteArrayList<Result<String>>();
+		final CountDownLatch done = new CountDownLatch(threads);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < perThread; j++) {
+							results.add(batchExecutor.submit(Thread.currentThread().getName() + j));
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					} finally {
+						done.countDown();
+					}
+				}
+			});
+		}
+		Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+		pool.shutdown();
+
+		/*
+		 * All threads fill the same batches
+		 */
+		for (Integer size : batchSizes) {
+			Assert.assertEquals(10, size.intValue());
+		}
+		Assert.assertEquals(threads * perThread / 10, batchSizes.size());
+		for (Result<String> result : results) {
+			Assert.assertTrue(result.isPresent());
+		}
+	}
+
+	@Test
+	public void testExecuteIfAny() throws IOException {
+		BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>() {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> batchItem : batch) {
+					batchItem.getResult().set(batchItem.getParameter());
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return false;
+			}
+		};
+
+		Result<String> result = batchExecutor.submit("1");
+		batchExecutor.executeAndClearIfAny(Predicates.equalTo("2"));
+		Assert.assertFalse(result.isPresent());
+
+		batchExecutor.executeAndClearIfAny(Predicates.equalTo("1"));
+		Assert.assertTrue(result.isPresent());
+	}
+
+	@Test
+	public void testLingerTime() throws IOException, InterruptedException {
+		final CountDownLatch executed = new CountDownLatch(1);
+		BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>(50, TimeUnit.MILLISECONDS) {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> batchItem : batch) {
+					batchItem.getResult().set(batchItem.getParameter());
+				}
+				executed.countDown();
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return batch.size() >= 100;
+			}
+		};
+
+		Result<String> result = batchExecutor.submit("1");
+		Assert.assertFalse(result.isPresent());
+
+		/*
+		 * Batch is not full, but executed by timer
+		 */
+		Assert.assertTrue(executed.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(result.isPresent());
+	}
+
+	@Test
+	public void testExecuteIfAnyWaitsForBatchInExecution() throws IOException, InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>() {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				for (Parameter<String, String> batchItem : batch) {
+					batchItem.getResult().set(batchItem.getParameter());
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return batch.size() >= 2;
+			}
+		};
+
+		/*
+		 * Other thread fills the batch and executes it
+		 */
+		final List<Result<String>> results = new CopyOnWriteArrayList<Result<String>>();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					results.add(batchExecutor.submit("1"));
+					results.add(batchExecutor.submit("2"));
+				} catch (IOException e) {
+					// test fails by timeout
+				}
+			}
+		}).start();
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		final CountDownLatch flushed = new CountDownLatch(1);
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					batchExecutor.executeAndClearIfAny(Predicates.equalTo("1"));
+					flushed.countDown();
+				} catch (IOException e) {
+					// test fails by timeout
+				}
+			}
+		}).start();
+		Assert.assertFalse(flushed.await(100, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(results.get(0).isPresent());
+		batchExecutor.close();
+	}
+
+	@Test
+	public void testBatchesAreExecutedConcurrently() throws IOException, InterruptedException {
+		final CountDownLatch started = new CountDownLatch(3);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger executed = new AtomicInteger();
+		final BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>(0, TimeUnit.MILLISECONDS, 3) {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				Parameter<String, String> batchItem;
+				while (null != (batchItem = batch.poll())) {
+					batchItem.getResult().set(batchItem.getParameter());
+					executed.incrementAndGet();
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return true;
+			}
+		};
+
+		Result<String> result = batchExecutor.submit("1");
+		batchExecutor.submit("2");
+		batchExecutor.submit("3");
+
+		/*
+		 * All three batches are in flight at the same time
+		 */
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+		Assert.assertFalse(result.isPresent());
+
+		final CountDownLatch flushed = new CountDownLatch(1);
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					batchExecutor.executeAndClearIfAny(Predicates.equalTo("2"));
+					flushed.countDown();
+				} catch (IOException e) {
+					// test fails by timeout
+				}
+			}
+		}).start();
+
+		/*
+		 * Flush waits for the batch in flight
+		 */
+		Assert.assertFalse(flushed.await(100, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+		batchExecutor.executeAndClear();
+		Assert.assertEquals(3, executed.get());
+		Assert.assertEquals("1", result.get());
+		batchExecutor.close();
+	}
+
+	@Test
+	public void testBatchIsFailedAfterClose() throws IOException {
+		BatchExecutor<String, String> batchExecutor = new BatchExecutor<String, String>(0, TimeUnit.MILLISECONDS, 2) {
+
+			@Override
+			protected void executeBatch(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> batchItem : batch) {
+					batchItem.getResult().set(batchItem.getParameter());
+				}
+			}
+
+			@Override
+			protected boolean execute(Queue<BatchExecutor.Parameter<String, String>> batch) throws IOException {
+				return batch.size() >= 2;
+			}
+		};
+		batchExecutor.close();
+
+		Result<String> result = batchExecutor.submit("1");
+		try {
+			batchExecutor.submit("2");
+			Assert.fail("Batch is executed after close");
+		} catch (IOException e) {
+			/* expected */
+		}
+
+		/*
+		 * Result is completed and flush doesn't wait for rejected batch
+		 */
+		Assert.assertTrue(result.isDone());
+		Assert.assertFalse(result.isPresent());
+		batchExecutor.executeAndClear();
+		Assert.assertEquals(0, batchExecutor.getPendingCount());
+	}
 }
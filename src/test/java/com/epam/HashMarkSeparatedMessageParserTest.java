@@ -28,6 +28,8 @@ import com.epam.reportportal.message.ReportPortalMessage;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.base.Charsets;
+
 /**
  * 
  * @author Andrei Varabyeu
@@ -44,4 +46,23 @@ public class HashMarkSeparatedMessageParserTest {
 		Assert.assertNotNull("Message should not be null", message);
 		Assert.assertNull("Binary data should be nullMessage should be null", message.getData());
 	}
+
+	@Test
+	public void testBase64Parser() throws IOException {
+		MessageParser parser = new HashMarkSeparatedMessageParser();
+
+		ReportPortalMessage message = parser.parse("RP_MESSAGE#BASE64#cmVwb3J0IHBvcnRhbA==#demo#message");
+		Assert.assertEquals("demo#message", message.getMessage());
+		Assert.assertEquals("report portal", new String(message.getData().read(), Charsets.UTF_8));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testIncorrectFormat() {
+		new HashMarkSeparatedMessageParser().parse("RP_MESSAGE#BASE64#cmVwb3J0IHBvcnRhbA==");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownType() {
+		new HashMarkSeparatedMessageParser().parse("RP_MESSAGE#BASE#cmVwb3J0IHBvcnRhbA==#message");
+	}
 }
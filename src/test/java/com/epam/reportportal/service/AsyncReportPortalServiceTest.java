@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.utils.queue.Result;
+import com.epam.ta.reportportal.ws.model.EntryCreatedRS;
+import com.epam.ta.reportportal.ws.model.FinishExecutionRQ;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class AsyncReportPortalServiceTest {
+
+	private IReportPortalService delegate;
+
+	private IAsyncReportPortalService service;
+
+	@Before
+	public void setUp() {
+		delegate = mock(IReportPortalService.class);
+		service = AsyncReportPortalService.create(delegate, 4);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		service.close();
+	}
+
+	@Test
+	public void startTestItem() throws Exception {
+		StartTestItemRQ rq = new StartTestItemRQ();
+		EntryCreatedRS rs = new EntryCreatedRS("item");
+		when(delegate.startTestItem("parent", rq)).thenReturn(rs);
+
+		assertSame(rs, service.startTestItem("parent", rq).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void exceptionIsPropagated() throws Exception {
+		StartTestItemRQ rq = new StartTestItemRQ();
+		RestEndpointIOException cause = new RestEndpointIOException("Server is down");
+		when(delegate.startRootTestItem(rq)).thenThrow(cause);
+
+		try {
+			service.startRootTestItem(rq).get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertSame(cause, e.getCause());
+			return;
+		}
+		throw new AssertionError("Future should be completed exceptionally");
+	}
+
+	@Test
+	public void logIsCompletedWithBatch() throws Exception {
+		SaveLogRQ rq = new SaveLogRQ();
+		Result<EntryCreatedRS> result = new Result<EntryCreatedRS>();
+		when(delegate.log(rq)).thenReturn((Result) result);
+
+		ListenableFuture<EntryCreatedRS> future = service.log(rq);
+		Thread.sleep(100);
+		assertFalse(future.isDone());
+
+		EntryCreatedRS rs = new EntryCreatedRS("log");
+		result.set(rs);
+		assertSame(rs, future.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void closeWaitsForSubmittedCalls() throws Exception {
+		StartTestItemRQ rq = new StartTestItemRQ();
+		when(delegate.startRootTestItem(rq)).thenReturn(new EntryCreatedRS("root"));
+
+		ListenableFuture<EntryCreatedRS> future = service.startRootTestItem(rq);
+		service.close();
+		assertTrue(future.isDone());
+		assertEquals("root", future.get().getId());
+	}
+
+	@Test
+	public void finishIsExecutedAfterLogsOfItem() throws Exception {
+		final CountDownLatch logged = new CountDownLatch(1);
+		SaveLogRQ rq = new SaveLogRQ();
+		rq.setTestItemId("item");
+		when(delegate.log(rq)).thenAnswer(new Answer<Result<EntryCreatedRS>>() {
+			@Override
+			public Result<EntryCreatedRS> answer(InvocationOnMock invocation) throws Throwable {
+				logged.await(5, TimeUnit.SECONDS);
+				return new Result<EntryCreatedRS>(new EntryCreatedRS("log"));
+			}
+		});
+		FinishTestItemRQ finishRq = new FinishTestItemRQ();
+		when(delegate.finishTestItem("item", finishRq)).thenReturn(new OperationCompletionRS());
+
+		service.log(rq);
+		ListenableFuture<OperationCompletionRS> finished = service.finishTestItem("item", finishRq);
+		Thread.sleep(100);
+		verify(delegate, never()).finishTestItem("item", finishRq);
+
+		logged.countDown();
+		finished.get(5, TimeUnit.SECONDS);
+		verify(delegate, timeout(5000)).finishTestItem("item", finishRq);
+	}
+
+	@Test
+	public void callsOfOtherItemsAreNotChained() throws Exception {
+		final CountDownLatch logged = new CountDownLatch(1);
+		SaveLogRQ rq = new SaveLogRQ();
+		rq.setTestItemId("item");
+		when(delegate.log(rq)).thenAnswer(new Answer<Result<EntryCreatedRS>>() {
+			@Override
+			public Result<EntryCreatedRS> answer(InvocationOnMock invocation) throws Throwable {
+				logged.await(5, TimeUnit.SECONDS);
+				return new Result<EntryCreatedRS>(new EntryCreatedRS("log"));
+			}
+		});
+		FinishTestItemRQ finishRq = new FinishTestItemRQ();
+		when(delegate.finishTestItem("other", finishRq)).thenReturn(new OperationCompletionRS());
+
+		service.log(rq);
+		service.finishTestItem("other", finishRq).get(5, TimeUnit.SECONDS);
+		logged.countDown();
+	}
+
+	@Test
+	public void parentIsFinishedAfterChildren() throws Exception {
+		final CountDownLatch childFinishing = new CountDownLatch(1);
+		StartTestItemRQ startRq = new StartTestItemRQ();
+		when(delegate.startTestItem("parent", startRq)).thenReturn(new EntryCreatedRS("child"));
+		FinishTestItemRQ childRq = new FinishTestItemRQ();
+		when(delegate.finishTestItem("child", childRq)).thenAnswer(new Answer<OperationCompletionRS>() {
+			@Override
+			public OperationCompletionRS answer(InvocationOnMock invocation) throws Throwable {
+				childFinishing.await(5, TimeUnit.SECONDS);
+				return new OperationCompletionRS();
+			}
+		});
+		FinishTestItemRQ parentRq = new FinishTestItemRQ();
+		when(delegate.finishTestItem("parent", parentRq)).thenReturn(new OperationCompletionRS());
+
+		String childId = service.startTestItem("parent", startRq).get(5, TimeUnit.SECONDS).getId();
+		ListenableFuture<OperationCompletionRS> childFinished = service.finishTestItem(childId, childRq);
+		ListenableFuture<OperationCompletionRS> parentFinished = service.finishTestItem("parent", parentRq);
+		Thread.sleep(100);
+		verify(delegate, never()).finishTestItem("parent", parentRq);
+
+		childFinishing.countDown();
+		childFinished.get(5, TimeUnit.SECONDS);
+		parentFinished.get(5, TimeUnit.SECONDS);
+		verify(delegate).finishTestItem("parent", parentRq);
+	}
+
+	@Test
+	public void launchIsFinishedAfterItems() throws Exception {
+		final CountDownLatch logged = new CountDownLatch(1);
+		StartTestItemRQ rootRq = new StartTestItemRQ();
+		rootRq.setLaunchId("launch");
+		when(delegate.startRootTestItem(rootRq)).thenReturn(new EntryCreatedRS("root"));
+		StartTestItemRQ startRq = new StartTestItemRQ();
+		when(delegate.startTestItem("root", startRq)).thenReturn(new EntryCreatedRS("child"));
+		SaveLogRQ logRq = new SaveLogRQ();
+		logRq.setTestItemId("child");
+		when(delegate.log(logRq)).thenAnswer(new Answer<Result<EntryCreatedRS>>() {
+			@Override
+			public Result<EntryCreatedRS> answer(InvocationOnMock invocation) throws Throwable {
+				logged.await(5, TimeUnit.SECONDS);
+				return new Result<EntryCreatedRS>(new EntryCreatedRS("log"));
+			}
+		});
+		FinishExecutionRQ finishRq = new FinishExecutionRQ();
+		when(delegate.finishLaunch("launch", finishRq)).thenReturn(new OperationCompletionRS());
+
+		String rootId = service.startRootTestItem(rootRq).get(5, TimeUnit.SECONDS).getId();
+		String childId = service.startTestItem(rootId, startRq).get(5, TimeUnit.SECONDS).getId();
+		logRq.setTestItemId(childId);
+		service.log(logRq);
+		ListenableFuture<OperationCompletionRS> finished = service.finishLaunch("launch", finishRq);
+		Thread.sleep(100);
+		verify(delegate, never()).finishLaunch("launch", finishRq);
+
+		logged.countDown();
+		finished.get(5, TimeUnit.SECONDS);
+		verify(delegate).finishLaunch("launch", finishRq);
+	}
+}
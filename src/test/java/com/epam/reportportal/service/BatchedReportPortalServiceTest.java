@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Test;
+
+import com.epam.reportportal.restclient.endpoint.RestEndpoint;
+import com.epam.reportportal.utils.queue.BatchExecutor;
+import com.epam.reportportal.utils.queue.MemoryBudget;
+import com.epam.reportportal.utils.queue.Result;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+
+public class BatchedReportPortalServiceTest {
+
+	@Test
+	public void metricsReporterIsClosedWithService() throws IOException {
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10);
+		Closeable reporter = mock(Closeable.class);
+		service.setMetricsReporter(reporter);
+
+		service.close();
+
+		verify(reporter).close();
+	}
+
+	@Test
+	public void lowLevelLogsAreDroppedOnOverflow() throws IOException {
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10);
+		service.setMemoryBudget(new MemoryBudget(1, Long.MAX_VALUE), OverflowPolicy.DROP_LOW_LEVEL);
+
+		Result<BatchElementCreatedRS> queued = service.log(log("INFO"));
+		Result<BatchElementCreatedRS> dropped = service.log(log("debug"));
+
+		assertFalse(queued.isDone());
+		assertTrue(dropped.isDone());
+		assertEquals(1, service.getDroppedLogs());
+	}
+
+	@Test
+	public void severeLogEvictsQueuedLowLevelLogs() throws IOException {
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10);
+		service.setMemoryBudget(new MemoryBudget(2, Long.MAX_VALUE), OverflowPolicy.DROP_LOW_LEVEL);
+
+		Result<BatchElementCreatedRS> info = service.log(log("INFO"));
+		Result<BatchElementCreatedRS> warn = service.log(log("WARN"));
+		Result<BatchElementCreatedRS> error = service.log(log("ERROR"));
+
+		assertTrue(info.isDone());
+		assertFalse(warn.isDone());
+		assertFalse(error.isDone());
+		assertEquals(1, service.getDroppedLogs());
+	}
+
+	@Test
+	public void attachmentsAreDroppedOnOverflow() throws IOException {
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10);
+		service.setMemoryBudget(new MemoryBudget(10, 100), OverflowPolicy.DROP_ATTACHMENTS);
+
+		SaveLogRQ first = log("INFO");
+		SaveLogRQ second = log("INFO");
+		SaveLogRQ.File file = new SaveLogRQ.File();
+		file.setName("screenshot.png");
+		file.setContent(ByteSource.wrap(new byte[1024]));
+		second.setFile(file);
+		Result<BatchElementCreatedRS> queued = service.log(first);
+		Result<BatchElementCreatedRS> stripped = service.log(second);
+
+		assertFalse(queued.isDone());
+		assertFalse(stripped.isDone());
+		assertNull(second.getFile());
+		assertEquals("message", second.getMessage());
+		assertEquals(1, service.getDroppedLogs());
+	}
+
+	@Test
+	public void logIsSpilledOnOverflow() throws IOException {
+		final List<SaveLogRQ> spilled = Lists.newArrayList();
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10) {
+			@Override
+			protected boolean spill(BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> log) {
+				spilled.add(log.getParameter());
+				return true;
+			}
+		};
+		service.setMemoryBudget(new MemoryBudget(1, Long.MAX_VALUE), OverflowPolicy.SPILL);
+
+		SaveLogRQ second = log("INFO");
+		service.log(log("INFO"));
+		Result<BatchElementCreatedRS> result = service.log(second);
+
+		assertFalse(result.isDone());
+		assertEquals(Collections.singletonList(second), spilled);
+		assertEquals(0, service.getDroppedLogs());
+	}
+
+	@Test
+	public void pendingLogsAreSentOnOverflow() throws IOException {
+		final List<Integer> batches = Lists.newArrayList();
+		BatchedReportPortalService service = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10) {
+			@Override
+			protected void saveLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) {
+				batches.add(batch.size());
+				BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> log;
+				while (null != (log = batch.poll())) {
+					log.getResult().set(new BatchElementCreatedRS("id"));
+				}
+			}
+		};
+		MemoryBudget budget = new MemoryBudget(2, Long.MAX_VALUE);
+		service.setMemoryBudget(budget, OverflowPolicy.BLOCK);
+
+		Result<BatchElementCreatedRS> first = service.log(log("DEBUG"));
+		Result<BatchElementCreatedRS> second = service.log(log("DEBUG"));
+		Result<BatchElementCreatedRS> third = service.log(log("DEBUG"));
+
+		assertTrue(first.isDone());
+		assertTrue(second.isDone());
+		assertFalse(third.isDone());
+		assertEquals(Collections.singletonList(2), batches);
+		assertEquals(1, budget.getEntries());
+		assertEquals(0, service.getDroppedLogs());
+	}
+
+	private static SaveLogRQ log(String level) {
+		SaveLogRQ rq = new SaveLogRQ();
+		rq.setTestItemId("item");
+		rq.setLevel(level);
+		rq.setMessage("message");
+		return rq;
+	}
+}
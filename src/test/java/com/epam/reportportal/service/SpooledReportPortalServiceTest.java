@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.restclient.endpoint.RestEndpoint;
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.utils.spool.Spool;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.google.common.io.Files;
+
+public class SpooledReportPortalServiceTest {
+
+	private static final String ITEM_URL = "/api/v1/project/item/item";
+
+	private static final byte[] SERIALIZED_RQ = new byte[] { 1, 2, 3 };
+
+	private final FinishTestItemRQ rq = new FinishTestItemRQ();
+
+	private File directory;
+
+	private RestEndpoint endpoint;
+
+	private Spool spool;
+
+	private SpooledReportPortalService service;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDir();
+		endpoint = mock(RestEndpoint.class);
+		spool = new Spool(directory, 1024);
+		service = new SpooledReportPortalService(endpoint, "/api/v1", "project", 10, Long.MAX_VALUE, 0, spool, serializer(),
+				Long.MAX_VALUE);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		service.close();
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void finishIsSpooledAndReplayed() throws IOException {
+		RestEndpointIOException refused = new RestEndpointIOException("Connection refused");
+		when(endpoint.put(ITEM_URL, rq, OperationCompletionRS.class)).thenThrow(refused).thenThrow(refused)
+				.thenReturn(new OperationCompletionRS());
+
+		assertNotNull(service.finishTestItem("item", rq));
+		assertFalse(spool.isEmpty());
+
+		/* still unavailable */
+		service.replay();
+		assertFalse(spool.isEmpty());
+
+		service.replay();
+		assertTrue(spool.isEmpty());
+		verify(endpoint, times(3)).put(ITEM_URL, rq, OperationCompletionRS.class);
+	}
+
+	@Test
+	public void nextRequestsAreSpooledToKeepOrder() throws IOException {
+		when(endpoint.put(ITEM_URL, rq, OperationCompletionRS.class)).thenThrow(new RestEndpointIOException("Connection refused"));
+
+		service.finishTestItem("item", rq);
+		service.finishTestItem("item", rq);
+
+		/* second request isn't sent while the first one is spooled */
+		verify(endpoint, times(1)).put(ITEM_URL, rq, OperationCompletionRS.class);
+	}
+
+	/**
+	 * Serializer which always restores the same request
+	 */
+	private Serializer serializer() throws RestEndpointIOException {
+		Serializer serializer = mock(Serializer.class);
+		when(serializer.serialize(rq)).thenAnswer(new Answer<InputStream>() {
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new ByteArrayInputStream(SERIALIZED_RQ);
+			}
+		});
+		when(serializer.deserialize(SERIALIZED_RQ, FinishTestItemRQ.class)).thenReturn(rq);
+		return serializer;
+	}
+}
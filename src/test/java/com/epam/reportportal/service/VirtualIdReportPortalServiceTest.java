@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.restclient.endpoint.RestEndpoint;
+import com.epam.reportportal.restclient.endpoint.exception.RestEndpointIOException;
+import com.epam.reportportal.utils.queue.BatchExecutor;
+import com.epam.ta.reportportal.ws.model.BatchElementCreatedRS;
+import com.epam.ta.reportportal.ws.model.EntryCreatedRS;
+import com.epam.ta.reportportal.ws.model.FinishTestItemRQ;
+import com.epam.ta.reportportal.ws.model.OperationCompletionRS;
+import com.epam.ta.reportportal.ws.model.StartTestItemRQ;
+import com.epam.ta.reportportal.ws.model.launch.StartLaunchRQ;
+import com.epam.ta.reportportal.ws.model.log.SaveLogRQ;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+public class VirtualIdReportPortalServiceTest {
+
+	private IAsyncReportPortalService async;
+
+	private VirtualIdReportPortalService service;
+
+	@Before
+	public void setUp() {
+		async = mock(IAsyncReportPortalService.class);
+		service = new VirtualIdReportPortalService(async);
+	}
+
+	@Test
+	public void childIsStartedWhenParentIsCreated() throws Exception {
+		StartLaunchRQ launchRq = new StartLaunchRQ();
+		SettableFuture<EntryCreatedRS> launch = SettableFuture.create();
+		when(async.startLaunch(launchRq)).thenReturn(launch);
+		String launchId = service.startLaunch(launchRq);
+
+		List<StartTestItemRQ> sent = new CopyOnWriteArrayList<StartTestItemRQ>();
+		StartTestItemRQ rootRq = new StartTestItemRQ();
+		rootRq.setName("root");
+		rootRq.setLaunchId(launchId);
+		SettableFuture<EntryCreatedRS> root = SettableFuture.create();
+		when(async.startRootTestItem(any(StartTestItemRQ.class))).thenAnswer(record(sent, 0, root));
+		String rootId = service.startRootTestItem(rootRq);
+
+		StartTestItemRQ childRq = new StartTestItemRQ();
+		childRq.setLaunchId(launchId);
+		when(async.startTestItem(eq("real-root"), any(StartTestItemRQ.class))).thenAnswer(
+				record(sent, 1, SettableFuture.<EntryCreatedRS> create()));
+		service.startTestItem(rootId, childRq);
+
+		verify(async, never()).startRootTestItem(any(StartTestItemRQ.class));
+		launch.set(new EntryCreatedRS("real-launch"));
+		verify(async).startRootTestItem(any(StartTestItemRQ.class));
+		assertEquals("real-launch", sent.get(0).getLaunchId());
+		assertEquals("root", sent.get(0).getName());
+
+		verify(async, never()).startTestItem(eq("real-root"), any(StartTestItemRQ.class));
+		root.set(new EntryCreatedRS("real-root"));
+		verify(async).startTestItem(eq("real-root"), any(StartTestItemRQ.class));
+		assertEquals("real-launch", sent.get(1).getLaunchId());
+		assertEquals("real-root", service.resolve(rootId).get());
+
+		/* requests of the caller keep virtual IDs */
+		assertEquals(launchId, rootRq.getLaunchId());
+		assertEquals(launchId, childRq.getLaunchId());
+	}
+
+	@Test
+	public void parentIsFinishedAfterChildren() throws Exception {
+		StartTestItemRQ rootRq = new StartTestItemRQ();
+		rootRq.setLaunchId("launch");
+		when(async.startRootTestItem(any(StartTestItemRQ.class))).thenReturn(Futures.immediateFuture(new EntryCreatedRS("real-root")));
+		String rootId = service.startRootTestItem(rootRq);
+
+		StartTestItemRQ childRq = new StartTestItemRQ();
+		childRq.setLaunchId("launch");
+		when(async.startTestItem(eq("real-root"), any(StartTestItemRQ.class))).thenReturn(
+				Futures.immediateFuture(new EntryCreatedRS("real-child")));
+		String childId = service.startTestItem(rootId, childRq);
+
+		FinishTestItemRQ childFinishRq = new FinishTestItemRQ();
+		SettableFuture<OperationCompletionRS> childFinished = SettableFuture.create();
+		when(async.finishTestItem("real-child", childFinishRq)).thenReturn(childFinished);
+		service.finishTestItem(childId, childFinishRq);
+
+		FinishTestItemRQ rootFinishRq = new FinishTestItemRQ();
+		when(async.finishTestItem("real-root", rootFinishRq)).thenReturn(Futures.immediateFuture(new OperationCompletionRS()));
+		ListenableFuture<OperationCompletionRS> rootFinished = service.finishTestItem(rootId, rootFinishRq);
+
+		verify(async, never()).finishTestItem("real-root", rootFinishRq);
+		assertFalse(rootFinished.isDone());
+
+		childFinished.set(new OperationCompletionRS());
+		verify(async).finishTestItem("real-root", rootFinishRq);
+		assertTrue(rootFinished.isDone());
+	}
+
+	@Test
+	public void failedParentFailsChildren() throws Exception {
+		StartTestItemRQ rootRq = new StartTestItemRQ();
+		SettableFuture<EntryCreatedRS> root = SettableFuture.create();
+		when(async.startRootTestItem(any(StartTestItemRQ.class))).thenReturn(root);
+		String rootId = service.startRootTestItem(rootRq);
+		String childId = service.startTestItem(rootId, new StartTestItemRQ());
+
+		root.setException(new IllegalStateException("Launch is already finished"));
+		assertTrue(service.resolve(childId).isDone());
+		try {
+			service.resolve(childId).get();
+		} catch (ExecutionException e) {
+			assertEquals("Launch is already finished", e.getCause().getMessage());
+			return;
+		}
+		throw new AssertionError("Child start should fail");
+	}
+
+	@Test
+	public void itemWithIncompleteBatchOfLogsIsFinished() throws Exception {
+		final List<String> sent = new CopyOnWriteArrayList<String>();
+		BatchedReportPortalService batched = new BatchedReportPortalService(mock(RestEndpoint.class), "/api/v1", "project", 10) {
+			@Override
+			public EntryCreatedRS startRootTestItem(StartTestItemRQ rq) throws RestEndpointIOException {
+				return new EntryCreatedRS("real-root");
+			}
+
+			@Override
+			public OperationCompletionRS finishTestItem(String itemId, FinishTestItemRQ rq) throws RestEndpointIOException {
+				OperationCompletionRS rs = super.finishTestItem(itemId, rq);
+				sent.add("finish " + itemId);
+				return rs;
+			}
+
+			@Override
+			protected void saveLogs(Queue<BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS>> batch) throws IOException {
+				for (BatchExecutor.Parameter<SaveLogRQ, BatchElementCreatedRS> parameter : batch) {
+					sent.add("log " + parameter.getParameter().getTestItemId());
+					parameter.getResult().set(new BatchElementCreatedRS("log"));
+				}
+			}
+		};
+		IAsyncReportPortalService async = AsyncReportPortalService.create(batched, 4);
+		service = new VirtualIdReportPortalService(async);
+
+		StartTestItemRQ rootRq = new StartTestItemRQ();
+		rootRq.setLaunchId("launch");
+		String rootId = service.startRootTestItem(rootRq);
+		List<ListenableFuture<EntryCreatedRS>> logs = new CopyOnWriteArrayList<ListenableFuture<EntryCreatedRS>>();
+		for (int i = 0; i < 3; i++) {
+			SaveLogRQ logRq = new SaveLogRQ();
+			logRq.setTestItemId(rootId);
+			logs.add(service.log(logRq));
+		}
+
+		/* batch of 10 logs isn't full, it's sent only by the finish */
+		service.finishTestItem(rootId, new FinishTestItemRQ()).get(5, TimeUnit.SECONDS);
+		for (ListenableFuture<EntryCreatedRS> log : logs) {
+			assertEquals("log", log.get(5, TimeUnit.SECONDS).getId());
+		}
+		assertEquals(4, sent.size());
+		assertEquals("finish real-root", sent.get(3));
+		async.close();
+	}
+
+	/**
+	 * Answer which records request sent to the async service
+	 */
+	private static <T> Answer<ListenableFuture<EntryCreatedRS>> record(final List<T> requests, final int index,
+			final ListenableFuture<EntryCreatedRS> result) {
+		return new Answer<ListenableFuture<EntryCreatedRS>>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public ListenableFuture<EntryCreatedRS> answer(InvocationOnMock invocation) throws Throwable {
+				requests.add((T) invocation.getArguments()[index]);
+				return result;
+			}
+		};
+	}
+}
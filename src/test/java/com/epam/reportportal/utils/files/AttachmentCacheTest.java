@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteSource;
+
+public class AttachmentCacheTest {
+
+	@Test
+	public void identicalContentIsProcessedOnce() throws IOException {
+		AttachmentCache cache = new AttachmentCache(1024);
+		AtomicInteger processed = new AtomicInteger();
+
+		ByteSource first = cache.get(AttachmentCache.hash(bytes("screenshot")), processor("converted", processed));
+		ByteSource second = cache.get(AttachmentCache.hash(bytes("screenshot")), processor("converted", processed));
+
+		assertSame(first, second);
+		assertEquals(1, processed.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() throws IOException {
+		AttachmentCache cache = new AttachmentCache(10);
+		AtomicInteger processed = new AtomicInteger();
+		HashCode first = AttachmentCache.hash(bytes("first"));
+
+		ByteSource cached = cache.get(first, processor("123456", processed));
+		cache.get(AttachmentCache.hash(bytes("second")), processor("123456", processed));
+
+		assertNotSame(cached, cache.get(first, processor("123456", processed)));
+		assertEquals(3, processed.get());
+	}
+
+	private static Callable<ByteSource> processor(final String result, final AtomicInteger processed) {
+		return new Callable<ByteSource>() {
+			@Override
+			public ByteSource call() {
+				processed.incrementAndGet();
+				return ByteSource.wrap(bytes(result));
+			}
+		};
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(Charsets.UTF_8);
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.epam.reportportal.apache.commons.codec.binary.Base64;
+
+public class Base64ByteSourceTest {
+
+	@Test
+	public void decodedOnReading() throws IOException {
+		for (int length : new int[] { 0, 1, 2, 3, 100 * 1024 + 1 }) {
+			byte[] content = new byte[length];
+			new Random().nextBytes(content);
+			Base64ByteSource source = new Base64ByteSource(Base64.encodeBase64String(content));
+			assertArrayEquals(content, source.read());
+			assertEquals(length, source.size());
+		}
+	}
+
+	@Test
+	public void decodingIsLenient() throws IOException {
+		String encoded = "cmVw\r\nb3J0\u00a0IHBv cnRhbA";
+		assertArrayEquals(Base64.decodeBase64(encoded), new Base64ByteSource(encoded).read());
+		assertEquals(Base64.decodeBase64(encoded).length, new Base64ByteSource(encoded).size());
+	}
+
+	@Test
+	public void dataAfterPaddingIsIgnored() throws IOException {
+		String encoded = "cmVwb3J0IHBvcnRhbA==cmVw";
+		assertArrayEquals(Base64.decodeBase64(encoded), new Base64ByteSource(encoded).read());
+		assertEquals(Base64.decodeBase64(encoded).length, new Base64ByteSource(encoded).size());
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteSource;
+
+public class ImageConversionPoolTest {
+
+	@Test
+	public void imageIsConvertedInBackground() throws IOException {
+		ByteSource original = screenshot();
+
+		ImageConversionPool pool = new ImageConversionPool(1, 1);
+		try {
+			ByteSource converted = pool.convertIfImage(original);
+			assertEquals(original.size(), converted.size());
+			BufferedImage result = ImageIO.read(converted.openStream());
+			assertEquals(BufferedImage.TYPE_BYTE_GRAY, result.getType());
+			assertEquals(16, result.getWidth());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void identicalImagesAreConvertedOnce() throws IOException {
+		AttachmentCache cache = new AttachmentCache(1024 * 1024);
+		ImageConversionPool pool = new ImageConversionPool(1, 10, ImageConversionSettings.DEFAULT, cache);
+		try {
+			ByteSource first = pool.convertIfImage(screenshot());
+			ByteSource second = pool.convertIfImage(screenshot());
+			assertTrue(first.contentEquals(second));
+			assertEquals(1, cache.getMisses());
+			assertEquals(1, cache.getHits());
+		} finally {
+			pool.close();
+		}
+	}
+
+	private static ByteSource screenshot() throws IOException {
+		BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(0, 0, 0xFF0000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return ByteSource.wrap(out.toByteArray());
+	}
+}
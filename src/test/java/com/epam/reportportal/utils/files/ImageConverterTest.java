@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteSource;
+
+public class ImageConverterTest {
+
+	@Test
+	public void imageSignatures() throws IOException {
+		assertTrue(ImageConverter.hasImageSignature(write("png")));
+		assertTrue(ImageConverter.hasImageSignature(write("jpg")));
+		assertTrue(ImageConverter.hasImageSignature(write("gif")));
+		assertTrue(ImageConverter.hasImageSignature(write("bmp")));
+		assertTrue(ImageConverter.hasImageSignature("RIFF\0\0\0\0WEBPVP8 ".getBytes(Charsets.ISO_8859_1)));
+	}
+
+	@Test
+	public void notImageSignatures() {
+		assertFalse(ImageConverter.hasImageSignature("BMW is not a bitmap".getBytes(Charsets.UTF_8)));
+		assertFalse(ImageConverter.hasImageSignature("RIFF\0\0\0\0WAVEfmt ".getBytes(Charsets.ISO_8859_1)));
+		assertFalse(ImageConverter.hasImageSignature("GIF".getBytes(Charsets.UTF_8)));
+		assertFalse(ImageConverter.hasImageSignature(new byte[0]));
+	}
+
+	@Test
+	public void imageIsRecognizedBySignature() throws IOException {
+		assertTrue(ImageConverter.isImage(write("png")));
+	}
+
+	@Test
+	public void imageIsDownscaledKeepingAspectRatio() throws IOException {
+		ImageConversionSettings settings = new ImageConversionSettings(400, 400, false, ImageConversionSettings.Format.PNG, 100, false);
+		BufferedImage image = ImageIO.read(ImageConverter.convert(write("png", 1600, 1000), settings).openStream());
+		assertEquals(400, image.getWidth());
+		assertEquals(250, image.getHeight());
+	}
+
+	@Test
+	public void imageIsEncodedToJpeg() throws IOException {
+		ImageConversionSettings settings = new ImageConversionSettings(0, 0, true, ImageConversionSettings.Format.JPEG, 80, false);
+		byte[] converted = ImageConverter.convert(write("png", 64, 32), settings).read();
+		assertTrue(ImageConverter.hasImageSignature(converted));
+		assertEquals((byte) 0xFF, converted[0]);
+		assertEquals((byte) 0xD8, converted[1]);
+		BufferedImage image = ImageIO.read(ByteSource.wrap(converted).openStream());
+		assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+		assertEquals(64, image.getWidth());
+	}
+
+	@Test
+	public void originalIsKeptIfConvertedIsLarger() throws IOException {
+		byte[] original = write("png");
+		ImageConversionSettings settings = new ImageConversionSettings(0, 0, false, ImageConversionSettings.Format.JPEG, 100, true);
+		assertArrayEquals(original, ImageConverter.convert(original, settings).read());
+	}
+
+	private static byte[] write(String format) throws IOException {
+		return write(format, 8, 8);
+	}
+
+	private static byte[] write(String format, int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+		return out.toByteArray();
+	}
+}
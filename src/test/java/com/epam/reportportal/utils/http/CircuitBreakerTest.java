@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class CircuitBreakerTest {
+
+	private final FakeTicker ticker = new FakeTicker();
+
+	private final CircuitBreaker breaker = new CircuitBreaker(4, 50, 1000, 5000, 2, ticker);
+
+	@Test
+	public void opensOnFailureRate() {
+		call(true);
+		call(false);
+		call(true);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		call(false);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+	}
+
+	@Test
+	public void slowCallsAreFailures() {
+		for (int i = 0; i < 4; i++) {
+			assertTrue(breaker.tryAcquire());
+			breaker.onSuccess(i < 2 ? 2000 : 10);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void closesAfterSuccessfulTrials() {
+		open();
+		ticker.advance(5000);
+		assertTrue(breaker.tryAcquire());
+		assertTrue(breaker.tryAcquire());
+		/* only two trial calls are permitted */
+		assertFalse(breaker.tryAcquire());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess(10);
+		breaker.onSuccess(10);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void failedTrialOpensAgain() {
+		open();
+		ticker.advance(5000);
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		ticker.advance(4999);
+		assertFalse(breaker.tryAcquire());
+	}
+
+	private void open() {
+		for (int i = 0; i < 4; i++) {
+			call(true);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	private void call(boolean failed) {
+		assertTrue(breaker.tryAcquire());
+		if (failed) {
+			breaker.onFailure();
+		} else {
+			breaker.onSuccess(10);
+		}
+	}
+
+	private static class FakeTicker extends Ticker {
+		private long nanos;
+
+		void advance(long millis) {
+			nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+		}
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpEntity;
+import com.epam.reportportal.apache.http.HttpException;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.entity.ContentType;
+import com.epam.reportportal.apache.http.entity.InputStreamEntity;
+import com.epam.reportportal.apache.http.protocol.BasicHttpContext;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+public class CompressionInterceptorTest {
+
+	private static final byte[] BODY = Strings.repeat("{\"message\":\"log\"}", 100).getBytes(Charsets.UTF_8);
+
+	@Test
+	public void gzipCompression() throws IOException, HttpException {
+		HttpEntity entity = compress(CompressionInterceptor.Encoding.GZIP, BODY, 1024);
+		assertEquals("gzip", entity.getContentEncoding().getValue());
+		assertEquals(-1, entity.getContentLength());
+		assertArrayEquals(BODY, ByteStreams.toByteArray(new GZIPInputStream(written(entity))));
+	}
+
+	@Test
+	public void deflateCompression() throws IOException, HttpException {
+		HttpEntity entity = compress(CompressionInterceptor.Encoding.DEFLATE, BODY, 1024);
+		assertEquals("deflate", entity.getContentEncoding().getValue());
+		assertArrayEquals(BODY, ByteStreams.toByteArray(new InflaterInputStream(written(entity))));
+	}
+
+	@Test
+	public void smallBodyIsNotCompressed() throws IOException, HttpException {
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		ByteArrayEntity small = new ByteArrayEntity(BODY, ContentType.APPLICATION_JSON);
+		post.setEntity(small);
+		new CompressionInterceptor(CompressionInterceptor.Encoding.GZIP, 6, BODY.length + 1).process(post, new BasicHttpContext());
+		assertSame(small, post.getEntity());
+	}
+
+	@Test
+	public void notJsonBodyIsNotCompressed() throws IOException, HttpException {
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		ByteArrayEntity image = new ByteArrayEntity(BODY, ContentType.create("image/png"));
+		post.setEntity(image);
+		new CompressionInterceptor(CompressionInterceptor.Encoding.GZIP, 6, 0).process(post, new BasicHttpContext());
+		assertSame(image, post.getEntity());
+	}
+
+	@Test
+	public void bodyOfUnknownLengthIsNotCompressed() throws IOException, HttpException {
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		InputStreamEntity streamed = new InputStreamEntity(new ByteArrayInputStream(BODY), -1, ContentType.APPLICATION_JSON);
+		post.setEntity(streamed);
+		new CompressionInterceptor(CompressionInterceptor.Encoding.GZIP, 6, 0).process(post, new BasicHttpContext());
+		assertSame(streamed, post.getEntity());
+	}
+
+	@Test
+	public void wholeMultipartBodyIsCompressed() throws IOException, HttpException {
+		String request = new String(BODY, Charsets.UTF_8);
+		MultiPartEntity original = new MultiPartEntity().addSerializedPart("json_request_part", request)
+				.addPart("file", "screenshot.png", "image/png", ByteSource.wrap(BODY)).serialize(MultiPartEntityTest.serializer(request));
+
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		post.setEntity(original);
+		new CompressionInterceptor(CompressionInterceptor.Encoding.GZIP, 6, 1024).process(post, new BasicHttpContext());
+		HttpEntity entity = post.getEntity();
+		assertEquals("gzip", entity.getContentEncoding().getValue());
+		assertEquals(original.getContentType().getValue(), entity.getContentType().getValue());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeTo(out);
+		assertArrayEquals(out.toByteArray(), ByteStreams.toByteArray(new GZIPInputStream(written(entity))));
+		String decoded = new String(out.toByteArray(), Charsets.ISO_8859_1);
+		assertFalse(decoded.contains("Content-Encoding"));
+	}
+
+	@Test
+	public void encodingFromString() {
+		assertSame(CompressionInterceptor.Encoding.GZIP, CompressionInterceptor.Encoding.fromString("GZip"));
+		assertNull(CompressionInterceptor.Encoding.fromString("br"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongLevel() {
+		new CompressionInterceptor(CompressionInterceptor.Encoding.GZIP, 10, 0);
+	}
+
+	private static HttpEntity compress(CompressionInterceptor.Encoding encoding, byte[] body, long minSize)
+			throws IOException, HttpException {
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		ByteArrayEntity original = new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+		post.setEntity(original);
+		new CompressionInterceptor(encoding, 9, minSize).process(post, new BasicHttpContext());
+		assertNotSame(original, post.getEntity());
+		return post.getEntity();
+	}
+
+	private static InputStream written(HttpEntity entity) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+}
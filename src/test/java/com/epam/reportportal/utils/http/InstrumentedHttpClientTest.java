@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpEntityEnclosingRequest;
+import com.epam.reportportal.apache.http.HttpHost;
+import com.epam.reportportal.apache.http.HttpRequest;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.client.methods.CloseableHttpResponse;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.entity.ByteArrayEntity;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+import com.epam.reportportal.apache.http.message.BasicHttpResponse;
+import com.epam.reportportal.apache.http.protocol.HttpContext;
+import com.epam.reportportal.utils.metrics.SimpleMetricsRegistry;
+import com.google.common.io.ByteStreams;
+
+public class InstrumentedHttpClientTest {
+
+	@Test
+	public void bytesOfRepeatedRequestAreCountedOnce() throws IOException {
+		SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+		InstrumentedHttpClient client = new InstrumentedHttpClient(new StubHttpClient(200), metrics);
+		HttpPost post = new HttpPost("http://localhost/api/v1/project/log");
+		ByteArrayEntity entity = new ByteArrayEntity(new byte[100]);
+		post.setEntity(entity);
+
+		client.execute(post).close();
+		client.execute(post).close();
+
+		assertSame(entity, post.getEntity());
+		assertEquals(2, metrics.getCounter(InstrumentedHttpClient.REQUESTS));
+		assertEquals(200, metrics.getCounter(InstrumentedHttpClient.BYTES_SENT));
+	}
+
+	@Test
+	public void clientErrorsAreCountedSeparately() throws IOException {
+		SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+		new InstrumentedHttpClient(new StubHttpClient(404), metrics).execute(new HttpPost("http://localhost/api/v1/project/log")).close();
+		new InstrumentedHttpClient(new StubHttpClient(503), metrics).execute(new HttpPost("http://localhost/api/v1/project/log")).close();
+
+		assertEquals(1, metrics.getCounter(InstrumentedHttpClient.CLIENT_ERRORS));
+		assertEquals(1, metrics.getCounter(InstrumentedHttpClient.ERRORS));
+	}
+
+	/**
+	 * Writes request body and responds with the status
+	 */
+	private static class StubHttpClient extends CloseableHttpClient {
+
+		private final int status;
+
+		StubHttpClient(int status) {
+			this.status = status;
+		}
+
+		@Override
+		protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+			if (request instanceof HttpEntityEnclosingRequest && null != ((HttpEntityEnclosingRequest) request).getEntity()) {
+				((HttpEntityEnclosingRequest) request).getEntity().writeTo(ByteStreams.nullOutputStream());
+			}
+			return new StubResponse(status);
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public com.epam.reportportal.apache.http.params.HttpParams getParams() {
+			return null;
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public com.epam.reportportal.apache.http.conn.ClientConnectionManager getConnectionManager() {
+			return null;
+		}
+	}
+
+	private static class StubResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+		StubResponse(int status) {
+			super(HttpVersion.HTTP_1_1, status, null);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
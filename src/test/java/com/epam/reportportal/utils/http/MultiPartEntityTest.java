@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.epam.reportportal.restclient.endpoint.Serializer;
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteSource;
+
+public class MultiPartEntityTest {
+
+	@Test
+	public void partsAreWrittenInOrder() throws IOException {
+		String request = "[{\"message\":\"log\"}]";
+		MultiPartEntity entity = new MultiPartEntity().addSerializedPart("json_request_part", request)
+				.addPart("file", "screenshot.png", "image/png", ByteSource.wrap("png".getBytes(Charsets.UTF_8))).serialize(serializer(request));
+
+		String contentType = entity.getContentType().getValue();
+		assertTrue(contentType.startsWith("multipart/form-data; boundary="));
+		String boundary = contentType.substring(contentType.indexOf('=') + 1);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+		String expected = "--" + boundary + "\r\n" //
+				+ "Content-Disposition: form-data; name=\"json_request_part\"\r\n" //
+				+ "Content-Type: application/json\r\n\r\n" //
+				+ request + "\r\n" //
+				+ "--" + boundary + "\r\n" //
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"screenshot.png\"\r\n" //
+				+ "Content-Type: image/png\r\n\r\n" //
+				+ "png\r\n" //
+				+ "--" + boundary + "--\r\n";
+		assertEquals(expected, new String(out.toByteArray(), Charsets.UTF_8));
+		assertTrue(entity.isRepeatable());
+
+		ByteArrayOutputStream retry = new ByteArrayOutputStream();
+		entity.writeTo(retry);
+		assertEquals(expected, new String(retry.toByteArray(), Charsets.UTF_8));
+	}
+
+	@Test
+	public void lineBreaksOfFilenameAreEncoded() throws IOException {
+		MultiPartEntity entity = new MultiPartEntity().addPart("file", "a\"\r\nX-Injected: 1.png", "image/png",
+				ByteSource.wrap("png".getBytes(Charsets.UTF_8)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+		String written = new String(out.toByteArray(), Charsets.UTF_8);
+		assertTrue(written.contains("filename=\"a%22%0D%0AX-Injected: 1.png\"\r\n"));
+		assertFalse(written.contains("\r\nX-Injected"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void serializationDoesNotChangeEntity() throws IOException {
+		MultiPartEntity entity = new MultiPartEntity().addSerializedPart("json_request_part", "[]");
+		entity.serialize(serializer("[]"));
+		entity.writeTo(new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void notSerializedPart() throws IOException {
+		new MultiPartEntity().addSerializedPart("json_request_part", "[]").writeTo(new ByteArrayOutputStream());
+	}
+
+	/**
+	 * Serializer which writes JSON value as is, new stream is returned on
+	 * each call
+	 */
+	static Serializer serializer(final String json) throws IOException {
+		Serializer serializer = mock(Serializer.class);
+		when(serializer.serialize(json)).thenAnswer(new Answer<InputStream>() {
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new ByteArrayInputStream(json.getBytes(Charsets.UTF_8));
+			}
+		});
+		when(serializer.getMimeType()).thenReturn("application/json");
+		return serializer;
+	}
+}
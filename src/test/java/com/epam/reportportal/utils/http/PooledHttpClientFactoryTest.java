@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpRequestInterceptor;
+import com.epam.reportportal.apache.http.impl.client.CloseableHttpClient;
+
+public class PooledHttpClientFactoryTest {
+
+	private static final String PASSWORD = "password";
+
+	private File keyStore;
+
+	@Before
+	public void createKeyStore() throws IOException, GeneralSecurityException {
+		keyStore = File.createTempFile("keystore", ".jks");
+		KeyStore store = KeyStore.getInstance("JKS");
+		store.load(null, null);
+		OutputStream out = new FileOutputStream(keyStore);
+		try {
+			store.store(out, PASSWORD.toCharArray());
+		} finally {
+			out.close();
+		}
+	}
+
+	@After
+	public void deleteKeyStore() {
+		keyStore.delete();
+	}
+
+	@Test
+	public void createClient() throws IOException, GeneralSecurityException {
+		PooledHttpClientFactory factory = new PooledHttpClientFactory(Collections.<HttpRequestInterceptor> emptyList(),
+				PooledHttpClientFactory.createSslContext(keyStore.getPath(), PASSWORD), 10, 5, 1000, 1000, 1000, 1000);
+		CloseableHttpClient client = factory.createHttpClient();
+		assertNotNull(client);
+		client.close();
+	}
+
+	@Test
+	public void evictorIsStoppedOnClose() throws IOException, InterruptedException {
+		int evictors = countEvictors();
+		CloseableHttpClient client = new PooledHttpClientFactory(Collections.<HttpRequestInterceptor> emptyList(), null, 10, 5, 1000,
+				1000, 1000, 1000).createHttpClient();
+		assertEquals(evictors + 1, countEvictors());
+		client.close();
+		for (int i = 0; i < 100 && countEvictors() > evictors; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(evictors, countEvictors());
+	}
+
+	private static int countEvictors() {
+		int count = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("rp-connection-evictor") && thread.isAlive()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test(expected = IOException.class)
+	public void wrongKeyStorePassword() throws IOException, GeneralSecurityException {
+		PooledHttpClientFactory.createSslContext(keyStore.getPath(), "wrong");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyPool() {
+		new PooledHttpClientFactory(Collections.<HttpRequestInterceptor> emptyList(), null, 0, 5, 1000, 1000, 1000, 1000);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+
+import org.junit.Test;
+
+import com.epam.reportportal.apache.http.HttpResponse;
+import com.epam.reportportal.apache.http.HttpVersion;
+import com.epam.reportportal.apache.http.client.methods.HttpPost;
+import com.epam.reportportal.apache.http.client.methods.HttpPut;
+import com.epam.reportportal.apache.http.client.methods.HttpUriRequest;
+import com.epam.reportportal.apache.http.client.protocol.HttpClientContext;
+import com.epam.reportportal.apache.http.message.BasicHttpResponse;
+
+public class RetryStrategyTest {
+
+	private final RetryStrategy strategy = new RetryStrategy(2, 1, 60000, new RetryBudget(0.1, 100));
+
+	@Test
+	public void unavailableServerIsRetriedAfterDelay() {
+		HttpResponse response = response(503);
+		response.setHeader("Retry-After", "5");
+		assertTrue(strategy.retryRequest(response, 1, context(new HttpPost("http://localhost/log"), true)));
+		assertEquals(5000, strategy.getRetryInterval());
+	}
+
+	@Test
+	public void unavailableServerIsRetriedForPostOnlyWithRetryAfter() {
+		assertFalse(strategy.retryRequest(response(503), 1, context(new HttpPost("http://localhost/log"), true)));
+		assertFalse(strategy.retryRequest(response(429), 1, context(new HttpPost("http://localhost/log"), true)));
+		assertTrue(strategy.retryRequest(response(503), 1, context(new HttpPut("http://localhost/item"), true)));
+		HttpResponse response = response(429);
+		response.setHeader("Retry-After", "1");
+		assertTrue(strategy.retryRequest(response, 1, context(new HttpPost("http://localhost/log"), true)));
+	}
+
+	@Test
+	public void failedPostIsNotRetried() {
+		assertFalse(strategy.retryRequest(response(500), 1, context(new HttpPost("http://localhost/log"), true)));
+		assertTrue(strategy.retryRequest(response(500), 1, context(new HttpPut("http://localhost/item"), true)));
+		assertFalse(strategy.retryRequest(response(404), 1, context(new HttpPut("http://localhost/item"), true)));
+	}
+
+	@Test
+	public void retriesAreLimited() {
+		HttpClientContext context = context(new HttpPut("http://localhost/item"), true);
+		assertTrue(strategy.retryRequest(response(502), 2, context));
+		assertFalse(strategy.retryRequest(response(502), 3, context));
+	}
+
+	@Test
+	public void retriesAreBoundedByBudget() {
+		RetryStrategy strategy = new RetryStrategy(5, 1, 1, new RetryBudget(0.5, 1));
+		HttpClientContext context = context(new HttpPut("http://localhost/item"), true);
+		assertTrue(strategy.retryRequest(response(503), 1, context));
+		assertFalse(strategy.retryRequest(response(503), 2, context));
+		/* two more requests deposit one token */
+		strategy.retryRequest(response(200), 1, context);
+		strategy.retryRequest(response(200), 1, context);
+		assertTrue(strategy.retryRequest(response(503), 2, context));
+	}
+
+	@Test
+	public void ioErrors() {
+		IOException refused = new ConnectException("Connection refused");
+		assertTrue(strategy.retryRequest(refused, 1, context(new HttpPost("http://localhost/log"), false)));
+		assertFalse(strategy.retryRequest(new IOException("Connection reset"), 1, context(new HttpPost("http://localhost/log"), true)));
+		assertTrue(strategy.retryRequest(new IOException("Connection reset"), 1, context(new HttpPut("http://localhost/item"), true)));
+		assertFalse(strategy.retryRequest(new UnknownHostException("localhost"), 1, context(new HttpPut("http://localhost/item"), false)));
+	}
+
+	@Test
+	public void backoffIsBounded() {
+		RetryStrategy strategy = new RetryStrategy(50, 100, 1000, new RetryBudget(0, 0));
+		for (int retry = 1; retry < 50; retry++) {
+			long backoff = strategy.backoff(retry);
+			assertTrue(backoff >= 0 && backoff < Math.min(1000, 100L << (retry - 1)));
+		}
+	}
+
+	private static HttpResponse response(int status) {
+		return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+	}
+
+	private static HttpClientContext context(HttpUriRequest request, boolean sent) {
+		HttpClientContext context = HttpClientContext.create();
+		context.setAttribute(HttpClientContext.HTTP_REQUEST, request);
+		context.setAttribute(HttpClientContext.HTTP_REQ_SENT, sent);
+		return context;
+	}
+}
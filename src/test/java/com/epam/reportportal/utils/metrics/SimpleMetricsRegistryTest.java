@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class SimpleMetricsRegistryTest {
+
+	@Test
+	public void countersAreSummed() {
+		SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+		registry.increment("requests", 1);
+		registry.increment("requests", 2);
+		assertEquals(3, registry.getCounter("requests"));
+		assertEquals(0, registry.getCounter("errors"));
+	}
+
+	@Test
+	public void distributionStatistics() {
+		SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+		for (int i = 100; i > 0; i--) {
+			registry.record("latency", i);
+		}
+		SimpleMetricsRegistry.Snapshot snapshot = registry.getDistribution("latency");
+		assertEquals(100, snapshot.getCount());
+		assertEquals(5050, snapshot.getSum());
+		assertEquals(1, snapshot.getMin());
+		assertEquals(100, snapshot.getMax());
+		assertEquals(50, snapshot.getP50());
+		assertEquals(95, snapshot.getP95());
+		assertEquals(99, snapshot.getP99());
+		assertNull(registry.getDistribution("size"));
+	}
+
+	@Test
+	public void percentilesOfLastValues() {
+		SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+		for (int i = 0; i < 10000; i++) {
+			registry.record("latency", i < 5000 ? 1000 : 1);
+		}
+		SimpleMetricsRegistry.Snapshot snapshot = registry.getDistribution("latency");
+		assertEquals(10000, snapshot.getCount());
+		assertEquals(1000, snapshot.getMax());
+		assertEquals(1, snapshot.getP99());
+	}
+
+	@Test
+	public void gaugeIsReadOnDemand() {
+		SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+		final AtomicLong value = new AtomicLong(1);
+		registry.register("pending", new MetricsRegistry.Gauge() {
+			@Override
+			public long getValue() {
+				return value.get();
+			}
+		});
+		assertEquals(Long.valueOf(1), registry.getGauge("pending"));
+		value.set(5);
+		assertEquals(Long.valueOf(5), registry.getGauge("pending"));
+		assertNull(registry.getGauge("dropped"));
+		assertEquals(ImmutableSet.of("pending"), registry.getGaugeNames());
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Queue;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class AdaptiveFlushPolicyTest {
+
+	@Test
+	public void growsWhileBatchesAreFullAndFast() {
+		AdaptiveFlushPolicy<String> policy = new AdaptiveFlushPolicy<String>(10, 170, 100, 1700, 1000);
+		policy.onExecuted(10, 0, 50, false);
+		assertEquals(20, policy.getSize());
+		assertEquals(100, policy.getLingerTime());
+		for (int i = 0; i < 100; i++) {
+			policy.onExecuted(policy.getSize(), 0, 50, false);
+		}
+		assertEquals(170, policy.getSize());
+	}
+
+	@Test
+	public void notFullBatchDoesNotGrow() {
+		AdaptiveFlushPolicy<String> policy = new AdaptiveFlushPolicy<String>(10, 170, 0, 1000, 1000);
+		policy.onExecuted(3, 0, 50, false);
+		assertEquals(10, policy.getSize());
+	}
+
+	@Test
+	public void shrinksOnSlowOrFailedExecution() {
+		AdaptiveFlushPolicy<String> policy = new AdaptiveFlushPolicy<String>(10, 170, 0, 1600, 1000);
+		for (int i = 0; i < 4; i++) {
+			policy.onExecuted(policy.getSize(), 0, 50, false);
+		}
+		assertEquals(50, policy.getSize());
+
+		policy.onExecuted(50, 0, 5000, false);
+		assertEquals(25, policy.getSize());
+		assertEquals(100, policy.getLingerTime());
+
+		policy.onExecuted(25, 0, 50, true);
+		assertEquals(12, policy.getSize());
+		assertEquals(200, policy.getLingerTime());
+
+		for (int i = 0; i < 10; i++) {
+			policy.onExecuted(policy.getSize(), 0, 50, true);
+		}
+		assertEquals(10, policy.getSize());
+		assertEquals(1600, policy.getLingerTime());
+	}
+
+	@Test
+	public void weightLimitIsAdaptedAsWell() {
+		AdaptiveFlushPolicy<String> policy = new AdaptiveFlushPolicy<String>(10, 170, 0, 1600, 1000, 1600);
+		assertEquals(1600, policy.getWeightLimit());
+
+		policy.onExecuted(3, 1600, 5000, false);
+		assertEquals(800, policy.getWeightLimit());
+		policy.onExecuted(3, 800, 50, true);
+		assertEquals(400, policy.getWeightLimit());
+		for (int i = 0; i < 10; i++) {
+			policy.onExecuted(1, 1, 50, true);
+		}
+		assertEquals(100, policy.getWeightLimit());
+
+		/* batch which is full by weight grows */
+		policy.onExecuted(3, 100, 50, false);
+		assertEquals(193, policy.getWeightLimit());
+		assertEquals(20, policy.getSize());
+
+		policy.onExecuted(3, 10, 50, false);
+		assertEquals(193, policy.getWeightLimit());
+		for (int i = 0; i < 100; i++) {
+			policy.onExecuted(3, policy.getWeightLimit(), 50, false);
+		}
+		assertEquals(1600, policy.getWeightLimit());
+	}
+
+	@Test
+	public void fixedPolicy() {
+		AdaptiveFlushPolicy<String> policy = new AdaptiveFlushPolicy<String>(2, 100);
+		policy.onExecuted(2, 0, Long.MAX_VALUE - 1, true);
+		policy.onExecuted(2, 0, 1, false);
+		assertEquals(2, policy.getSize());
+		assertEquals(100, policy.getLingerTime());
+
+		Queue<String> queue = Lists.newLinkedList(Lists.newArrayList("a"));
+		assertFalse(policy.shouldBeFlushed(queue));
+		queue.add("b");
+		assertTrue(policy.shouldBeFlushed(queue));
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Predicates;
+
+public class AsyncBatchExecutorTest {
+
+	@Test
+	public void allSubmittedParametersAreExecutedOnFlush() throws IOException {
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+		AsyncBatchExecutor<String, String> executor = new AsyncBatchExecutor<String, String>(5, 2, 100) {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				batchSizes.add(batch.size());
+				for (Parameter<String, String> parameter : batch) {
+					parameter.getResult().set(parameter.getParameter() + " result");
+				}
+			}
+		};
+
+		List<Result<String>> results = new CopyOnWriteArrayList<Result<String>>();
+		for (int i = 0; i < 42; i++) {
+			results.add(executor.submit(String.valueOf(i)));
+		}
+		executor.executeAndClear();
+
+		for (int i = 0; i < results.size(); i++) {
+			assertTrue(results.get(i).isPresent());
+			assertEquals(i + " result", results.get(i).get());
+		}
+		int executed = 0;
+		for (Integer size : batchSizes) {
+			assertTrue("Batch size exceeds limit", size <= 5);
+			executed += size;
+		}
+		assertEquals(42, executed);
+		executor.close();
+	}
+
+	@Test
+	public void queueIsDrainedOnClose() throws IOException {
+		final List<String> executed = new CopyOnWriteArrayList<String>();
+		AsyncBatchExecutor<String, String> executor = new AsyncBatchExecutor<String, String>(3, 1, 10) {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> parameter : batch) {
+					executed.add(parameter.getParameter());
+				}
+			}
+		};
+		for (int i = 0; i < 10; i++) {
+			executor.submit(String.valueOf(i));
+		}
+		executor.close();
+		assertEquals(10, executed.size());
+	}
+
+	@Test
+	public void streamIsExecutedInOrderOfSubmission() throws IOException {
+		final List<String> executed = new CopyOnWriteArrayList<String>();
+		AsyncBatchExecutor<String, String> executor = new AsyncBatchExecutor<String, String>(2, 4, 100) {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> parameter : batch) {
+					executed.add(parameter.getParameter());
+				}
+			}
+
+			@Override
+			protected Object getStream(String parameter) {
+				return parameter.substring(0, 1);
+			}
+		};
+		for (int i = 0; i < 20; i++) {
+			executor.submit("a" + i);
+			executor.submit("b" + i);
+		}
+		executor.executeAndClear();
+
+		int a = 0;
+		int b = 0;
+		for (String parameter : executed) {
+			assertEquals(parameter.charAt(0) == 'a' ? a++ : b++, Integer.parseInt(parameter.substring(1)));
+		}
+		assertEquals(40, executed.size());
+		executor.close();
+	}
+
+	@Test
+	public void flushOfStreamDoesNotWaitForOtherStreams() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		AsyncBatchExecutor<String, String> executor = new AsyncBatchExecutor<String, String>(1, 2, 10) {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> parameter : batch) {
+					if ("blocked".equals(parameter.getParameter())) {
+						try {
+							blocked.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							throw new IOException(e);
+						}
+					}
+					parameter.getResult().set(parameter.getParameter());
+				}
+			}
+
+			@Override
+			protected Object getStream(String parameter) {
+				/* "blocked" and "free" go to different senders */
+				return parameter.length();
+			}
+		};
+		Result<String> blockedResult = executor.submit("blocked");
+		Result<String> result = executor.submit("free");
+
+		executor.executeAndClearIfAny(Predicates.equalTo("free"));
+		assertTrue(result.isPresent());
+		assertFalse(blockedResult.isDone());
+
+		blocked.countDown();
+		executor.close();
+		assertEquals("blocked", blockedResult.get());
+	}
+
+	@Test
+	public void queuedParametersAreRemoved() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final List<String> executed = new CopyOnWriteArrayList<String>();
+		AsyncBatchExecutor<String, String> executor = new AsyncBatchExecutor<String, String>(1, 1, 10) {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				for (Parameter<String, String> parameter : batch) {
+					if ("blocked".equals(parameter.getParameter())) {
+						started.countDown();
+						try {
+							blocked.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							throw new IOException(e);
+						}
+					}
+					executed.add(parameter.getParameter());
+				}
+			}
+		};
+		executor.submit("blocked");
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		executor.submit("a");
+		Result<String> removed = executor.submit("b");
+		executor.submit("c");
+
+		List<BatchExecutor.Parameter<String, String>> parameters = executor.remove(Predicates.or(Predicates.equalTo("b"),
+				Predicates.equalTo("blocked")));
+		assertEquals(1, parameters.size());
+		assertSame(removed, parameters.get(0).getResult());
+		assertEquals(3, executor.getPendingCount());
+
+		blocked.countDown();
+		executor.executeAndClear();
+		assertEquals(Arrays.asList("blocked", "a", "c"), executed);
+		executor.close();
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class CompositeFlushPolicyTest {
+
+	private static final WeightBasedFlushPolicy.Weigher<String> LENGTH = new WeightBasedFlushPolicy.Weigher<String>() {
+		@Override
+		public long weigh(String element) {
+			return element.length();
+		}
+	};
+
+	@Test
+	public void flushedBySize() {
+		FlushableQueue.FlushPolicy<String> policy = policy(3, 100);
+		Queue<String> queue = Lists.newLinkedList(Lists.newArrayList("a", "b"));
+		assertFalse(policy.shouldBeFlushed(queue));
+		queue.add("c");
+		assertTrue(policy.shouldBeFlushed(queue));
+	}
+
+	@Test
+	public void flushedByWeight() {
+		FlushableQueue.FlushPolicy<String> policy = policy(100, 10);
+		Queue<String> queue = Lists.newLinkedList(Lists.newArrayList("12345"));
+		assertFalse(policy.shouldBeFlushed(queue));
+		queue.add("67890");
+		assertTrue(policy.shouldBeFlushed(queue));
+	}
+
+	private static FlushableQueue.FlushPolicy<String> policy(int size, long weight) {
+		List<FlushableQueue.FlushPolicy<String>> policies = Lists.newArrayList();
+		policies.add(new SizeBasedFlushPolicy<String>(size));
+		policies.add(new WeightBasedFlushPolicy<String>(weight, LENGTH));
+		return new CompositeFlushPolicy<String>(policies);
+	}
+}
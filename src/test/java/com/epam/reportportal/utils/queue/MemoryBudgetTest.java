@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class MemoryBudgetTest {
+
+	@Test
+	public void boundedByEntries() {
+		MemoryBudget budget = new MemoryBudget(2, Long.MAX_VALUE);
+		assertTrue(budget.tryAcquire(1));
+		assertTrue(budget.tryAcquire(1));
+		assertFalse(budget.tryAcquire(1));
+		budget.release(1, 1);
+		assertTrue(budget.tryAcquire(1));
+	}
+
+	@Test
+	public void boundedByBytes() {
+		MemoryBudget budget = new MemoryBudget(100, 10);
+		assertTrue(budget.tryAcquire(6));
+		assertFalse(budget.tryAcquire(6));
+		assertTrue(budget.tryAcquire(4));
+		assertEquals(10, budget.getBytes());
+		assertEquals(2, budget.getEntries());
+	}
+
+	@Test
+	public void largeElementFitsEmptyBudget() {
+		MemoryBudget budget = new MemoryBudget(100, 10);
+		assertTrue(budget.tryAcquire(100));
+		assertFalse(budget.tryAcquire(1));
+	}
+
+	@Test
+	public void acquireWaitsForRelease() throws InterruptedException {
+		final MemoryBudget budget = new MemoryBudget(1, Long.MAX_VALUE);
+		budget.tryAcquire(1);
+		final CountDownLatch acquired = new CountDownLatch(1);
+		Thread waiter = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					budget.acquire(1);
+					acquired.countDown();
+				} catch (InterruptedIOException e) {
+					// test fails by timeout
+				}
+			}
+		});
+		waiter.start();
+		assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+		budget.release(1, 1);
+		assertTrue(acquired.await(5, TimeUnit.SECONDS));
+	}
+}
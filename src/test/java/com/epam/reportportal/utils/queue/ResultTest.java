@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.google.common.util.concurrent.FutureCallback;
+
+public class ResultTest {
+
+	@Test
+	public void getDoesNotBlock() {
+		Result<String> result = new Result<String>();
+		assertNull(result.get());
+		assertFalse(result.isPresent());
+		assertFalse(result.isDone());
+	}
+
+	@Test(expected = TimeoutException.class)
+	public void getWithTimeout() throws Exception {
+		new Result<String>().get(10, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void completedFromAnotherThread() throws Exception {
+		final Result<String> result = new Result<String>();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				result.set("value");
+			}
+		}).start();
+		assertEquals("value", result.get(5, TimeUnit.SECONDS));
+		assertTrue(result.isPresent());
+	}
+
+	@Test
+	public void callbackIsNotifiedOnFailure() throws InterruptedException {
+		final Result<String> result = new Result<String>();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final CountDownLatch notified = new CountDownLatch(1);
+		result.addCallback(new FutureCallback<String>() {
+			@Override
+			public void onSuccess(String value) {
+				notified.countDown();
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				failure.set(t);
+				notified.countDown();
+			}
+		});
+
+		IOException cause = new IOException("batch failed");
+		result.setException(cause);
+
+		assertTrue(notified.await(5, TimeUnit.SECONDS));
+		assertSame(cause, failure.get());
+		assertTrue(result.isDone());
+		assertNull(result.get());
+	}
+
+	@Test
+	public void batchFailureCompletesResults() throws IOException, InterruptedException, TimeoutException {
+		BatchExecutor<String, String> executor = new BatchExecutor<String, String>() {
+			@Override
+			protected void executeBatch(Queue<Parameter<String, String>> batch) throws IOException {
+				throw new IOException("Server is down");
+			}
+
+			@Override
+			protected boolean execute(Queue<Parameter<String, String>> batch) throws IOException {
+				return false;
+			}
+		};
+		Result<String> result = executor.submit("1");
+		try {
+			executor.executeAndClear();
+		} catch (IOException e) {
+			// expected
+		}
+		try {
+			result.get(1, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertEquals("Server is down", e.getCause().getMessage());
+			return;
+		}
+		throw new AssertionError("Result should be completed exceptionally");
+	}
+}
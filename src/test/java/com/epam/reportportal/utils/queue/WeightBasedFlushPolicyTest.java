@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class WeightBasedFlushPolicyTest {
+
+	@Test
+	public void elementsAreWeighedOnce() {
+		final AtomicInteger weighed = new AtomicInteger();
+		WeightBasedFlushPolicy<String> policy = new WeightBasedFlushPolicy<String>(100, new WeightBasedFlushPolicy.Weigher<String>() {
+			@Override
+			public long weigh(String element) {
+				weighed.incrementAndGet();
+				return element.length();
+			}
+		});
+
+		Queue<String> queue = Lists.newLinkedList();
+		for (int i = 0; i < 9; i++) {
+			queue.add("1234567890");
+			assertFalse(policy.shouldBeFlushed(queue));
+		}
+		queue.add("1234567890");
+		assertTrue(policy.shouldBeFlushed(queue));
+		assertEquals(10, weighed.get());
+	}
+
+	@Test
+	public void weightIsRecalculatedForOtherQueue() {
+		WeightBasedFlushPolicy<String> policy = new WeightBasedFlushPolicy<String>(10, new WeightBasedFlushPolicy.Weigher<String>() {
+			@Override
+			public long weigh(String element) {
+				return element.length();
+			}
+		});
+
+		Queue<String> queue = Lists.newLinkedList(Lists.newArrayList("12345", "67890"));
+		assertTrue(policy.shouldBeFlushed(queue));
+		assertFalse(policy.shouldBeFlushed(Lists.newLinkedList(Lists.newArrayList("12345"))));
+
+		queue.poll();
+		assertFalse(policy.shouldBeFlushed(queue));
+		queue.add("12");
+		queue.add("345");
+		assertTrue(policy.shouldBeFlushed(queue));
+	}
+
+	@Test
+	public void alternatingQueuesAreWeighedSeparately() {
+		final AtomicInteger weighed = new AtomicInteger();
+		WeightBasedFlushPolicy<String> policy = new WeightBasedFlushPolicy<String>(30, new WeightBasedFlushPolicy.Weigher<String>() {
+			@Override
+			public long weigh(String element) {
+				weighed.incrementAndGet();
+				return element.length();
+			}
+		});
+
+		Queue<String> first = Lists.newLinkedList();
+		Queue<String> second = Lists.newLinkedList();
+		for (int i = 0; i < 2; i++) {
+			first.add("1234567890");
+			assertFalse(policy.shouldBeFlushed(first));
+			second.add("12345");
+			assertFalse(policy.shouldBeFlushed(second));
+		}
+		first.add("1234567890");
+		assertTrue(policy.shouldBeFlushed(first));
+		second.add("12345");
+		assertFalse(policy.shouldBeFlushed(second));
+		assertEquals(6, weighed.get());
+	}
+}
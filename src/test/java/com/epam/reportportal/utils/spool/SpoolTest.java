@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 EPAM Systems
+ *
+ *
+ * This file is part of EPAM Report Portal.
+ * https://github.com/reportportal/client-java-core
+ *
+ * Report Portal is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Report Portal is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Report Portal.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.epam.reportportal.utils.spool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class SpoolTest {
+
+	private File directory;
+
+	@Before
+	public void createDirectory() {
+		directory = Files.createTempDir();
+	}
+
+	@After
+	public void deleteDirectory() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void recordsAreReadInOrder() throws IOException {
+		Spool spool = new Spool(directory, 1024);
+		assertTrue(spool.isEmpty());
+		assertNull(spool.peek());
+
+		spool.append((byte) 1, bytes("first"));
+		spool.append((byte) 2, bytes("second"));
+
+		Spool.Record record = spool.peek();
+		assertEquals(1, record.getType());
+		assertArrayEquals(bytes("first"), record.getPayload());
+		/* peek doesn't remove */
+		assertArrayEquals(bytes("first"), spool.peek().getPayload());
+
+		spool.remove();
+		record = spool.peek();
+		assertEquals(2, record.getType());
+		assertArrayEquals(bytes("second"), record.getPayload());
+
+		spool.remove();
+		assertTrue(spool.isEmpty());
+	}
+
+	@Test
+	public void recordsSurviveReopening() throws IOException {
+		Spool spool = new Spool(directory, 1024);
+		spool.append((byte) 1, bytes("consumed"));
+		spool.append((byte) 1, bytes("pending"));
+		spool.remove();
+		spool.close();
+
+		Spool reopened = new Spool(directory, 1024);
+		assertArrayEquals(bytes("pending"), reopened.peek().getPayload());
+		reopened.remove();
+		assertTrue(reopened.isEmpty());
+
+		reopened.append((byte) 1, bytes("appended"));
+		assertArrayEquals(bytes("appended"), reopened.peek().getPayload());
+	}
+
+	@Test
+	public void segmentsAreRolledAndDeleted() throws IOException {
+		Spool spool = new Spool(directory, 64);
+		long first = spool.append((byte) 1, new byte[40]);
+		long second = spool.append((byte) 1, new byte[40]);
+		/* record bigger than segment size */
+		spool.append((byte) 1, new byte[100]);
+		assertFalse(first == second);
+		assertEquals(3, directory.listFiles().length);
+
+		spool.remove();
+		assertEquals(second, spool.peek().getPosition());
+		spool.remove();
+		assertEquals(100, spool.peek().getPayload().length);
+		assertEquals(1, directory.listFiles().length);
+	}
+
+	@Test
+	public void failedPayloadIsNotAppended() throws IOException {
+		Spool spool = new Spool(directory, 64);
+		try {
+			spool.append((byte) 1, new Spool.Payload() {
+				@Override
+				public void writeTo(OutputStream output) throws IOException {
+					/* looks like record after the next appended one */
+					byte[] garbage = new byte[10000];
+					ByteBuffer.wrap(garbage).putInt(7, 1);
+					output.write(garbage);
+					throw new IOException("Attachment can't be read");
+				}
+			});
+		} catch (IOException e) {
+			/* expected */
+		}
+		assertTrue(spool.isEmpty());
+
+		spool.append((byte) 1, bytes("pending"));
+		spool.close();
+		Spool reopened = new Spool(directory, 64);
+		assertArrayEquals(bytes("pending"), reopened.peek().getPayload());
+		reopened.remove();
+		assertTrue(reopened.isEmpty());
+	}
+
+	@Test
+	public void emptyPayload() throws IOException {
+		Spool spool = new Spool(directory, 64);
+		spool.append((byte) 3, new byte[0]);
+		assertFalse(spool.isEmpty());
+		assertEquals(0, spool.peek().getPayload().length);
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(Charsets.UTF_8);
+	}
+}